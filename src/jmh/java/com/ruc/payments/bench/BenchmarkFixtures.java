@@ -0,0 +1,77 @@
+package com.ruc.payments.bench;
+
+import com.ruc.payments.dto.EppResponse;
+import com.ruc.payments.dto.SaleDetails;
+import com.ruc.payments.dto.SaleItems;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Representative EPP payloads shared by the benchmarks.
+ */
+public final class BenchmarkFixtures {
+
+    public static final String APPLICATION_CODE = "3256d54a-9e63-4c7d-b2f9-a2897ec82aab";
+    public static final String GATEWAY_URL = "https://epp.beta.pa.gov/Payment/Index";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Builds a RUC renewal sale with the given number of line items.
+     */
+    public static SaleDetails saleDetails(String orderKey, int itemCount) {
+        List<SaleItems> items = new ArrayList<>(itemCount);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < itemCount; i++) {
+            SaleItems item = new SaleItems();
+            item.setCount(1);
+            item.setDescription("RUC distance licence renewal - vehicle " + (i + 1) + " (1,000 km)");
+            item.setAmount(new BigDecimal("76.00"));
+            item.setItemKey(orderKey);
+            items.add(item);
+            total = total.add(item.getAmount());
+        }
+
+        SaleDetails details = new SaleDetails();
+        details.setApplicationCode(APPLICATION_CODE);
+        details.setOrderKey(orderKey);
+        details.setFirstName("John");
+        details.setLastName("O'Brien");
+        details.setAddress1("400 Market Street");
+        details.setAddress2("Suite <B> & Annex");
+        details.setCity("Harrisburg");
+        details.setStateCode("PA");
+        details.setZipCode("17111");
+        details.setEmail("testuser@gmail.com");
+        details.setPaymentAccountType("CC");
+        details.setTotalAmount(total);
+        details.setItems(items);
+        return details;
+    }
+
+    /**
+     * Builds the completed-payment callback EPP sends for the given order.
+     */
+    public static EppResponse eppResponse(String orderKey) {
+        EppResponse response = new EppResponse();
+        response.setOrderKey(orderKey);
+        response.setApplicationUniqueId("APP-" + orderKey);
+        response.setApplicationCode(APPLICATION_CODE);
+        response.setStatus("COM");
+        response.setCardHolderName("John O'Brien");
+        response.setAddress("400 Market Street");
+        response.setCity("Harrisburg");
+        response.setStateCode("PA");
+        response.setZipCode("17111");
+        response.setTotalAmount(new BigDecimal("76.00"));
+        response.setEmailId("testuser@gmail.com");
+        response.setReferenceNumber("RN-5521904410");
+        response.setPaymentAccountType("Visa");
+        response.setAuthCode("A1B2C3");
+        response.setReferenceNo("5521904410");
+        return response;
+    }
+}
@@ -0,0 +1,179 @@
+package com.ruc.payments.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Entry point of the {@code jmh} profile. Runs JMH with the given arguments, always
+ * writing machine-readable results, and optionally compares them with an earlier run.
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="-prof gc -rff target/jmh-baseline.json"
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="-prof gc -baseline target/jmh-baseline.json"
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="-compare target/jmh-baseline.json target/jmh-result.json"
+ * </pre>
+ *
+ * <p>Results go to {@code target/jmh-result.json} (JMH's JSON format) unless {@code -rf} or
+ * {@code -rff} say otherwise. With {@code -baseline FILE} each benchmark and parameter
+ * combination is matched against the baseline. A change counts as a regression when the
+ * score is worse by more than {@code -tolerance} (default 0.10) and by more than the two
+ * error margins combined, so noise alone does not fail the run. The normalized allocation
+ * rate from {@code -prof gc} is compared the same way. The process exits with 1 on any
+ * regression, so the comparison can gate a build.</p>
+ */
+public final class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT = "target/jmh-result.json";
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>();
+        Path baseline = null;
+        Path compareCurrent = null;
+        double tolerance = 0.10;
+        boolean resultFormatGiven = false;
+        Path resultFile = Paths.get(DEFAULT_RESULT);
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-baseline" -> baseline = Paths.get(args[++i]);
+                case "-tolerance" -> tolerance = Double.parseDouble(args[++i]);
+                case "-compare" -> {
+                    baseline = Paths.get(args[++i]);
+                    compareCurrent = Paths.get(args[++i]);
+                }
+                case "-rf" -> {
+                    resultFormatGiven = true;
+                    jmhArgs.add(args[i]);
+                    jmhArgs.add(args[++i]);
+                }
+                case "-rff" -> {
+                    resultFile = Paths.get(args[++i]);
+                    jmhArgs.add("-rff");
+                    jmhArgs.add(resultFile.toString());
+                }
+                default -> jmhArgs.add(args[i]);
+            }
+        }
+
+        if (compareCurrent == null) {
+            if (!resultFormatGiven) {
+                jmhArgs.add(0, "-rf");
+                jmhArgs.add(1, "json");
+            }
+            if (!jmhArgs.contains("-rff")) {
+                Files.createDirectories(resultFile.toAbsolutePath().getParent());
+                jmhArgs.add("-rff");
+                jmhArgs.add(resultFile.toString());
+            }
+            new Runner(new CommandLineOptions(jmhArgs.toArray(String[]::new))).run();
+            compareCurrent = resultFile;
+        }
+
+        if (baseline != null) {
+            System.exit(compare(baseline, compareCurrent, tolerance) ? 1 : 0);
+        }
+    }
+
+    /**
+     * Prints a per-benchmark comparison table.
+     *
+     * @return true when any benchmark regressed
+     */
+    static boolean compare(Path baselineFile, Path currentFile, double tolerance) throws IOException {
+        Map<String, Score> baseline = read(baselineFile);
+        Map<String, Score> current = read(currentFile);
+        boolean regressed = false;
+
+        System.out.printf("%nComparison with %s (tolerance %.0f%%)%n", baselineFile, tolerance * 100);
+        System.out.printf("%-70s %14s %14s %9s  %s%n", "benchmark", "baseline", "current", "change", "");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14s %9s  new%n", entry.getKey(), "-", now.format(), "");
+                continue;
+            }
+            double change = before.value == 0 ? 0 : (now.value - before.value) / before.value;
+            double worse = now.higherIsBetter ? -change : change;
+            boolean significant = Math.abs(now.value - before.value) > before.error + now.error;
+            String verdict = !significant || Math.abs(change) <= tolerance ? ""
+                    : worse > 0 ? "REGRESSION" : "improved";
+            regressed |= "REGRESSION".equals(verdict);
+            System.out.printf("%-70s %14s %14s %+8.1f%%  %s%n",
+                    entry.getKey(), before.format(), now.format(), change * 100, verdict);
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) {
+                System.out.printf("%-70s %14s %14s %9s  not run%n", missing, baseline.get(missing).format(), "-", "");
+            }
+        }
+        System.out.println(regressed ? "REGRESSION against baseline" : "No regressions against baseline");
+        return regressed;
+    }
+
+    /**
+     * Reads a JMH JSON result file into scores keyed by benchmark, mode and parameters,
+     * with the normalized allocation rate as an extra row when it was profiled.
+     */
+    private static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file.toFile())) {
+            String benchmark = result.path("benchmark").asText().replace("com.ruc.payments.bench.", "");
+            String mode = result.path("mode").asText();
+            StringBuilder key = new StringBuilder(benchmark);
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            if (params.hasNext()) {
+                key.append('(');
+                while (params.hasNext()) {
+                    Map.Entry<String, JsonNode> param = params.next();
+                    key.append(param.getKey()).append('=').append(param.getValue().asText());
+                    if (params.hasNext()) {
+                        key.append(',');
+                    }
+                }
+                key.append(')');
+            }
+            key.append(" [").append(mode).append(']');
+
+            scores.put(key.toString(), Score.of(result.path("primaryMetric"), "thrpt".equals(mode)));
+            Iterator<Map.Entry<String, JsonNode>> secondary = result.path("secondaryMetrics").fields();
+            while (secondary.hasNext()) {
+                Map.Entry<String, JsonNode> metric = secondary.next();
+                // Older JMH versions prefix profiler metrics with a middle dot
+                if (metric.getKey().replace("·", "").equals(ALLOCATION_METRIC)) {
+                    scores.put(key + " alloc", Score.of(metric.getValue(), false));
+                }
+            }
+        }
+        return scores;
+    }
+
+    private record Score(double value, double error, String unit, boolean higherIsBetter) {
+
+        static Score of(JsonNode metric, boolean higherIsBetter) {
+            double error = metric.path("scoreError").asDouble();
+            return new Score(metric.path("score").asDouble(), Double.isNaN(error) ? 0 : error,
+                    metric.path("scoreUnit").asText(), higherIsBetter);
+        }
+
+        String format() {
+            return String.format("%.3f %s", value, unit);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.ruc.payments.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruc.payments.codec.JsonCodecs;
+import com.ruc.payments.config.EppProperties;
+import com.ruc.payments.dto.SaleDetails;
+import com.ruc.payments.service.CheckoutFormTemplate;
+import com.ruc.payments.service.EppClient;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original double-serialization checkout path of
+ * {@code PaymentServiceImpl.initiatePayment} with the single-pass pipeline.
+ *
+ * <p>Run with {@code -prof gc} to see the allocation rate per operation.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckoutFormBenchmark {
+
+    @Param({"1", "10"})
+    public int itemCount;
+
+    private ObjectMapper objectMapper;
+    private EppProperties eppProperties;
+    private EppClient eppClient;
+    private SaleDetails saleDetails;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper();
+        eppProperties = new EppProperties();
+        eppProperties.setPaymentGatewayIndexUrl(BenchmarkFixtures.GATEWAY_URL);
+        eppClient = new EppClient(new CheckoutFormTemplate(eppProperties), new JsonCodecs(objectMapper));
+        saleDetails = BenchmarkFixtures.saleDetails("RUC-BENCH-0001", itemCount);
+    }
+
+    /**
+     * Serialize for rawRequest, serialize again for the form, five replace passes.
+     */
+    @Benchmark
+    public void legacyPipeline(Blackhole bh) throws JsonProcessingException {
+        String rawRequest = objectMapper.writeValueAsString(saleDetails);
+        String json = objectMapper.writeValueAsString(saleDetails);
+        String escapedJson = json
+            .replace("&", "&amp;")
+            .replace("<", "&lt;")
+            .replace(">", "&gt;")
+            .replace("\"", "&quot;")
+            .replace("'", "&#39;");
+        StringBuilder sb = new StringBuilder();
+        sb.append("<form id='__PostForm' name='__PostForm' action='")
+          .append(eppProperties.getPaymentGatewayIndexUrl())
+          .append("' method='POST'>")
+          .append("<input type='hidden' name='saleDetail' value='")
+          .append(escapedJson)
+          .append("'/>")
+          .append("</form>")
+          .append("<script language='javascript'>var v__PostForm=document.__PostForm;v__PostForm.submit();</script>");
+        bh.consume(rawRequest);
+        bh.consume(sb.toString());
+    }
+
+    /**
+     * Serialize once, escape while writing the form.
+     */
+    @Benchmark
+    public void singlePassPipeline(Blackhole bh) {
+        String rawRequest = eppClient.serializeSaleDetails(saleDetails);
+        bh.consume(rawRequest);
+        bh.consume(eppClient.buildHostedCheckoutForm(rawRequest));
+    }
+}
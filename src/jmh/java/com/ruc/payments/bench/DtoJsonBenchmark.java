@@ -0,0 +1,57 @@
+package com.ruc.payments.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ruc.payments.codec.JsonCodecs;
+import com.ruc.payments.dto.SaleDetails;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the SaleDetails payload on its own, through the prebuilt
+ * {@link JsonCodecs} writer and reader the application uses, from a single renewal
+ * up to a 100-vehicle fleet order.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoJsonBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int itemCount;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private SaleDetails saleDetails;
+    private byte[] json;
+
+    @Setup
+    public void setup() throws IOException {
+        JsonCodecs jsonCodecs = new JsonCodecs(new ObjectMapper());
+        writer = jsonCodecs.writer(SaleDetails.class);
+        reader = jsonCodecs.reader(SaleDetails.class);
+        saleDetails = BenchmarkFixtures.saleDetails("RUC-BENCH-0001", itemCount);
+        json = writer.writeValueAsBytes(saleDetails);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(saleDetails);
+    }
+
+    @Benchmark
+    public SaleDetails deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public SaleDetails roundTrip() throws IOException {
+        return reader.readValue(writer.writeValueAsBytes(saleDetails));
+    }
+}
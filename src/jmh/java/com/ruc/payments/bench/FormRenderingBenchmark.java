@@ -0,0 +1,63 @@
+package com.ruc.payments.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruc.payments.codec.JsonCodecs;
+import com.ruc.payments.config.EppProperties;
+import com.ruc.payments.dto.SaleDetails;
+import com.ruc.payments.service.CheckoutFormTemplate;
+import com.ruc.payments.service.EppClient;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout form rendering in isolation. {@code fromJson} is the form markup plus HTML
+ * escaping of an already serialized payload, which is what {@code initiatePayment} pays
+ * after serializing once; {@code fromSaleDetails} adds the serialization, and
+ * {@code toStream} writes the same form as UTF-8 to a stream with its Content-Length.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormRenderingBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int itemCount;
+
+    private EppClient eppClient;
+    private CheckoutFormTemplate template;
+    private final OutputStream sink = OutputStream.nullOutputStream();
+    private SaleDetails saleDetails;
+    private String saleDetailJson;
+
+    @Setup
+    public void setup() {
+        EppProperties eppProperties = new EppProperties();
+        eppProperties.setPaymentGatewayIndexUrl(BenchmarkFixtures.GATEWAY_URL);
+        template = new CheckoutFormTemplate(eppProperties);
+        eppClient = new EppClient(template, new JsonCodecs(new ObjectMapper()));
+        saleDetails = BenchmarkFixtures.saleDetails("RUC-BENCH-0001", itemCount);
+        saleDetailJson = eppClient.serializeSaleDetails(saleDetails);
+    }
+
+    @Benchmark
+    public String fromJson() {
+        return eppClient.buildHostedCheckoutForm(saleDetailJson);
+    }
+
+    @Benchmark
+    public String fromSaleDetails() {
+        return eppClient.buildHostedCheckoutForm(saleDetails);
+    }
+
+    @Benchmark
+    public long toStream() throws IOException {
+        template.writeTo(sink, saleDetailJson);
+        return template.contentLength(saleDetailJson);
+    }
+}
@@ -0,0 +1,58 @@
+package com.ruc.payments.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruc.payments.util.HtmlEscaper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One-pass {@link HtmlEscaper} against the five chained {@code String.replace} calls it
+ * replaced, on serialized SaleDetails (quote-heavy) and on text with nothing to escape.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HtmlEscaperBenchmark {
+
+    @Param({"saleDetails-1", "saleDetails-100", "clean"})
+    public String input;
+
+    private String text;
+
+    @Setup
+    public void setup() throws Exception {
+        text = switch (input) {
+            case "saleDetails-1" -> new ObjectMapper().writeValueAsString(
+                    BenchmarkFixtures.saleDetails("RUC-BENCH-0001", 1));
+            case "saleDetails-100" -> new ObjectMapper().writeValueAsString(
+                    BenchmarkFixtures.saleDetails("RUC-BENCH-0001", 100));
+            default -> "RUC distance licence for vehicle ABC123 ".repeat(20);
+        };
+    }
+
+    @Benchmark
+    public String chainedReplace() {
+        return text
+                .replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&#39;");
+    }
+
+    @Benchmark
+    public String onePass() {
+        return HtmlEscaper.escape(text);
+    }
+
+    @Benchmark
+    public int appendToBuilder() {
+        StringBuilder out = new StringBuilder(text.length() + (text.length() >> 1));
+        HtmlEscaper.appendEscaped(out, text);
+        return out.length();
+    }
+}
@@ -0,0 +1,114 @@
+package com.ruc.payments.bench;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.ruc.payments.entity.EppTransaction;
+import org.h2.tools.Server;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts 100k transactions through Hibernate with the old IDENTITY mapping and with the
+ * pooled {@code epp_transaction_seq} mapping.
+ *
+ * <p>IDENTITY needs the generated key back after every row, so Hibernate cannot batch the
+ * inserts; the pooled sequence assigns ids from memory and lets {@code jdbc.batch_size}
+ * group them. H2 runs as a loopback TCP server so every statement pays a real round trip,
+ * as it would against Oracle; each iteration starts from an empty database.</p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGenerationBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int BATCH_SIZE = 50;
+    private static final int ROWS_PER_TRANSACTION = 1_000;
+
+    @Param({"identity", "pooled-sequence"})
+    public String strategy;
+
+    private Server server;
+    private SessionFactory sessionFactory;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void startServer() throws SQLException {
+        // Without a Spring Boot logging config, logback defaults to DEBUG for Hibernate
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void stopServer() {
+        server.stop();
+    }
+
+    @Setup(org.openjdk.jmh.annotations.Level.Iteration)
+    public void setup() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(EppTransaction.class)
+                .addAnnotatedClass(IdentityEppTransaction.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:idbench;DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, "sa")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(BATCH_SIZE))
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .buildSessionFactory();
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Iteration)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public long insert100k() {
+        boolean identity = "identity".equals(strategy);
+        long inserted = 0;
+        while (inserted < ROWS) {
+            long start = inserted;
+            inserted = sessionFactory.fromTransaction(session -> insertChunk(session, start, identity));
+        }
+        return inserted;
+    }
+
+    private static long insertChunk(Session session, long start, boolean identity) {
+        long end = Math.min(start + ROWS_PER_TRANSACTION, ROWS);
+        String applicationUniqueId = UUID.randomUUID().toString();
+        for (long i = start; i < end; i++) {
+            String orderKey = "RUC-BENCH-" + i;
+            if (identity) {
+                IdentityEppTransaction tx = new IdentityEppTransaction();
+                tx.setOrderKey(orderKey);
+                tx.setApplicationUniqueId(applicationUniqueId);
+                tx.setStatus("PENDING");
+                tx.setAmount(BigDecimal.TEN);
+                session.persist(tx);
+            } else {
+                EppTransaction tx = new EppTransaction();
+                tx.setOrderKey(orderKey);
+                tx.setApplicationUniqueId(applicationUniqueId);
+                tx.setStatus("PENDING");
+                tx.setAmount(BigDecimal.TEN);
+                session.persist(tx);
+            }
+            if ((i + 1) % BATCH_SIZE == 0) {
+                session.flush();
+                session.clear();
+            }
+        }
+        return end;
+    }
+}
@@ -0,0 +1,48 @@
+package com.ruc.payments.bench;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * The pre-sequence {@code epp_transaction} mapping (IDENTITY ids), kept only as the
+ * baseline for {@link IdGenerationBenchmark}.
+ */
+@Entity
+@Table(name = "bench_identity_transaction",
+    uniqueConstraints = @UniqueConstraint(name = "uq_bench_order_app", columnNames = {"order_key", "application_unique_id"}))
+public class IdentityEppTransaction {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_key", length = 200, nullable = false)
+    private String orderKey;
+
+    @Column(name = "application_unique_id", length = 200)
+    private String applicationUniqueId;
+
+    @Column(length = 10, nullable = false)
+    private String status;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "created_at", updatable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+
+    @PrePersist
+    public void onInsert() {
+        createdAt = OffsetDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    public Long getId() { return id; }
+    public void setOrderKey(String orderKey) { this.orderKey = orderKey; }
+    public void setApplicationUniqueId(String applicationUniqueId) { this.applicationUniqueId = applicationUniqueId; }
+    public void setStatus(String status) { this.status = status; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+}
@@ -0,0 +1,73 @@
+package com.ruc.payments.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.ruc.payments.codec.JsonCodecs;
+import com.ruc.payments.dto.EppResponse;
+import com.ruc.payments.dto.SaleDetails;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON cost per payment: the per-call {@code new ObjectMapper()} the debug endpoint and test
+ * UI used, a shared mapper's generic calls, and {@link JsonCodecs}' prebuilt writers/readers,
+ * each with and without the Blackbird module.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonCodecsBenchmark {
+
+    @Param({"false", "true"})
+    public boolean blackbird;
+
+    private ObjectMapper objectMapper;
+    private JsonCodecs jsonCodecs;
+    private SaleDetails saleDetails;
+    private String eppResponseJson;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        objectMapper = new ObjectMapper();
+        if (blackbird) {
+            objectMapper.registerModule(new BlackbirdModule());
+        }
+        jsonCodecs = new JsonCodecs(objectMapper);
+        saleDetails = BenchmarkFixtures.saleDetails("RUC-BENCH-0001", 10);
+        eppResponseJson = objectMapper.writeValueAsString(BenchmarkFixtures.eppResponse("RUC-BENCH-0001"));
+    }
+
+    @Benchmark
+    public String writeSaleDetailsNewMapper() throws JsonProcessingException {
+        ObjectMapper perCall = new ObjectMapper();
+        if (blackbird) {
+            perCall.registerModule(new BlackbirdModule());
+        }
+        return perCall.writeValueAsString(saleDetails);
+    }
+
+    @Benchmark
+    public String writeSaleDetailsSharedMapper() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(saleDetails);
+    }
+
+    @Benchmark
+    public String writeSaleDetailsRegistry() throws JsonProcessingException {
+        return jsonCodecs.writer(SaleDetails.class).writeValueAsString(saleDetails);
+    }
+
+    @Benchmark
+    public EppResponse readEppResponseSharedMapper() throws JsonProcessingException {
+        return objectMapper.readValue(eppResponseJson, EppResponse.class);
+    }
+
+    @Benchmark
+    public EppResponse readEppResponseRegistry() throws JsonProcessingException {
+        return jsonCodecs.reader(EppResponse.class).readValue(eppResponseJson);
+    }
+}
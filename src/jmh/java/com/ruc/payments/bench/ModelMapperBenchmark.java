@@ -0,0 +1,51 @@
+package com.ruc.payments.bench;
+
+import com.ruc.payments.dto.ApplicationResponse;
+import com.ruc.payments.entity.EppTransaction;
+import com.ruc.payments.util.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to ApplicationResponse mapping done once per callback.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModelMapperBenchmark {
+
+    private ModelMapper modelMapper;
+    private EppTransaction transaction;
+
+    @Setup
+    public void setup() {
+        modelMapper = new ModelMapper();
+        transaction = new EppTransaction();
+        transaction.setId(1001L);
+        transaction.setOrderKey("RUC-BENCH-0001");
+        transaction.setApplicationUniqueId("APP-RUC-BENCH-0001");
+        transaction.setStatus("COM");
+        transaction.setAmount(new BigDecimal("76.00"));
+        transaction.setEmail("testuser@gmail.com");
+        transaction.setAuthCode("A1B2C3");
+        transaction.setReferenceNo("5521904410");
+        transaction.setCreatedAt(OffsetDateTime.now());
+        transaction.setUpdatedAt(OffsetDateTime.now());
+    }
+
+    @Benchmark
+    public ApplicationResponse toApplicationResponse() {
+        return modelMapper.toApplicationResponse(transaction);
+    }
+
+    @Benchmark
+    public ApplicationResponse toApplicationResponseWithMessage() {
+        return modelMapper.toApplicationResponse(transaction, "Payment processed successfully");
+    }
+}
@@ -0,0 +1,67 @@
+package com.ruc.payments.bench;
+
+import com.ruc.payments.config.OrderLockProperties;
+import com.ruc.payments.service.impl.OrderLocks;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Throughput of {@link OrderLocks} under contention, by stripe count, with 16 threads
+ * writing to a pool of orders. Stripe count 0 runs without any lock (the upper bound) and
+ * 1 is a single global lock.
+ *
+ * <p>The critical section parks for {@link #WRITE_MICROS} µs, standing in for a JDBC round
+ * trip, so the result reflects how often threads queue behind each other rather than how
+ * many cores the machine has. With 10,000 orders the only contention is stripe collisions;
+ * with 8 orders most writes really are for the same order and must queue whatever the
+ * stripe count.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class OrderLockBenchmark {
+
+    private static final long WRITE_MICROS = 50;
+
+    @Param({"0", "1", "16", "64", "256", "1024"})
+    public int stripes;
+
+    @Param({"10000", "8"})
+    public int orders;
+
+    private OrderLocks locks;
+    private String[] orderKeys;
+
+    @Setup
+    public void setup() {
+        OrderLockProperties properties = new OrderLockProperties();
+        properties.setStripes(Math.max(1, stripes));
+        properties.setTimeoutMs(60_000);
+        locks = new OrderLocks(properties);
+        orderKeys = new String[orders];
+        for (int i = 0; i < orders; i++) {
+            orderKeys[i] = "RUC-BENCH-" + i;
+        }
+    }
+
+    @Benchmark
+    public Object write() {
+        String orderKey = orderKeys[ThreadLocalRandom.current().nextInt(orders)];
+        if (stripes == 0) {
+            return simulatedWrite(orderKey);
+        }
+        return locks.withLock(orderKey, () -> simulatedWrite(orderKey));
+    }
+
+    private static String simulatedWrite(String orderKey) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(WRITE_MICROS));
+        return orderKey;
+    }
+}
@@ -0,0 +1,65 @@
+package com.ruc.payments.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruc.payments.codec.DeflatePayloadCodec;
+import com.ruc.payments.codec.PayloadCodecs;
+import com.ruc.payments.codec.PlainPayloadCodec;
+import com.ruc.payments.config.PayloadProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of each payload codec on the JSON actually stored in
+ * {@code epp_transaction_payload}. The compression ratio is printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadCodecBenchmark {
+
+    @Param({"plain", "deflate"})
+    public String codec;
+
+    @Param({"saleDetails-1", "saleDetails-10", "eppResponse"})
+    public String payload;
+
+    private PayloadCodecs codecs;
+    private String json;
+    private byte[] stored;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        PayloadProperties properties = new PayloadProperties();
+        properties.setCodec(codec);
+        codecs = new PayloadCodecs(List.of(new PlainPayloadCodec(), new DeflatePayloadCodec()), properties);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        json = switch (payload) {
+            case "saleDetails-1" -> objectMapper.writeValueAsString(BenchmarkFixtures.saleDetails("RUC-BENCH-0001", 1));
+            case "saleDetails-10" -> objectMapper.writeValueAsString(BenchmarkFixtures.saleDetails("RUC-BENCH-0001", 10));
+            default -> objectMapper.writeValueAsString(BenchmarkFixtures.eppResponse("RUC-BENCH-0001"));
+        };
+        stored = codecs.encode(json);
+
+        int original = json.getBytes(StandardCharsets.UTF_8).length;
+        System.out.printf("%n%s/%s: %d -> %d bytes (%.2fx)%n",
+                codec, payload, original, stored.length, (double) original / stored.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codecs.encode(json);
+    }
+
+    @Benchmark
+    public String decode() {
+        return codecs.decode(stored);
+    }
+}
@@ -0,0 +1,67 @@
+package com.ruc.payments.bench;
+
+import com.ruc.payments.metrics.PaymentMetrics;
+import com.ruc.payments.metrics.PaymentMetrics.Operation;
+import com.ruc.payments.metrics.PaymentMetrics.Stage;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the hot-path meters on the Prometheus registry, with the same
+ * histogram settings as application.yml. {@code initiate} records the four stage laps of
+ * one initiatePayment call, so it is the whole metrics overhead of a checkout.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentMetricsBenchmark {
+
+    private PaymentMetrics metrics;
+
+    @Setup
+    public void setup() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue((double) Duration.ofNanos(10_000).toNanos())
+                        .maximumExpectedValue((double) Duration.ofSeconds(5).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        });
+        metrics = new PaymentMetrics(registry);
+    }
+
+    @Benchmark
+    public long initiate() {
+        long start = System.nanoTime();
+        start = metrics.lap(Operation.INITIATE, Stage.VALIDATION, start);
+        start = metrics.lap(Operation.INITIATE, Stage.SERIALIZATION, start);
+        start = metrics.lap(Operation.INITIATE, Stage.PERSISTENCE, start);
+        return metrics.lap(Operation.INITIATE, Stage.FORM, start);
+    }
+
+    @Benchmark
+    public void callbackStatus() {
+        metrics.callbackStatus("COM");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long initiateContended() {
+        return initiate();
+    }
+}
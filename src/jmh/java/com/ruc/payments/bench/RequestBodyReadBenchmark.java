@@ -0,0 +1,92 @@
+package com.ruc.payments.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruc.payments.codec.JsonCodecs;
+import com.ruc.payments.config.CustomMessageConverter;
+import com.ruc.payments.config.RequestBodyProperties;
+import com.ruc.payments.dto.EppResponse;
+import com.ruc.payments.dto.SaleDetails;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original {@code CustomMessageConverter.read} (readAllBytes, String copy,
+ * private ObjectMapper) with the streaming reader on bodies EPP and the RUC front end send.
+ *
+ * <p>Run with {@code -prof gc} to see the per-request allocation.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestBodyReadBenchmark {
+
+    @Param({"saleDetails-1", "saleDetails-10", "saleDetails-100", "eppResponse"})
+    public String payload;
+
+    private final ObjectMapper legacyMapper = new ObjectMapper();
+    private CustomMessageConverter converter;
+    private Class<?> type;
+    private byte[] body;
+    private HttpHeaders headers;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("requestBodyProperties", new RequestBodyProperties());
+        converter = new CustomMessageConverter(new JsonCodecs(objectMapper), beanFactory.getBeanProvider(RequestBodyProperties.class));
+
+        Object value = switch (payload) {
+            case "saleDetails-1" -> BenchmarkFixtures.saleDetails("RUC-BENCH-0001", 1);
+            case "saleDetails-10" -> BenchmarkFixtures.saleDetails("RUC-BENCH-0001", 10);
+            case "saleDetails-100" -> BenchmarkFixtures.saleDetails("RUC-BENCH-0001", 100);
+            default -> BenchmarkFixtures.eppResponse("RUC-BENCH-0001");
+        };
+        type = value instanceof SaleDetails ? SaleDetails.class : EppResponse.class;
+        body = objectMapper.writeValueAsBytes(value);
+        headers = new HttpHeaders();
+        headers.setContentType(MediaType.valueOf("text/html;charset=UTF-8"));
+        headers.setContentLength(body.length);
+    }
+
+    private HttpInputMessage message() {
+        InputStream in = new ByteArrayInputStream(body);
+        return new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return in;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    /**
+     * The converter as it was: two full copies of the body before parsing.
+     */
+    @Benchmark
+    public Object legacyRead() throws IOException {
+        String content = new String(message().getBody().readAllBytes(), StandardCharsets.UTF_8);
+        return legacyMapper.readValue(content, type);
+    }
+
+    @Benchmark
+    public Object streamingRead() throws IOException {
+        return converter.read(type, message());
+    }
+}
@@ -0,0 +1,175 @@
+package com.ruc.payments.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruc.payments.EppIntegrationApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Platform-thread vs virtual-thread request handling under a fixed Hikari pool.
+ *
+ * <p>Boots the application on H2 with 32 Tomcat threads and 8 pooled connections, and adds
+ * {@value #DB_LATENCY_MS} ms to every statement and commit to stand in for the Oracle round
+ * trip. 96 client threads post {@code /start} (needs a connection) while 32 post journaled
+ * {@code /OnEPPResult} callbacks (fsync only, no connection). Both groups saturate the
+ * service, so the interesting numbers are the callback tail: with platform threads a
+ * callback waits for a Tomcat thread that is itself waiting for a connection.</p>
+ *
+ * <p>The {@code virtual} case needs a Java 21 runtime, e.g.
+ * {@code JAVA_HOME=/path/to/jdk21 PATH=$JAVA_HOME/bin:$PATH mvn -Pjmh test-compile exec:exec
+ * -Djmh.args="ThreadingModelBenchmark"}.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThreadingModelBenchmark {
+
+    static final int DB_LATENCY_MS = 5;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private ObjectMapper objectMapper;
+    private URI startUri;
+    private URI callbackUri;
+    private final AtomicLong orders = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void boot() throws IOException {
+        boolean virtual = "virtual".equals(threads);
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need a Java 21 runtime, running "
+                    + Runtime.version());
+        }
+        // Command-line arguments, so they win over application.yml
+        context = new SpringApplicationBuilder(EppIntegrationApplication.class, DatabaseLatency.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--logging.level.root=WARN",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--server.tomcat.threads.max=32",
+                        "--spring.datasource.hikari.maximum-pool-size=8",
+                        "--spring.datasource.url=jdbc:h2:mem:threading-" + threads + ";DB_CLOSE_DELAY=-1",
+                        "--ruc.payments.journal.enabled=true",
+                        // Callbacks repeat the latest order; keep them on the journal path
+                        "--ruc.payments.idempotency.enabled=false",
+                        "--ruc.payments.journal.directory="
+                                + Files.createTempDirectory("threading-journal").toAbsolutePath());
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        startUri = URI.create("http://localhost:" + port + "/payments/epp/start");
+        callbackUri = URI.create("http://localhost:" + port + "/payments/epp/OnEPPResult");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        objectMapper = new ObjectMapper();
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(96)
+    public int initiate() throws Exception {
+        String orderKey = "RUC-LOAD-" + threads + "-" + orders.incrementAndGet();
+        return post(startUri, objectMapper.writeValueAsBytes(BenchmarkFixtures.saleDetails(orderKey, 1)));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(32)
+    public int callback() throws Exception {
+        String orderKey = "RUC-LOAD-" + threads + "-" + Math.max(1, orders.get());
+        return post(callbackUri, objectMapper.writeValueAsBytes(BenchmarkFixtures.eppResponse(orderKey)));
+    }
+
+    private int post(URI uri, byte[] body) throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(uri.getPath() + " returned " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    /**
+     * Delays every statement execution and commit by {@link #DB_LATENCY_MS}, sleeping on the
+     * calling thread the way a blocking JDBC read would. Entity scanning is pinned to the
+     * application's entities so the benchmark-only {@link IdentityEppTransaction} is skipped.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @EntityScan("com.ruc.payments.entity")
+    static class DatabaseLatency {
+
+        @Bean
+        static BeanPostProcessor latencyInjectingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return delayed(Connection.class, super.getConnection());
+                        }
+                    };
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T delayed(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("execute") || name.equals("commit")) {
+                    Thread.sleep(DB_LATENCY_MS);
+                }
+                try {
+                    Object result = method.invoke(target, args);
+                    if (result instanceof PreparedStatement statement && name.equals("prepareStatement")) {
+                        return delayed(PreparedStatement.class, statement);
+                    }
+                    if (result instanceof Statement statement && name.equals("createStatement")) {
+                        return delayed(Statement.class, statement);
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.ruc.payments.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ruc.payments.EppIntegrationApplication;
+import com.ruc.payments.load.LoadOptions.Endpoint;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadInfo;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Boots the application on H2 and drives {@code /start}, {@code /OnEPPResult} and
+ * {@code /result} from a fixed number of closed-loop clients, then reports throughput,
+ * latency percentiles, server-side allocation rate and peak heap.
+ *
+ * <pre>
+ * mvn -Pload test-compile exec:exec -Dload.args="concurrency=64 duration=60 report=target/load.json"
+ * mvn -Pload test-compile exec:exec -Dload.args="baseline=target/load.json --ruc.payments.batch.enabled=true"
+ * </pre>
+ *
+ * <p>Options: {@code concurrency}, {@code warmup} and {@code duration} (seconds),
+ * {@code mix} (e.g. {@code start:50,onEppResult:40,result:10}), {@code seed},
+ * {@code report} (JSON output), {@code baseline} (earlier JSON report; exits with 1 when
+ * throughput drops or p99 rises by more than {@code tolerance}, default 0.10). Arguments
+ * starting with {@code --} are Spring properties for the application under test.</p>
+ *
+ * <p>Clients wait for each response before sending the next request, so latencies are
+ * service times at that concurrency, not response times under a fixed arrival rate.
+ * Allocation is summed over every thread except the client's own, which covers Tomcat,
+ * Hikari, the batch flusher and the journal drainer but not threads that exit mid-run.
+ * Peak heap is per JVM, so it includes the clients' request bodies as well.</p>
+ */
+public final class LoadHarness {
+
+    private static final String CLIENT_THREAD_PREFIX = "load-client-";
+
+    private final LoadOptions options;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectWriter json = new ObjectMapper().writer();
+    private final PayloadMix payloads = new PayloadMix(Long.toString(System.currentTimeMillis(), 36));
+    private final Map<Endpoint, Recorder> latencies = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+    private final Endpoint[] weighted;
+    private String baseUrl;
+
+    private LoadHarness(LoadOptions options) {
+        this.options = options;
+        List<Endpoint> slots = new ArrayList<>();
+        options.mix.forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(endpoint);
+            }
+        });
+        this.weighted = slots.toArray(Endpoint[]::new);
+        for (Endpoint endpoint : Endpoint.values()) {
+            latencies.put(endpoint, new Recorder(3));
+            errors.put(endpoint, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        int exitCode;
+        try (ConfigurableApplicationContext context = boot(options)) {
+            LoadHarness harness = new LoadHarness(options);
+            harness.baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            exitCode = harness.run();
+        }
+        System.exit(exitCode);
+    }
+
+    private static ConfigurableApplicationContext boot(LoadOptions options) throws IOException {
+        // Command-line arguments win over application.yml; later settings replace defaults
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:load;DB_CLOSE_DELAY=-1");
+        properties.put("ruc.payments.journal.directory",
+                Files.createTempDirectory("load-journal").toAbsolutePath().toString());
+        for (String arg : options.applicationArgs) {
+            int eq = arg.indexOf('=');
+            properties.put(arg.substring(2, eq > 0 ? eq : arg.length()), eq > 0 ? arg.substring(eq + 1) : "true");
+        }
+        String[] args = properties.entrySet().stream()
+                .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(EppIntegrationApplication.class, ApplicationEntities.class)
+                .profiles("test")
+                .run(args);
+    }
+
+    private int run() throws Exception {
+        System.out.printf("Load: %d clients, mix %s, warmup %ds, measure %ds%n", options.concurrency,
+                options.mix, options.warmup.toSeconds(), options.duration.toSeconds());
+
+        ExecutorService pool = Executors.newFixedThreadPool(options.concurrency, new ClientThreadFactory());
+        try {
+            drive(pool, options.warmup);
+            latencies.values().forEach(Recorder::getIntervalHistogram);
+            errors.values().forEach(LongAdder::reset);
+
+            long allocatedBefore = serverAllocatedBytes();
+            long[] gcBefore = gcCountAndMillis();
+            resetHeapPeaks();
+            long start = System.nanoTime();
+            drive(pool, options.duration);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long allocated = serverAllocatedBytes() - allocatedBefore;
+            long[] gcAfter = gcCountAndMillis();
+            long peakHeap = heapPeakBytes();
+
+            Map<String, Object> report = report(seconds, allocated, gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+            report.put("peakHeapMb", round(peakHeap / (1024.0 * 1024)));
+            print(report);
+            if (options.report != null) {
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(options.report.toFile(), report);
+                System.out.println("Report written to " + options.report);
+            }
+            return options.baseline != null ? compareWithBaseline(report) : 0;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void drive(ExecutorService pool, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicInteger clientIds = new AtomicInteger();
+        List<Future<?>> clients = new ArrayList<>(options.concurrency);
+        for (int i = 0; i < options.concurrency; i++) {
+            clients.add(pool.submit(() -> {
+                SplittableRandom random = new SplittableRandom(options.seed + clientIds.incrementAndGet());
+                while (System.nanoTime() < deadline) {
+                    send(weighted[random.nextInt(weighted.length)], random);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : clients) {
+            future.get();
+        }
+    }
+
+    private void send(Endpoint endpoint, SplittableRandom random) {
+        try {
+            byte[] body = endpoint == Endpoint.START
+                    ? json.writeValueAsBytes(payloads.saleDetails(random))
+                    : json.writeValueAsBytes(payloads.eppResponse(random));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint.path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            long start = System.nanoTime();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            latencies.get(endpoint).recordValue((System.nanoTime() - start) / 1_000);
+            if (response.statusCode() != 200) {
+                errors.get(endpoint).increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            errors.get(endpoint).increment();
+        }
+    }
+
+    private Map<String, Object> report(double seconds, long allocatedBytes, long gcCount, long gcMillis) {
+        Histogram all = new Histogram(3);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long requests = 0;
+        for (Endpoint endpoint : options.mix.keySet()) {
+            Histogram histogram = latencies.get(endpoint).getIntervalHistogram();
+            all.add(histogram);
+            requests += histogram.getTotalCount();
+            endpoints.put(endpoint.key, summary(histogram, errors.get(endpoint).sum(), seconds));
+        }
+        long totalErrors = options.mix.keySet().stream().mapToLong(e -> errors.get(e).sum()).sum();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("concurrency", options.concurrency);
+        report.put("durationSeconds", round(seconds));
+        report.put("mix", options.mix.entrySet().stream()
+                .collect(LinkedHashMap::new, (m, e) -> m.put(e.getKey().key, e.getValue()), Map::putAll));
+        report.put("applicationArgs", options.applicationArgs);
+        report.put("total", summary(all, totalErrors, seconds));
+        report.put("endpoints", endpoints);
+        report.put("allocationMbPerSecond", round(allocatedBytes / seconds / (1024 * 1024)));
+        report.put("allocationKbPerRequest", requests > 0 ? round(allocatedBytes / 1024.0 / requests) : 0);
+        report.put("gcCount", gcCount);
+        report.put("gcMillis", gcMillis);
+        return report;
+    }
+
+    private static Map<String, Object> summary(Histogram histogram, long errorCount, double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", histogram.getTotalCount());
+        summary.put("errors", errorCount);
+        summary.put("throughputPerSecond", round(histogram.getTotalCount() / seconds));
+        summary.put("p50Ms", millis(histogram.getValueAtPercentile(50)));
+        summary.put("p90Ms", millis(histogram.getValueAtPercentile(90)));
+        summary.put("p99Ms", millis(histogram.getValueAtPercentile(99)));
+        summary.put("p999Ms", millis(histogram.getValueAtPercentile(99.9)));
+        summary.put("maxMs", millis(histogram.getMaxValue()));
+        return summary;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> report) {
+        System.out.printf("%n%-12s %9s %7s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Map<String, Object> rows = new LinkedHashMap<>((Map<String, Object>) report.get("endpoints"));
+        rows.put("total", report.get("total"));
+        rows.forEach((name, value) -> {
+            Map<String, Object> row = (Map<String, Object>) value;
+            System.out.printf("%-12s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+                    row.get("requests"), row.get("errors"), row.get("throughputPerSecond"), row.get("p50Ms"),
+                    row.get("p90Ms"), row.get("p99Ms"), row.get("p999Ms"), row.get("maxMs"));
+        });
+        System.out.printf("%nAllocation: %.1f MB/s, %.1f KB/request; GC: %d collections, %d ms; peak heap %.1f MB%n",
+                report.get("allocationMbPerSecond"), report.get("allocationKbPerRequest"),
+                report.get("gcCount"), report.get("gcMillis"), report.get("peakHeapMb"));
+    }
+
+    /**
+     * @return 1 when total throughput fell or total p99 rose by more than the tolerance
+     */
+    @SuppressWarnings("unchecked")
+    private int compareWithBaseline(Map<String, Object> report) throws IOException {
+        JsonNode baseline = new ObjectMapper().readTree(options.baseline.toFile()).path("total");
+        Map<String, Object> total = (Map<String, Object>) report.get("total");
+        double baseThroughput = baseline.path("throughputPerSecond").asDouble();
+        double baseP99 = baseline.path("p99Ms").asDouble();
+        double throughput = (double) total.get("throughputPerSecond");
+        double p99 = (double) total.get("p99Ms");
+
+        System.out.printf("%nBaseline %s: throughput %.1f -> %.1f req/s (%+.1f%%), p99 %.2f -> %.2f ms (%+.1f%%)%n",
+                options.baseline, baseThroughput, throughput, change(baseThroughput, throughput),
+                baseP99, p99, change(baseP99, p99));
+        boolean regressed = throughput < baseThroughput * (1 - options.tolerance)
+                || p99 > baseP99 * (1 + options.tolerance);
+        System.out.println(regressed
+                ? "REGRESSION: outside the " + Math.round(options.tolerance * 100) + "% tolerance"
+                : "Within the " + Math.round(options.tolerance * 100) + "% tolerance");
+        return regressed ? 1 : 0;
+    }
+
+    private static long serverAllocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] ids = threads.getAllThreadIds();
+        ThreadInfo[] infos = threads.getThreadInfo(ids);
+        long[] allocated = threads.getThreadAllocatedBytes(ids);
+        long total = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (infos[i] != null && allocated[i] > 0 && !isClientThread(infos[i].getThreadName())) {
+                total += allocated[i];
+            }
+        }
+        return total;
+    }
+
+    private static boolean isClientThread(String name) {
+        return name.startsWith(CLIENT_THREAD_PREFIX) || name.startsWith("HttpClient-");
+    }
+
+    private static long[] gcCountAndMillis() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[]{count, millis};
+    }
+
+    private static void resetHeapPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Sum of the heap pools' peak usage since {@link #resetHeapPeaks()}. The pools may peak
+     * at different moments, so this is an upper bound on the heap in use at any one time.
+     */
+    private static long heapPeakBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) * 100 / before;
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static final class ClientThreadFactory implements java.util.concurrent.ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, CLIENT_THREAD_PREFIX + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * Keeps entity scanning on the application's entities even when benchmark-only entities
+     * from an earlier {@code -Pjmh} build are still in target/test-classes.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @EntityScan("com.ruc.payments.entity")
+    static class ApplicationEntities {
+    }
+}
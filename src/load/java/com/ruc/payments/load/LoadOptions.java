@@ -0,0 +1,105 @@
+package com.ruc.payments.load;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line settings for {@link LoadHarness}, given as {@code key=value} pairs.
+ * Arguments starting with {@code --} are passed through to the Spring application,
+ * e.g. {@code --ruc.payments.journal.enabled=true}.
+ */
+final class LoadOptions {
+
+    int concurrency = 32;
+    Duration warmup = Duration.ofSeconds(10);
+    Duration duration = Duration.ofSeconds(30);
+    /** Relative weights of the three endpoints. */
+    Map<Endpoint, Integer> mix = parseMix("start:50,onEppResult:40,result:10");
+    long seed = 42;
+    Path report; // JSON report, not written when null
+    Path baseline; // earlier JSON report to compare against
+    double tolerance = 0.10; // allowed regression against the baseline
+    List<String> applicationArgs = new ArrayList<>();
+
+    enum Endpoint {
+        START("start", "/payments/epp/start"),
+        ON_EPP_RESULT("onEppResult", "/payments/epp/OnEPPResult"),
+        RESULT("result", "/payments/epp/result");
+
+        final String key;
+        final String path;
+
+        Endpoint(String key, String path) {
+            this.key = key;
+            this.path = path;
+        }
+
+        @Override
+        public String toString() {
+            return key;
+        }
+
+        static Endpoint of(String key) {
+            for (Endpoint endpoint : values()) {
+                if (endpoint.key.equalsIgnoreCase(key)) {
+                    return endpoint;
+                }
+            }
+            throw new IllegalArgumentException("Unknown endpoint '" + key + "', expected start, onEppResult or result");
+        }
+    }
+
+    static LoadOptions parse(String[] args) {
+        LoadOptions options = new LoadOptions();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                options.applicationArgs.add(arg);
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value, got '" + arg + "'");
+            }
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "concurrency" -> options.concurrency = Integer.parseInt(value);
+                case "warmup" -> options.warmup = Duration.ofSeconds(Long.parseLong(value));
+                case "duration" -> options.duration = Duration.ofSeconds(Long.parseLong(value));
+                case "mix" -> options.mix = parseMix(value);
+                case "seed" -> options.seed = Long.parseLong(value);
+                case "report" -> options.report = Paths.get(value);
+                case "baseline" -> options.baseline = Paths.get(value);
+                case "tolerance" -> options.tolerance = Double.parseDouble(value);
+                default -> throw new IllegalArgumentException("Unknown option '" + key + "'");
+            }
+        }
+        if (options.concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1");
+        }
+        return options;
+    }
+
+    /**
+     * Parses {@code start:50,onEppResult:40,result:10}.
+     */
+    private static Map<Endpoint, Integer> parseMix(String value) {
+        Map<Endpoint, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] kv = part.split(":");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Expected endpoint:weight, got '" + part + "'");
+            }
+            mix.put(Endpoint.of(kv[0].trim()), Integer.parseInt(kv[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("mix weights must add up to more than zero");
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,145 @@
+package com.ruc.payments.load;
+
+import com.ruc.payments.dto.EppResponse;
+import com.ruc.payments.dto.SaleDetails;
+import com.ruc.payments.dto.SaleItems;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Generates SaleDetails and EppResponse payloads with the spread seen in production:
+ * mostly single-vehicle renewals with the occasional fleet order, names and addresses
+ * that need escaping, and a status mix dominated by completed payments.
+ *
+ * <p>Started order keys go into a ring so callbacks refer to orders that exist, as they
+ * do when EPP calls back after checkout.</p>
+ */
+final class PayloadMix {
+
+    static final String APPLICATION_CODE = "3256d54a-9e63-4c7d-b2f9-a2897ec82aab";
+
+    private static final String[] FIRST_NAMES = {"John", "Mary", "José", "Aoife", "Wei", "Fatima", "D'Andre", "Zoë"};
+    private static final String[] LAST_NAMES = {"O'Brien", "Smith", "Muñoz", "Nguyen", "Kowalski", "Van der Berg", "Okafor"};
+    private static final String[] STREETS = {"Market Street", "State & Main", "Front St <Rear>", "Derry Street", "Route 22"};
+    private static final String[] CITIES = {"Harrisburg", "Pittsburgh", "Philadelphia", "Erie", "Wilkes-Barre"};
+    private static final String[] CARD_TYPES = {"Visa", "MasterCard", "Amex", "Discover"};
+
+    /** Items per order: cumulative percent thresholds and the count picked below each. */
+    private static final int[][] ITEM_COUNTS = {{60, 1}, {85, 2}, {93, 3}, {97, 10}, {100, 50}};
+    /** Callback statuses: cumulative percent thresholds. */
+    private static final Object[][] STATUSES = {{85, "COM"}, {93, "CAN"}, {100, "DEC"}};
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicReferenceArray<String> started = new AtomicReferenceArray<>(4096);
+    private final String runId;
+
+    PayloadMix(String runId) {
+        this.runId = runId;
+    }
+
+    SaleDetails saleDetails(SplittableRandom random) {
+        long n = sequence.incrementAndGet();
+        String orderKey = "RUC-" + runId + "-" + n;
+        started.set((int) (n % started.length()), orderKey);
+
+        int itemCount = pickItemCount(random.nextInt(100));
+        List<SaleItems> items = new ArrayList<>(itemCount);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < itemCount; i++) {
+            SaleItems item = new SaleItems();
+            item.setSaleItemId(i + 1);
+            item.setCount(1 + random.nextInt(3));
+            item.setDescription("RUC distance licence - vehicle " + (i + 1) + " (" + (1 + random.nextInt(20)) * 500 + " km)");
+            item.setAmount(BigDecimal.valueOf(1000 + random.nextInt(49000), 2));
+            item.setItemKey(orderKey);
+            items.add(item);
+            total = total.add(item.getAmount().multiply(BigDecimal.valueOf(item.getCount())));
+        }
+
+        SaleDetails details = new SaleDetails();
+        details.setApplicationCode(APPLICATION_CODE);
+        details.setApplicationUniqueId("APP-" + orderKey);
+        details.setOrderKey(orderKey);
+        details.setFirstName(pick(random, FIRST_NAMES));
+        details.setLastName(pick(random, LAST_NAMES));
+        details.setAddress1((100 + random.nextInt(9000)) + " " + pick(random, STREETS));
+        if (random.nextInt(4) == 0) {
+            details.setAddress2("Apt " + (1 + random.nextInt(40)));
+        }
+        details.setCity(pick(random, CITIES));
+        details.setStateCode("PA");
+        details.setZipCode(String.valueOf(15000 + random.nextInt(4000)));
+        details.setEmail("payer" + n + "@example.com");
+        details.setPaymentAccountType(random.nextInt(5) == 0 ? "ACH" : "CC");
+        details.setTotalAmount(total.setScale(2, RoundingMode.HALF_UP));
+        details.setItems(items);
+        return details;
+    }
+
+    EppResponse eppResponse(SplittableRandom random) {
+        String orderKey = startedOrder(random);
+        String status = pickStatus(random.nextInt(100));
+
+        EppResponse response = new EppResponse();
+        response.setOrderKey(orderKey);
+        response.setApplicationUniqueId("APP-" + orderKey);
+        response.setApplicationCode(APPLICATION_CODE);
+        response.setStatus(status);
+        response.setCardHolderName(pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES));
+        response.setAddress((100 + random.nextInt(9000)) + " " + pick(random, STREETS));
+        response.setCity(pick(random, CITIES));
+        response.setStateCode("PA");
+        response.setZipCode(String.valueOf(15000 + random.nextInt(4000)));
+        response.setTotalAmount(BigDecimal.valueOf(1000 + random.nextInt(49000), 2));
+        response.setEmailId("payer@example.com");
+        response.setPaymentAccountType(pick(random, CARD_TYPES));
+        if ("COM".equals(status)) {
+            String reference = String.valueOf(1_000_000_000L + random.nextInt(1_000_000_000));
+            response.setAuthCode(Long.toString(random.nextLong(0x100000L, 0x1000000L), 16).toUpperCase());
+            response.setReferenceNo(reference);
+            response.setReferenceNumber("RN-" + reference);
+        }
+        return response;
+    }
+
+    /**
+     * A recently started order, or a fresh key when nothing has been started yet.
+     */
+    private String startedOrder(SplittableRandom random) {
+        long n = sequence.get();
+        if (n == 0) {
+            return "RUC-" + runId + "-cold-" + random.nextInt(1000);
+        }
+        long window = Math.min(n, started.length());
+        String orderKey = started.get((int) ((n - random.nextLong(window)) % started.length()));
+        return orderKey != null ? orderKey : "RUC-" + runId + "-" + n;
+    }
+
+    private static int pickItemCount(int percent) {
+        for (int[] bucket : ITEM_COUNTS) {
+            if (percent < bucket[0]) {
+                return bucket[1];
+            }
+        }
+        return 1;
+    }
+
+    private static String pickStatus(int percent) {
+        for (Object[] bucket : STATUSES) {
+            if (percent < (int) bucket[0]) {
+                return (String) bucket[1];
+            }
+        }
+        return "COM";
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,132 @@
+package com.ruc.payments.cluster;
+
+import com.ruc.payments.config.ClusterProperties;
+import com.ruc.payments.entity.EppTransaction;
+import com.ruc.payments.repo.EppTransactionRepository;
+import com.ruc.payments.service.TransactionChangedEvent;
+import com.ruc.payments.service.impl.TransactionLookupCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps this node's {@link TransactionLookupCache} coherent with writes made by the
+ * other nodes of a cluster, and passes those writes on as {@link TransactionChangedEvent}s
+ * so status requests parked on this node wake up too.
+ *
+ * <p>Every {@code pollIntervalMs} it reads the keys of rows other nodes updated since
+ * the previous poll and drops them from the cache. Rows whose {@code updated_by} is this
+ * node are skipped, since its own writes are invalidated as they happen. {@code updated_at}
+ * and the poll's own start time both come from the database's clock, so the nodes' clocks
+ * need not agree. Each poll still reaches {@code changeLookbackMs} further back, for writes
+ * that committed after a poll had passed their timestamp; an increasing sequence column
+ * would have the same gap, since values are drawn before commit. A row is acted on once
+ * per version: the versions found by the previous poll are kept, and a row still inside
+ * the lookback at the same version is passed over.
+ * An entry is therefore stale for at most about one poll interval after another node's
+ * commit, and never longer than the cache TTL.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "ruc.payments.cluster", name = "enabled", havingValue = "true")
+public class ClusterCacheInvalidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterCacheInvalidator.class);
+
+    private final EppTransactionRepository repository;
+    private final TransactionLookupCache lookupCache; // null when ruc.payments.cache.enabled=false
+    private final ClusterProperties properties;
+    private final ApplicationEventPublisher events;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cluster-cache-invalidator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final String nodeId;
+    private LocalDateTime lastPoll; // null until the first poll, which reaches back the lookback only
+    private Map<OrderRef, Long> seen = Map.of();
+
+    public ClusterCacheInvalidator(EppTransactionRepository repository,
+                                   ObjectProvider<TransactionLookupCache> lookupCache,
+                                   ClusterProperties properties,
+                                   ApplicationEventPublisher events) {
+        this.repository = repository;
+        this.lookupCache = lookupCache.getIfAvailable();
+        this.properties = properties;
+        this.events = events;
+        this.nodeId = properties.resolveNodeId();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.scheduleWithFixedDelay(this::pollSafely, properties.getPollIntervalMs(),
+                properties.getPollIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Drops every cached row another node wrote since the previous poll, less the
+     * lookback, and publishes a change event for each. Versions the previous poll
+     * already handled are skipped.
+     *
+     * @return Number of rows acted on
+     */
+    public synchronized int poll() {
+        LocalDateTime started = repository.databaseTime();
+        LocalDateTime since = lastPoll != null ? lastPoll : started;
+        List<EppTransaction> changed = repository.readKeysUpdatedSince(
+                since.minusNanos(properties.getChangeLookbackMs() * 1_000_000), nodeId);
+        Map<OrderRef, Long> found = new HashMap<>();
+        int acted = 0;
+        for (EppTransaction transaction : changed) {
+            OrderRef order = new OrderRef(transaction.getOrderKey(), transaction.getApplicationUniqueId());
+            found.put(order, transaction.getVersion());
+            if (Objects.equals(seen.get(order), transaction.getVersion())) {
+                continue;
+            }
+            if (lookupCache != null) {
+                lookupCache.invalidate(transaction.getOrderKey(), transaction.getApplicationUniqueId());
+            }
+            events.publishEvent(new TransactionChangedEvent(
+                    transaction.getOrderKey(), transaction.getApplicationUniqueId(), transaction.getStatus()));
+            acted++;
+        }
+        seen = found;
+        lastPoll = started;
+        return acted;
+    }
+
+    private void pollSafely() {
+        try {
+            int changed = poll();
+            if (changed > 0) {
+                logger.debug("Invalidated {} recently written transactions", changed);
+            }
+        } catch (Exception e) {
+            logger.warn("Cluster cache invalidation poll failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    /** Row identity of a transaction; the application unique ID may be null. */
+    private record OrderRef(String orderKey, String applicationUniqueId) {
+    }
+}
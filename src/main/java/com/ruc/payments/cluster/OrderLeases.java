@@ -0,0 +1,178 @@
+package com.ruc.payments.cluster;
+
+import com.ruc.payments.config.ClusterProperties;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.sql.Types;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time-limited lease rows in {@code epp_lease}, so instances sharing the database can
+ * hold a lock across the cluster without a broker.
+ *
+ * <p>A lease is taken with one MERGE that inserts the row, or takes it over when this
+ * node already owns it or its previous owner let it expire. A node that crashes while
+ * holding a lease blocks the key for at most {@code ruc.payments.cluster.leaseTtlMs}.
+ * As with the transaction upsert, the takeover condition sits in
+ * {@code WHEN MATCHED AND ...} on H2 and in {@code UPDATE ... WHERE ...} on Oracle.
+ * Expiries are set and compared on the database's clock ({@code LOCALTIMESTAMP}), so
+ * nodes whose clocks disagree still agree on when a lease has run out. The cast types the
+ * TTL's bind variable for H2.</p>
+ *
+ * <p>Statements run on the caller's connection and never open one of their own, so
+ * taking a lease cannot wait on the pool while the caller holds a connection. Callers
+ * take leases before opening a transaction, where each statement commits by itself and
+ * the lease is visible to the other nodes straight away.</p>
+ *
+ * <p>Leases this node holds are renewed every third of the TTL until released, so a
+ * holder running longer than the TTL keeps them. A renewal that finds the lease taken
+ * over, e.g. after a long GC pause, drops it and logs the loss.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "ruc.payments.cluster", name = "enabled", havingValue = "true")
+public class OrderLeases {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderLeases.class);
+
+    /** Slots: the H2 and the Oracle takeover condition. */
+    private static final String ACQUIRE_SQL = """
+            MERGE INTO epp_lease l
+            USING (SELECT CAST(:leaseKey AS VARCHAR(100)) AS lease_key FROM dual) s
+            ON (l.lease_key = s.lease_key)
+            WHEN MATCHED%1$s THEN UPDATE SET
+                owner = :owner,
+                expires_at = LOCALTIMESTAMP + CAST(:ttlMs AS NUMERIC(19)) * INTERVAL '0.001' SECOND%2$s
+            WHEN NOT MATCHED THEN INSERT (lease_key, owner, expires_at)
+            VALUES (s.lease_key, :owner, LOCALTIMESTAMP + CAST(:ttlMs AS NUMERIC(19)) * INTERVAL '0.001' SECOND)
+            """;
+
+    private static final String TAKEOVER_ALLOWED = "(l.owner = :owner OR l.expires_at < LOCALTIMESTAMP)";
+
+    private static final String RENEW_SQL = """
+            UPDATE epp_lease SET expires_at = LOCALTIMESTAMP + CAST(:ttlMs AS NUMERIC(19)) * INTERVAL '0.001' SECOND
+            WHERE lease_key = :leaseKey AND owner = :owner
+            """;
+
+    private static final String RELEASE_SQL = "DELETE FROM epp_lease WHERE lease_key = :leaseKey AND owner = :owner";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final String acquireSql;
+    private final String nodeId;
+    private final long ttlMs;
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "order-lease-renewer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OrderLeases(NamedParameterJdbcTemplate jdbc, EntityManagerFactory emf, ClusterProperties properties) {
+        this.jdbc = jdbc;
+        boolean h2 = emf.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect() instanceof H2Dialect;
+        this.acquireSql = ACQUIRE_SQL.formatted(h2 ? " AND " + TAKEOVER_ALLOWED : "",
+                h2 ? "" : "\n    WHERE " + TAKEOVER_ALLOWED);
+        this.nodeId = properties.resolveNodeId();
+        this.ttlMs = properties.getLeaseTtlMs();
+        logger.info("Cluster mode enabled: nodeId={}, leaseTtlMs={}", nodeId, ttlMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long intervalMs = Math.max(1, ttlMs / 3);
+        executor.scheduleWithFixedDelay(this::renewSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Takes the lease for {@code leaseKey} if no other node holds it, or renews it if this
+     * node does. Does not wait.
+     *
+     * @return Whether this node now holds the lease
+     */
+    public boolean tryAcquire(String leaseKey) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("leaseKey", leaseKey, Types.VARCHAR)
+                .addValue("owner", nodeId, Types.VARCHAR)
+                .addValue("ttlMs", ttlMs, Types.BIGINT);
+        try {
+            if (jdbc.update(acquireSql, params) == 0) {
+                return false;
+            }
+        } catch (DuplicateKeyException e) {
+            return false; // another node inserted the row first
+        }
+        held.add(leaseKey);
+        return true;
+    }
+
+    /**
+     * Gives the lease up if this node still holds it. A failure is only logged: the lease
+     * then simply runs out.
+     */
+    public void release(String leaseKey) {
+        held.remove(leaseKey);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("leaseKey", leaseKey, Types.VARCHAR)
+                .addValue("owner", nodeId, Types.VARCHAR);
+        try {
+            jdbc.update(RELEASE_SQL, params);
+        } catch (DataAccessException e) {
+            logger.warn("Could not release lease {}, it expires in {} ms: {}", leaseKey, ttlMs, e.getMessage());
+        }
+    }
+
+    /**
+     * Pushes the expiry of every lease this node holds one TTL ahead.
+     *
+     * @return Number of leases renewed
+     */
+    public synchronized int renew() {
+        int renewed = 0;
+        for (String leaseKey : held) {
+            int updated = jdbc.update(RENEW_SQL, new MapSqlParameterSource()
+                    .addValue("leaseKey", leaseKey, Types.VARCHAR)
+                    .addValue("owner", nodeId, Types.VARCHAR)
+                    .addValue("ttlMs", ttlMs, Types.BIGINT));
+            if (updated > 0) {
+                renewed++;
+            } else if (held.remove(leaseKey)) {
+                logger.warn("Lease {} was taken over by another node before it could be renewed", leaseKey);
+            }
+        }
+        return renewed;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    private void renewSafely() {
+        try {
+            renew();
+        } catch (DataAccessException e) {
+            logger.warn("Lease renewal failed, will retry: {}", e.getMessage());
+        }
+    }
+}
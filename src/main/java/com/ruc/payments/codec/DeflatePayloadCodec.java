@@ -0,0 +1,104 @@
+package com.ruc.payments.codec;
+
+import com.ruc.payments.exception.PaymentProcessingException;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Raw deflate primed with a preset dictionary of typical {@code SaleDetails} and
+ * {@code EppResponse} JSON, so even a single small payload compresses well: field names,
+ * the application code and common values are back-references from the first byte.
+ *
+ * <p>The dictionary is part of the stored format. Editing {@code codec/epp-payload-v1.dict}
+ * would make existing rows unreadable; a new dictionary needs a new file and codec id.</p>
+ */
+@Component
+public class DeflatePayloadCodec implements PayloadCodec {
+
+    public static final byte ID = 1;
+    public static final String DICTIONARY_RESOURCE = "codec/epp-payload-v1.dict";
+
+    private static final int BUFFER_SIZE = 1024;
+
+    private final byte[] dictionary;
+    private final int level;
+
+    public DeflatePayloadCodec() {
+        this(loadDictionary(), Deflater.BEST_COMPRESSION);
+    }
+
+    DeflatePayloadCodec(byte[] dictionary, int level) {
+        this.dictionary = dictionary;
+        this.level = level;
+    }
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public String name() {
+        return "deflate";
+    }
+
+    @Override
+    public void encode(String json, ByteArrayOutputStream out) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setDictionary(dictionary);
+            deflater.setInput(json.getBytes(StandardCharsets.UTF_8));
+            deflater.finish();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public String decode(byte[] data, int offset, int length) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setDictionary(dictionary);
+            inflater.setInput(data, offset, length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length * 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && inflater.needsInput()) {
+                    throw new DataFormatException("Truncated deflate payload");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new PaymentProcessingException("PAYLOAD_DECODE_FAILED",
+                "Stored payload is not valid deflate data", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] loadDictionary() {
+        try (InputStream in = DeflatePayloadCodec.class.getClassLoader().getResourceAsStream(DICTIONARY_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing payload dictionary " + DICTIONARY_RESOURCE);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
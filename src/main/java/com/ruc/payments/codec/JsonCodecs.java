@@ -0,0 +1,48 @@
+package com.ruc.payments.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ruc.payments.dto.ApplicationResponse;
+import com.ruc.payments.dto.EppResponse;
+import com.ruc.payments.dto.SaleDetails;
+import com.ruc.payments.dto.SaleItems;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe {@link ObjectWriter}s and {@link ObjectReader}s built from the application's
+ * {@link ObjectMapper}, so every JSON call site shares its modules and configuration.
+ *
+ * <p>Writers and readers for the EPP DTOs are built at startup with their root
+ * (de)serializers already resolved; any other type is built once on first use.</p>
+ */
+@Component
+public class JsonCodecs {
+
+    private static final List<Class<?>> EPP_TYPES =
+            List.of(SaleDetails.class, SaleItems.class, EppResponse.class, ApplicationResponse.class);
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public JsonCodecs(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        for (Class<?> type : EPP_TYPES) {
+            writers.put(type, objectMapper.writerFor(type));
+            readers.put(type, objectMapper.readerFor(type));
+        }
+    }
+
+    public ObjectWriter writer(Class<?> type) {
+        return writers.computeIfAbsent(type, objectMapper::writerFor);
+    }
+
+    public ObjectReader reader(Class<?> type) {
+        return readers.computeIfAbsent(type, objectMapper::readerFor);
+    }
+}
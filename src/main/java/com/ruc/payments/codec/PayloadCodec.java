@@ -0,0 +1,29 @@
+package com.ruc.payments.codec;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Storage encoding for raw EPP request/response JSON.
+ *
+ * <p>Every stored payload starts with the {@link #id()} of the codec that wrote it, so
+ * rows written under an older codec stay readable after the configured one changes.
+ * Ids are permanent: a codec whose format changes must take a new id.</p>
+ */
+public interface PayloadCodec {
+
+    /** Header byte identifying this codec in stored payloads. */
+    byte id();
+
+    /** Name used to select this codec in {@code ruc.payments.payload.codec}. */
+    String name();
+
+    /**
+     * Writes the encoded form of the JSON, without the header byte.
+     */
+    void encode(String json, ByteArrayOutputStream out);
+
+    /**
+     * Decodes a payload body previously written by {@link #encode}.
+     */
+    String decode(byte[] data, int offset, int length);
+}
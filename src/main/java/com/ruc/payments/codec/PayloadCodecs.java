@@ -0,0 +1,69 @@
+package com.ruc.payments.codec;
+
+import com.ruc.payments.config.PayloadProperties;
+import com.ruc.payments.exception.PaymentProcessingException;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+/**
+ * Registry of {@link PayloadCodec}s. Writes use the configured codec and prefix its id;
+ * reads pick the codec from the stored header byte. New codecs plug in as beans.
+ */
+@Component
+public class PayloadCodecs {
+
+    private final PayloadCodec[] byId = new PayloadCodec[256];
+    private final PayloadCodec writer;
+
+    public PayloadCodecs(List<PayloadCodec> codecs, PayloadProperties properties) {
+        PayloadCodec selected = null;
+        for (PayloadCodec codec : codecs) {
+            int id = Byte.toUnsignedInt(codec.id());
+            if (byId[id] != null) {
+                throw new IllegalStateException("Payload codecs " + byId[id].name() + " and "
+                        + codec.name() + " share id " + id);
+            }
+            byId[id] = codec;
+            if (codec.name().equals(properties.getCodec())) {
+                selected = codec;
+            }
+        }
+        if (selected == null) {
+            throw new IllegalStateException("Unknown payload codec: " + properties.getCodec());
+        }
+        this.writer = selected;
+    }
+
+    /**
+     * @return The header byte followed by the encoded JSON, or null for null
+     */
+    public byte[] encode(String json) {
+        if (json == null) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length() / 2 + 16);
+        out.write(writer.id());
+        writer.encode(json, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @return The JSON stored in a payload written by {@link #encode}, or null for null
+     */
+    public String decode(byte[] stored) {
+        if (stored == null) {
+            return null;
+        }
+        if (stored.length == 0) {
+            throw new PaymentProcessingException("PAYLOAD_DECODE_FAILED", "Stored payload has no codec header");
+        }
+        PayloadCodec codec = byId[Byte.toUnsignedInt(stored[0])];
+        if (codec == null) {
+            throw new PaymentProcessingException("PAYLOAD_DECODE_FAILED",
+                "Stored payload uses unknown codec id " + Byte.toUnsignedInt(stored[0]));
+        }
+        return codec.decode(stored, 1, stored.length - 1);
+    }
+}
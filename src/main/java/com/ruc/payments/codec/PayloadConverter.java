@@ -0,0 +1,28 @@
+package com.ruc.payments.codec;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Maps payload JSON to its encoded column bytes and back. Instantiated by Spring through
+ * Hibernate's bean container.
+ */
+@Converter
+public class PayloadConverter implements AttributeConverter<String, byte[]> {
+
+    private final PayloadCodecs codecs;
+
+    public PayloadConverter(PayloadCodecs codecs) {
+        this.codecs = codecs;
+    }
+
+    @Override
+    public byte[] convertToDatabaseColumn(String json) {
+        return codecs.encode(json);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] stored) {
+        return codecs.decode(stored);
+    }
+}
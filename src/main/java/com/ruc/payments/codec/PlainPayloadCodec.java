@@ -0,0 +1,35 @@
+package com.ruc.payments.codec;
+
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Uncompressed UTF-8. Payloads migrated from the old CLOB columns carry this codec's id.
+ */
+@Component
+public class PlainPayloadCodec implements PayloadCodec {
+
+    public static final byte ID = 0;
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public String name() {
+        return "plain";
+    }
+
+    @Override
+    public void encode(String json, ByteArrayOutputStream out) {
+        out.writeBytes(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String decode(byte[] data, int offset, int length) {
+        return new String(data, offset, length, StandardCharsets.UTF_8);
+    }
+}
@@ -1,10 +1,37 @@
 package com.ruc.payments.config;
 
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
-@EnableConfigurationProperties(EppProperties.class)
+@EnableConfigurationProperties({
+        EppProperties.class,
+        CallbackJournalProperties.class,
+        TransactionBatchProperties.class,
+        PayloadProperties.class,
+        RequestBodyProperties.class,
+        TransactionCacheProperties.class,
+        CheckoutProperties.class,
+        BulkPaymentProperties.class,
+        CallbackIdempotencyProperties.class,
+        OrderLockProperties.class,
+        ClusterProperties.class,
+        OutboxProperties.class,
+        StatusFeedProperties.class
+})
 public class AppConfig {
-    // Additional beans/config if needed
+
+    /**
+     * Replaces reflective getter/setter calls in (de)serialization with generated lambdas.
+     * Spring Boot registers every Module bean with the application ObjectMapper.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "ruc.payments.json", name = "blackbird", havingValue = "true")
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
 }
@@ -0,0 +1,23 @@
+package com.ruc.payments.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limits for {@code /payments/epp/start/batch} and {@code /payments/epp/result/batch}.
+ */
+@ConfigurationProperties(prefix = "ruc.payments.bulk")
+public class BulkPaymentProperties {
+    private int maxOrders = 500; // fleet renewals run to a few hundred accounts
+    private int parallelThreshold = 32; // validate and serialize on the common pool from this many orders
+    private int maxCallbacks = 1000; // reconciliation replays after an EPP outage
+
+    // Getters and Setters
+    public int getMaxOrders() { return maxOrders; }
+    public void setMaxOrders(int maxOrders) { this.maxOrders = maxOrders; }
+
+    public int getParallelThreshold() { return parallelThreshold; }
+    public void setParallelThreshold(int parallelThreshold) { this.parallelThreshold = parallelThreshold; }
+
+    public int getMaxCallbacks() { return maxCallbacks; }
+    public void setMaxCallbacks(int maxCallbacks) { this.maxCallbacks = maxCallbacks; }
+}
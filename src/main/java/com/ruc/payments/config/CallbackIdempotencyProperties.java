@@ -0,0 +1,23 @@
+package com.ruc.payments.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the OnEPPResult idempotency cache.
+ */
+@ConfigurationProperties(prefix = "ruc.payments.idempotency")
+public class CallbackIdempotencyProperties {
+    private boolean enabled = true;
+    private long maximumSize = 10000; // Least recently used responses are evicted past this
+    private long ttlMs = 600000; // Longer than EPP keeps retrying a timed-out callback
+
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public long getMaximumSize() { return maximumSize; }
+    public void setMaximumSize(long maximumSize) { this.maximumSize = maximumSize; }
+
+    public long getTtlMs() { return ttlMs; }
+    public void setTtlMs(long ttlMs) { this.ttlMs = ttlMs; }
+}
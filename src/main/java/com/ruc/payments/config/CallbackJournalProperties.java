@@ -0,0 +1,31 @@
+package com.ruc.payments.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the write-behind journal used by the OnEPPResult callback.
+ */
+@ConfigurationProperties(prefix = "ruc.payments.journal")
+public class CallbackJournalProperties {
+    private boolean enabled = false;
+    private String directory = "./data/callback-journal";
+    private long segmentSizeBytes = 16L * 1024 * 1024;
+    private int batchSize = 100; // Callbacks applied per database transaction
+    private long drainIntervalMs = 200;
+
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getDirectory() { return directory; }
+    public void setDirectory(String directory) { this.directory = directory; }
+
+    public long getSegmentSizeBytes() { return segmentSizeBytes; }
+    public void setSegmentSizeBytes(long segmentSizeBytes) { this.segmentSizeBytes = segmentSizeBytes; }
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+    public long getDrainIntervalMs() { return drainIntervalMs; }
+    public void setDrainIntervalMs(long drainIntervalMs) { this.drainIntervalMs = drainIntervalMs; }
+}
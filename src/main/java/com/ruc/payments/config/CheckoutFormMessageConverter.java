@@ -0,0 +1,63 @@
+package com.ruc.payments.config;
+
+import com.ruc.payments.service.CheckoutForm;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a {@link CheckoutForm} as {@code text/html; charset=UTF-8} straight to the response
+ * body, with an exact {@code Content-Length}, so the form never exists as a String.
+ */
+@Component
+public class CheckoutFormMessageConverter extends AbstractHttpMessageConverter<CheckoutForm> {
+
+    public CheckoutFormMessageConverter() {
+        super(StandardCharsets.UTF_8, MediaType.TEXT_HTML);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CheckoutForm.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false; // Response-only type
+    }
+
+    @Override
+    protected CheckoutForm readInternal(Class<? extends CheckoutForm> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("CheckoutForm cannot be read", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(CheckoutForm form, MediaType contentType) {
+        return form.contentLength();
+    }
+
+    /**
+     * The controller sets {@code text/html} without a charset; the bytes are UTF-8, so say so.
+     */
+    @Override
+    protected void addDefaultHeaders(HttpHeaders headers, CheckoutForm form, MediaType contentType) throws IOException {
+        super.addDefaultHeaders(headers, form, contentType);
+        MediaType type = headers.getContentType();
+        if (type != null && type.getCharset() == null) {
+            headers.setContentType(new MediaType(type, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    protected void writeInternal(CheckoutForm form, HttpOutputMessage outputMessage) throws IOException {
+        form.writeTo(outputMessage.getBody());
+    }
+}
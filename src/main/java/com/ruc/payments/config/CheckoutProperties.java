@@ -0,0 +1,15 @@
+package com.ruc.payments.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * How {@code /payments/epp/start} sends the hosted checkout form back.
+ */
+@ConfigurationProperties(prefix = "ruc.payments.checkout")
+public class CheckoutProperties {
+    private boolean streaming = false; // write the form straight to the response with a Content-Length
+
+    // Getters and Setters
+    public boolean isStreaming() { return streaming; }
+    public void setStreaming(boolean streaming) { this.streaming = streaming; }
+}
@@ -0,0 +1,51 @@
+package com.ruc.payments.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Settings for running several instances against one database (see {@code OrderLeases}
+ * and {@code ClusterCacheInvalidator}).
+ */
+@ConfigurationProperties(prefix = "ruc.payments.cluster")
+public class ClusterProperties {
+    private boolean enabled = false;
+    private String nodeId; // Owner name on lease rows and writer name on transaction rows; defaults to pid@hostname
+    private long leaseTtlMs = 30000; // A crashed node's leases are taken over after this
+    private long pollIntervalMs = 1000; // How often other nodes' writes are looked for
+    private long changeLookbackMs = 5000; // Covers writes committing after the poll passed their timestamp
+
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getNodeId() { return nodeId; }
+    public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+
+    public long getLeaseTtlMs() { return leaseTtlMs; }
+    public void setLeaseTtlMs(long leaseTtlMs) { this.leaseTtlMs = leaseTtlMs; }
+
+    public long getPollIntervalMs() { return pollIntervalMs; }
+    public void setPollIntervalMs(long pollIntervalMs) { this.pollIntervalMs = pollIntervalMs; }
+
+    public long getChangeLookbackMs() { return changeLookbackMs; }
+    public void setChangeLookbackMs(long changeLookbackMs) { this.changeLookbackMs = changeLookbackMs; }
+
+    /**
+     * The configured node ID, or pid@hostname when none is set.
+     */
+    public String resolveNodeId() {
+        if (nodeId != null && !nodeId.isBlank()) {
+            return nodeId;
+        }
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        return ProcessHandle.current().pid() + "@" + host;
+    }
+}
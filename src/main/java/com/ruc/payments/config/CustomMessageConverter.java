@@ -1,27 +1,42 @@
 package com.ruc.payments.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.ruc.payments.codec.JsonCodecs;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
 
 /**
  * Custom message converter to handle JSON content sent with text/html content type.
  * This allows Rahul's requirement of sending JSON data with text/html; charset=UTF-8 headers.
+ *
+ * <p>The body is parsed straight from the request stream by the application's
+ * ObjectMapper, through the {@link ObjectReader} {@link JsonCodecs} holds for the target class.
+ * Bodies over {@code ruc.payments.request.maxBodyBytes} are rejected with 413.</p>
  */
 @Component
 public class CustomMessageConverter implements HttpMessageConverter<Object> {
     
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonCodecs jsonCodecs;
+    private final long maxBodyBytes;
+    
+    public CustomMessageConverter(JsonCodecs jsonCodecs, ObjectProvider<RequestBodyProperties> properties) {
+        this.jsonCodecs = jsonCodecs;
+        this.maxBodyBytes = properties.getIfAvailable(RequestBodyProperties::new).getMaxBodyBytes();
+    }
     
     @Override
     public boolean canRead(Class<?> clazz, MediaType mediaType) {
@@ -45,12 +60,16 @@ public class CustomMessageConverter implements HttpMessageConverter<Object> {
     public Object read(Class<?> clazz, HttpInputMessage inputMessage) 
             throws IOException, HttpMessageNotReadableException {
         
-        // Read the content as string
-        String content = new String(inputMessage.getBody().readAllBytes(), StandardCharsets.UTF_8);
+        if (inputMessage.getHeaders().getContentLength() > maxBodyBytes) {
+            throw bodyTooLarge();
+        }
         
-        try {
-            // Parse as JSON regardless of the content type
-            return objectMapper.readValue(content, clazz);
+        ObjectReader reader = jsonCodecs.reader(clazz);
+        try (InputStream body = new BoundedInputStream(inputMessage.getBody(), maxBodyBytes)) {
+            // Parse as JSON regardless of the content type; Jackson detects the UTF encoding
+            return reader.readValue(body);
+        } catch (BodyTooLargeException e) {
+            throw bodyTooLarge();
         } catch (Exception e) {
             throw new HttpMessageNotReadableException("Could not parse JSON content: " + e.getMessage(), inputMessage);
         }
@@ -62,4 +81,57 @@ public class CustomMessageConverter implements HttpMessageConverter<Object> {
         // Not implemented - we only handle reading
         throw new UnsupportedOperationException("Writing not supported");
     }
+    
+    private ResponseStatusException bodyTooLarge() {
+        return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "Request body exceeds " + maxBodyBytes + " bytes");
+    }
+    
+    /**
+     * Fails the read once more than the limit has been consumed, covering chunked
+     * bodies that carry no Content-Length.
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+        
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                consume(1);
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                consume(n);
+            }
+            return n;
+        }
+        
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            consume(skipped);
+            return skipped;
+        }
+        
+        private void consume(long n) throws BodyTooLargeException {
+            remaining -= n;
+            if (remaining < 0) {
+                throw new BodyTooLargeException();
+            }
+        }
+    }
+    
+    private static final class BodyTooLargeException extends IOException {
+    }
 }
@@ -0,0 +1,23 @@
+package com.ruc.payments.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the striped per-order locks around transaction writes.
+ */
+@ConfigurationProperties(prefix = "ruc.payments.locks")
+public class OrderLockProperties {
+    private boolean enabled = true;
+    private int stripes = 256; // Rounded up to a power of two; see OrderLockBenchmark
+    private long timeoutMs = 5000; // Fail the request rather than queue forever behind a stuck write
+
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getStripes() { return stripes; }
+    public void setStripes(int stripes) { this.stripes = stripes; }
+
+    public long getTimeoutMs() { return timeoutMs; }
+    public void setTimeoutMs(long timeoutMs) { this.timeoutMs = timeoutMs; }
+}
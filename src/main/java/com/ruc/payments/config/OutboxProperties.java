@@ -0,0 +1,43 @@
+package com.ruc.payments.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the transactional outbox of payment events and its relay.
+ */
+@ConfigurationProperties(prefix = "ruc.payments.outbox")
+public class OutboxProperties {
+    private boolean enabled = false;
+    private String sink = "file"; // file | memory, or anything else with an OutboxSink bean of your own
+    private String file = "./data/outbox/payment-events.jsonl";
+    private String relayName = "default"; // Key of the high-water mark row, kept for monitoring
+    private int batchSize = 500; // Events handed to the sink per publish
+    private long pollIntervalMs = 1000;
+    private long settleMs = 5000; // Longer than most write transactions, so events mostly go out in id order
+    private long retentionMs = 7L * 24 * 60 * 60 * 1000; // Events are deleted this long after being published
+
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getSink() { return sink; }
+    public void setSink(String sink) { this.sink = sink; }
+
+    public String getFile() { return file; }
+    public void setFile(String file) { this.file = file; }
+
+    public String getRelayName() { return relayName; }
+    public void setRelayName(String relayName) { this.relayName = relayName; }
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+    public long getPollIntervalMs() { return pollIntervalMs; }
+    public void setPollIntervalMs(long pollIntervalMs) { this.pollIntervalMs = pollIntervalMs; }
+
+    public long getSettleMs() { return settleMs; }
+    public void setSettleMs(long settleMs) { this.settleMs = settleMs; }
+
+    public long getRetentionMs() { return retentionMs; }
+    public void setRetentionMs(long retentionMs) { this.retentionMs = retentionMs; }
+}
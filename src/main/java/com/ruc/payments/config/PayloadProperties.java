@@ -0,0 +1,15 @@
+package com.ruc.payments.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for how raw EPP payloads are stored.
+ */
+@ConfigurationProperties(prefix = "ruc.payments.payload")
+public class PayloadProperties {
+    private String codec = "deflate"; // Codec for new writes; stored rows are read with whichever codec wrote them
+
+    // Getters and Setters
+    public String getCodec() { return codec; }
+    public void setCodec(String codec) { this.codec = codec; }
+}
@@ -0,0 +1,15 @@
+package com.ruc.payments.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limits applied to inbound JSON bodies read by {@link CustomMessageConverter}.
+ */
+@ConfigurationProperties(prefix = "ruc.payments.request")
+public class RequestBodyProperties {
+    private long maxBodyBytes = 1024 * 1024; // SaleDetails with hundreds of items stays well under this
+
+    // Getters and Setters
+    public long getMaxBodyBytes() { return maxBodyBytes; }
+    public void setMaxBodyBytes(long maxBodyBytes) { this.maxBodyBytes = maxBodyBytes; }
+}
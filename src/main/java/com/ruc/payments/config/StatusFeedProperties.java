@@ -0,0 +1,27 @@
+package com.ruc.payments.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the long-poll and SSE payment status endpoints (see {@code PaymentStatusFeed}).
+ */
+@ConfigurationProperties(prefix = "ruc.payments.status")
+public class StatusFeedProperties {
+    private long timeoutMs = 30000; // Long-poll wait when the request does not ask for one
+    private long maxTimeoutMs = 120000; // Upper bound on a requested long-poll wait
+    private long streamTimeoutMs = 600000; // An SSE stream is closed after this; EventSource reconnects
+    private int maxWatchers = 10000; // Parked requests beyond this are answered at once
+
+    // Getters and Setters
+    public long getTimeoutMs() { return timeoutMs; }
+    public void setTimeoutMs(long timeoutMs) { this.timeoutMs = timeoutMs; }
+
+    public long getMaxTimeoutMs() { return maxTimeoutMs; }
+    public void setMaxTimeoutMs(long maxTimeoutMs) { this.maxTimeoutMs = maxTimeoutMs; }
+
+    public long getStreamTimeoutMs() { return streamTimeoutMs; }
+    public void setStreamTimeoutMs(long streamTimeoutMs) { this.streamTimeoutMs = streamTimeoutMs; }
+
+    public int getMaxWatchers() { return maxWatchers; }
+    public void setMaxWatchers(int maxWatchers) { this.maxWatchers = maxWatchers; }
+}
@@ -0,0 +1,27 @@
+package com.ruc.payments.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for grouping transaction upserts into JDBC batches.
+ */
+@ConfigurationProperties(prefix = "ruc.payments.batch")
+public class TransactionBatchProperties {
+    private boolean enabled = false;
+    private int maxBatchSize = 50; // Flush as soon as this many writes are pending
+    private long flushWindowMs = 5; // ...or this long after the first pending write
+    private int queueCapacity = 10000;
+
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getMaxBatchSize() { return maxBatchSize; }
+    public void setMaxBatchSize(int maxBatchSize) { this.maxBatchSize = maxBatchSize; }
+
+    public long getFlushWindowMs() { return flushWindowMs; }
+    public void setFlushWindowMs(long flushWindowMs) { this.flushWindowMs = flushWindowMs; }
+
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+}
@@ -0,0 +1,23 @@
+package com.ruc.payments.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the in-memory transaction lookup cache.
+ */
+@ConfigurationProperties(prefix = "ruc.payments.cache")
+public class TransactionCacheProperties {
+    private boolean enabled = true;
+    private long maximumSize = 10000; // Least recently used entries are evicted past this
+    private long ttlMs = 30000; // Upper bound on staleness for writes that bypass TransactionService
+
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public long getMaximumSize() { return maximumSize; }
+    public void setMaximumSize(long maximumSize) { this.maximumSize = maximumSize; }
+
+    public long getTtlMs() { return ttlMs; }
+    public void setTtlMs(long ttlMs) { this.ttlMs = ttlMs; }
+}
@@ -8,20 +8,25 @@ import java.util.List;
 
 /**
  * Web configuration to register custom message converters.
- * This allows handling JSON content sent with text/html content type headers.
+ * This allows handling JSON content sent with text/html content type headers,
+ * and writing checkout forms straight to the response.
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
     
     private final CustomMessageConverter customMessageConverter;
+    private final CheckoutFormMessageConverter checkoutFormMessageConverter;
     
-    public WebConfig(CustomMessageConverter customMessageConverter) {
+    public WebConfig(CustomMessageConverter customMessageConverter,
+                     CheckoutFormMessageConverter checkoutFormMessageConverter) {
         this.customMessageConverter = customMessageConverter;
+        this.checkoutFormMessageConverter = checkoutFormMessageConverter;
     }
     
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
         // Add our custom converter at the beginning so it gets priority
         converters.add(0, customMessageConverter);
+        converters.add(1, checkoutFormMessageConverter);
     }
 }
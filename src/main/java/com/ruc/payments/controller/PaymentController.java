@@ -1,15 +1,26 @@
 package com.ruc.payments.controller;
 
+import com.ruc.payments.codec.JsonCodecs;
+import com.ruc.payments.config.CheckoutProperties;
 import com.ruc.payments.dto.ApplicationResponse;
+import com.ruc.payments.dto.BulkCallbackResult;
+import com.ruc.payments.dto.BulkPaymentResult;
 import com.ruc.payments.dto.EppResponse;
+import com.ruc.payments.dto.PaymentStatusResponse;
 import com.ruc.payments.dto.SaleDetails;
 import com.ruc.payments.exception.PaymentProcessingException;
 import com.ruc.payments.service.PaymentService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * REST controller for EPP payment integration endpoints.
@@ -24,12 +35,20 @@ public class PaymentController {
     private static final Logger logger = LoggerFactory.getLogger(PaymentController.class);
     
     private final PaymentService paymentService;
+    private final JsonCodecs jsonCodecs;
+    private final PaymentStatusFeed statusFeed;
+    private final boolean streamCheckoutForm;
     
     /**
      * Constructor for dependency injection.
      */
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, JsonCodecs jsonCodecs,
+                             PaymentStatusFeed statusFeed,
+                             ObjectProvider<CheckoutProperties> checkoutProperties) {
         this.paymentService = paymentService;
+        this.jsonCodecs = jsonCodecs;
+        this.statusFeed = statusFeed;
+        this.streamCheckoutForm = checkoutProperties.getIfAvailable(CheckoutProperties::new).isStreaming();
     }
     
     /**
@@ -54,8 +73,7 @@ public class PaymentController {
         logger.info("Debug JSON requested for orderKey: {}", saleDetails.getOrderKey());
         
         try {
-            com.fasterxml.jackson.databind.ObjectMapper objectMapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            String json = objectMapper.writeValueAsString(saleDetails);
+            String json = jsonCodecs.writer(SaleDetails.class).writeValueAsString(saleDetails);
             
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
@@ -71,16 +89,20 @@ public class PaymentController {
 
     /**
      * Initiates a new EPP payment.
+     * With {@code ruc.payments.checkout.streaming} the form is written straight to the
+     * response by {@link com.ruc.payments.config.CheckoutFormMessageConverter}.
      * 
      * @param saleDetails Sale details payload
      * @return HTML form for EPP hosted checkout
      */
     @PostMapping("/start")
-    public ResponseEntity<String> start(@Valid @RequestBody SaleDetails saleDetails) {
+    public ResponseEntity<?> start(@Valid @RequestBody SaleDetails saleDetails) {
         logger.info("Payment start requested for orderKey: {}", saleDetails.getOrderKey());
         
         try {
-            String checkoutForm = paymentService.initiatePayment(saleDetails);
+            Object checkoutForm = streamCheckoutForm
+                    ? paymentService.initiateCheckout(saleDetails)
+                    : paymentService.initiatePayment(saleDetails);
             
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.TEXT_HTML);
@@ -98,6 +120,33 @@ public class PaymentController {
         }
     }
 
+    /**
+     * Initiates many EPP payments in one request, e.g. fleet renewals.
+     * Orders are validated individually; the response lists one result per order,
+     * in request order, with its checkout form or error.
+     * 
+     * @param orders Sale details payloads
+     * @return Per-order results
+     */
+    @PostMapping("/start/batch")
+    public ResponseEntity<?> startBatch(@RequestBody SaleDetails[] orders) {
+        logger.info("Bulk payment start requested for {} orders", orders.length);
+        
+        try {
+            List<BulkPaymentResult> results = paymentService.initiatePayments(Arrays.asList(orders));
+            return ResponseEntity.ok(results);
+            
+        } catch (PaymentProcessingException e) {
+            logger.error("Bulk payment initiation failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Bulk payment initiation failed: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("Unexpected error during bulk payment initiation", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred");
+        }
+    }
+
     /**
      * OnEPPResult method as specified in EPP documentation.
      * This serves as the application API endpoint that EPP calls for post-processing.
@@ -115,19 +164,19 @@ public class PaymentController {
             
             if ("COM".equals(status)) {
                 // Payment completed successfully
-                appResponse = paymentService.processCallback(eppResponse);
+                appResponse = paymentService.acceptCallback(eppResponse);
                 logger.info("Payment completed successfully for orderKey: {}", eppResponse.getOrderKey());
                 
             } else if ("CAN".equals(status)) {
                 // Payment cancelled
-                appResponse = paymentService.processCallback(eppResponse);
+                appResponse = paymentService.acceptCallback(eppResponse);
                 // Set status to COM as per EPP specification for cancelled payments
                 appResponse.setStatus("COM");
                 logger.info("Payment cancelled for orderKey: {}", eppResponse.getOrderKey());
                 
             } else {
                 // Payment declined or other status
-                appResponse = paymentService.processCallback(eppResponse);
+                appResponse = paymentService.acceptCallback(eppResponse);
                 logger.info("Payment status '{}' for orderKey: {}", status, eppResponse.getOrderKey());
             }
             
@@ -197,5 +246,68 @@ public class PaymentController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
     }
-    
+
+    /**
+     * Applies many EPP results in one request, for reconciliation replays after an outage.
+     * Callbacks are validated individually; the response lists one result per callback,
+     * in request order, with its outcome or error.
+     * 
+     * @param callbacks Callback payloads, oldest first
+     * @return Per-callback results
+     */
+    @PostMapping("/result/batch")
+    public ResponseEntity<?> resultBatch(@RequestBody EppResponse[] callbacks) {
+        logger.info("Bulk callback replay received with {} callbacks", callbacks.length);
+        
+        try {
+            List<BulkCallbackResult> results = paymentService.processCallbacks(Arrays.asList(callbacks));
+            return ResponseEntity.ok(results);
+            
+        } catch (PaymentProcessingException e) {
+            logger.error("Bulk callback processing failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Bulk callback processing failed: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("Unexpected error during bulk callback processing", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred");
+        }
+    }
+
+    /**
+     * Long-poll for a payment's status after the EPP redirect. Answers at once unless the
+     * status is still {@code since}; otherwise the request is parked, without holding a
+     * thread, until a write for the order commits or {@code timeoutMs} passes.
+     * 
+     * @param orderKey Order key
+     * @param applicationUniqueId Application unique ID (optional)
+     * @param since Status the client last saw
+     * @param timeoutMs Longest wait in milliseconds
+     * @return The transaction's status, or 404 for an unknown order
+     */
+    @GetMapping("/status/{orderKey}")
+    public DeferredResult<ResponseEntity<PaymentStatusResponse>> status(
+            @PathVariable String orderKey,
+            @RequestParam(required = false) String applicationUniqueId,
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Long timeoutMs) {
+        logger.debug("Status requested for orderKey: {}, since: {}", orderKey, since);
+        return statusFeed.awaitChange(orderKey, applicationUniqueId, since, timeoutMs);
+    }
+
+    /**
+     * Server-sent events for a payment's status: the current status, then one
+     * {@code status} event per committed write, ending after a final status.
+     * 
+     * @param orderKey Order key
+     * @param applicationUniqueId Application unique ID (optional)
+     * @return The event stream, or 404 for an unknown order
+     */
+    @GetMapping(path = "/status/{orderKey}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> statusStream(@PathVariable String orderKey,
+                                                   @RequestParam(required = false) String applicationUniqueId) {
+        logger.debug("Status stream requested for orderKey: {}", orderKey);
+        SseEmitter emitter = statusFeed.stream(orderKey, applicationUniqueId);
+        return emitter != null ? ResponseEntity.ok(emitter) : ResponseEntity.notFound().build();
+    }
 }
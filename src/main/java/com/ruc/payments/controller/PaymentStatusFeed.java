@@ -0,0 +1,282 @@
+package com.ruc.payments.controller;
+
+import com.ruc.payments.config.StatusFeedProperties;
+import com.ruc.payments.dto.PaymentStatusResponse;
+import com.ruc.payments.entity.EppTransaction;
+import com.ruc.payments.entity.TransactionStatus;
+import com.ruc.payments.repo.EppTransactionRepository;
+import com.ruc.payments.service.TransactionChangedEvent;
+import com.ruc.payments.service.TransactionService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parks status requests until a write for their order commits, instead of having the
+ * front end poll the database after the EPP redirect.
+ *
+ * <p>A parked request is a {@link DeferredResult} or {@link SseEmitter} registered as a
+ * watcher of its order; it holds no request thread. {@link TransactionChangedEvent}s are
+ * taken after the writing transaction commits, and for an order with watchers the
+ * {@code payment-status-feed} thread reads the row once, uncached, and hands it to all of
+ * them. Events for orders nobody watches cost a map lookup. Several writes to one order
+ * before its read runs are served by that one read.</p>
+ *
+ * <p>Watchers are registered before the current status is read, so a write committing
+ * in between is not missed. Beyond {@code maxWatchers} requests are answered at once with
+ * the current status and the client falls back to polling.</p>
+ */
+@Component
+public class PaymentStatusFeed implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentStatusFeed.class);
+
+    private final EppTransactionRepository repository;
+    private final TransactionService transactionService;
+    private final StatusFeedProperties properties;
+    private final Map<OrderRef, Set<Watcher>> watchers = new ConcurrentHashMap<>();
+    private final Set<OrderRef> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger watching = new AtomicInteger();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "payment-status-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PaymentStatusFeed(EppTransactionRepository repository, TransactionService transactionService,
+                             StatusFeedProperties properties) {
+        this.repository = repository;
+        this.transactionService = transactionService;
+        this.properties = properties;
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Long-poll: answers once the transaction's status is no longer {@code since}, or at
+     * once when it already differs, is final, or {@code since} is not given. On timeout the
+     * row is read again and returned as it is then. An unknown order is answered with 404.
+     *
+     * @param since The status the client last saw
+     * @param timeoutMs Requested wait, capped at {@code maxTimeoutMs}; null for {@code timeoutMs}
+     */
+    public DeferredResult<ResponseEntity<PaymentStatusResponse>> awaitChange(
+            String orderKey, String applicationUniqueId, String since, Long timeoutMs) {
+        long timeout = timeoutMs == null ? properties.getTimeoutMs()
+                : Math.max(0, Math.min(timeoutMs, properties.getMaxTimeoutMs()));
+        DeferredResult<ResponseEntity<PaymentStatusResponse>> result = new DeferredResult<>(timeout);
+        OrderRef order = new OrderRef(orderKey, applicationUniqueId);
+
+        Watcher watcher = transaction -> {
+            if (transaction == null || !changed(transaction, since)) {
+                return false;
+            }
+            result.setResult(ResponseEntity.ok(PaymentStatusResponse.of(transaction)));
+            return true;
+        };
+        boolean parked = watch(order, watcher);
+        EppTransaction current = transactionService.findTransaction(orderKey, applicationUniqueId);
+        if (current == null || since == null || changed(current, since) || !parked) {
+            unwatch(order, watcher);
+            result.setResult(current == null ? ResponseEntity.notFound().build()
+                    : ResponseEntity.ok(PaymentStatusResponse.of(current)));
+            return result;
+        }
+        result.onTimeout(() -> {
+            unwatch(order, watcher);
+            // A write that kept the status still moved the version on
+            EppTransaction latest = transactionService.findTransaction(orderKey, applicationUniqueId);
+            result.setResult(latest == null ? ResponseEntity.notFound().build()
+                    : ResponseEntity.ok(PaymentStatusResponse.of(latest)));
+        });
+        result.onCompletion(() -> unwatch(order, watcher));
+        return result;
+    }
+
+    /**
+     * SSE: sends a {@code status} event with the current status, then one per committed
+     * write that moves the version on, and completes after a final status.
+     *
+     * @return The stream, or null when there is no such transaction
+     */
+    public SseEmitter stream(String orderKey, String applicationUniqueId) {
+        SseEmitter emitter = new SseEmitter(properties.getStreamTimeoutMs());
+        OrderRef order = new OrderRef(orderKey, applicationUniqueId);
+        StreamWatcher watcher = new StreamWatcher(emitter);
+
+        boolean parked = watch(order, watcher);
+        EppTransaction current = transactionService.findTransaction(orderKey, applicationUniqueId);
+        if (current == null) {
+            unwatch(order, watcher);
+            return null;
+        }
+        emitter.onCompletion(() -> unwatch(order, watcher));
+        emitter.onTimeout(() -> {
+            unwatch(order, watcher);
+            emitter.complete();
+        });
+        emitter.onError(e -> unwatch(order, watcher));
+        boolean done = watcher.onChange(current);
+        if (done || !parked) {
+            unwatch(order, watcher);
+            if (!done) {
+                emitter.complete();
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * Runs after the write's commit, or straight away for an event published outside a
+     * transaction (the batch flusher has already committed, other nodes' writes are found
+     * after theirs).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        OrderRef order = new OrderRef(event.orderKey(), event.applicationUniqueId());
+        if (!watchers.containsKey(order) || !pending.add(order)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                // Cleared before the read, so a write committing during it is read again
+                pending.remove(order);
+                notifyWatchers(order);
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(order); // shutting down
+        }
+    }
+
+    /**
+     * Requests currently parked.
+     */
+    public int watching() {
+        return watching.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("epp.status.watchers", watching, AtomicInteger::get)
+                .description("Long-poll and SSE status requests waiting for a write")
+                .register(registry);
+    }
+
+    private void notifyWatchers(OrderRef order) {
+        Set<Watcher> waiting = watchers.get(order);
+        if (waiting == null) {
+            return;
+        }
+        try {
+            EppTransaction transaction = repository.readRow(order.orderKey(), order.applicationUniqueId());
+            for (Watcher watcher : waiting) {
+                if (watcher.onChange(transaction)) {
+                    unwatch(order, watcher);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Status notification failed for orderKey: {}, waiting requests time out instead: {}",
+                    order.orderKey(), e.getMessage());
+        }
+    }
+
+    private boolean watch(OrderRef order, Watcher watcher) {
+        if (watching.incrementAndGet() > properties.getMaxWatchers()) {
+            watching.decrementAndGet();
+            return false;
+        }
+        watchers.compute(order, (k, set) -> {
+            Set<Watcher> waiting = set != null ? set : ConcurrentHashMap.newKeySet();
+            waiting.add(watcher);
+            return waiting;
+        });
+        return true;
+    }
+
+    private void unwatch(OrderRef order, Watcher watcher) {
+        watchers.computeIfPresent(order, (k, set) -> {
+            if (set.remove(watcher)) {
+                watching.decrementAndGet();
+            }
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static boolean changed(EppTransaction transaction, String since) {
+        return !Objects.equals(transaction.getStatus(), since) || TransactionStatus.isFinal(transaction.getStatus());
+    }
+
+    private record OrderRef(String orderKey, String applicationUniqueId) {
+    }
+
+    /**
+     * Receives the row after a committed write to its order, or null if there is none.
+     */
+    private interface Watcher {
+        /**
+         * @return Whether the watcher is done and can be dropped
+         */
+        boolean onChange(EppTransaction transaction);
+    }
+
+    private static final class StreamWatcher implements Watcher {
+
+        private final SseEmitter emitter;
+        private long lastVersion = Long.MIN_VALUE;
+
+        StreamWatcher(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Synchronized because the first event is sent from the request thread while the
+         * feed thread may already be delivering a write; versions keep them in order.
+         */
+        @Override
+        public synchronized boolean onChange(EppTransaction transaction) {
+            if (transaction == null) {
+                return false;
+            }
+            long version = transaction.getVersion() == null ? 0 : transaction.getVersion();
+            if (version <= lastVersion) {
+                return false;
+            }
+            lastVersion = version;
+            try {
+                emitter.send(SseEmitter.event()
+                        .name("status")
+                        .id(String.valueOf(version))
+                        .data(PaymentStatusResponse.of(transaction), MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                return true; // client gone or stream already completed
+            }
+            if (TransactionStatus.isFinal(transaction.getStatus())) {
+                emitter.complete();
+                return true;
+            }
+            return false;
+        }
+    }
+}
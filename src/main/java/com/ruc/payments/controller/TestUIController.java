@@ -1,9 +1,11 @@
 package com.ruc.payments.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ruc.payments.codec.JsonCodecs;
 import com.ruc.payments.config.EppProperties;
 import com.ruc.payments.dto.SaleDetails;
 import com.ruc.payments.dto.SaleItems;
+import com.ruc.payments.service.CheckoutFormTemplate;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.stereotype.Controller;
@@ -23,13 +25,16 @@ import java.util.Arrays;
 public class TestUIController {
     
     private static final String LAUNCH_FORM_STRING_PREFIX = "***Launch Form String: ";
+    private static final String LAUNCH_FORM_PAYLOAD_PREFIX = "***Launch Form Payload: ";
     
-    private final ObjectMapper objectMapper;
+    private final ObjectWriter saleDetailsWriter;
     private final EppProperties eppProperties;
+    private final CheckoutFormTemplate checkoutForm;
     
-    public TestUIController(EppProperties eppProperties) {
-        this.objectMapper = new ObjectMapper();
+    public TestUIController(EppProperties eppProperties, JsonCodecs jsonCodecs, CheckoutFormTemplate checkoutForm) {
+        this.saleDetailsWriter = jsonCodecs.writer(SaleDetails.class);
         this.eppProperties = eppProperties;
+        this.checkoutForm = checkoutForm;
     }
     
     @GetMapping("/ping")
@@ -59,21 +64,21 @@ public class TestUIController {
     
     /**
      * Method 1: Direct HTML Response (.NET Style)
-     * Writes HTML form directly to response and auto-submits
+     * Writes HTML form directly to the response output stream and auto-submits
      */
     @PostMapping("/method1-direct")
     public void method1Direct(HttpServletRequest request, HttpServletResponse response) throws Exception {
         SaleDetails saleDetails = buildSaleDetails(request);
-        String jsonPayload = objectMapper.writeValueAsString(saleDetails);
-        String launchFormString = buildEppForm(jsonPayload);
+        String jsonPayload = saleDetailsWriter.writeValueAsString(saleDetails);
 
         System.out.println("------------------------------------------------------");  
-        System.out.println(LAUNCH_FORM_STRING_PREFIX + launchFormString);
+        System.out.println(LAUNCH_FORM_PAYLOAD_PREFIX + jsonPayload);
         System.out.println("------------------------------------------------------");
         
         response.setContentType("text/html; charset=UTF-8");
-        response.getWriter().write(launchFormString);
-        response.getWriter().flush();
+        response.setContentLengthLong(checkoutForm.contentLength(jsonPayload));
+        checkoutForm.writeTo(response.getOutputStream(), jsonPayload);
+        response.flushBuffer();
     }
     
     /**
@@ -83,8 +88,8 @@ public class TestUIController {
     @PostMapping("/method2-template")
     public String method2Template(HttpServletRequest request, Model model) throws Exception {
         SaleDetails saleDetails = buildSaleDetails(request);
-        String jsonPayload = objectMapper.writeValueAsString(saleDetails);
-        String launchFormString = buildEppForm(jsonPayload);
+        String jsonPayload = saleDetailsWriter.writeValueAsString(saleDetails);
+        String launchFormString = checkoutForm.render(jsonPayload);
 
         System.out.println("------------------------------------------------------");
         System.out.println(LAUNCH_FORM_STRING_PREFIX + launchFormString);
@@ -101,8 +106,8 @@ public class TestUIController {
     @PostMapping("/method3-modelview")
     public ModelAndView method3ModelView(HttpServletRequest request) throws Exception {
         SaleDetails saleDetails = buildSaleDetails(request);
-        String jsonPayload = objectMapper.writeValueAsString(saleDetails);
-        String launchFormString = buildEppForm(jsonPayload);
+        String jsonPayload = saleDetailsWriter.writeValueAsString(saleDetails);
+        String launchFormString = checkoutForm.render(jsonPayload);
         
         System.out.println("------------------------------------------------------");
         System.out.println(LAUNCH_FORM_STRING_PREFIX + launchFormString);
@@ -121,8 +126,8 @@ public class TestUIController {
     @ResponseBody
     public java.util.Map<String, Object> method4Ajax(HttpServletRequest request) throws Exception {
         SaleDetails saleDetails = buildSaleDetails(request);
-        String jsonPayload = objectMapper.writeValueAsString(saleDetails);
-        String launchFormString = buildEppForm(jsonPayload);
+        String jsonPayload = saleDetailsWriter.writeValueAsString(saleDetails);
+        String launchFormString = checkoutForm.render(jsonPayload);
         
         System.out.println("------------------------------------------------------");
         System.out.println(LAUNCH_FORM_STRING_PREFIX + launchFormString);
@@ -148,7 +153,7 @@ public class TestUIController {
     @ResponseBody
     public java.util.Map<String, Object> method5Rest(HttpServletRequest request) throws Exception {
         SaleDetails saleDetails = buildSaleDetails(request);
-        String jsonPayload = objectMapper.writeValueAsString(saleDetails);
+        String jsonPayload = saleDetailsWriter.writeValueAsString(saleDetails);
         
         System.out.println("------------------------------------------------------");
         System.out.println("REST API Call - Payment Details:");
@@ -198,17 +203,4 @@ public class TestUIController {
         saleDetails.setItems(Arrays.asList(item));
         return saleDetails;
     }
-    
-    private String buildEppForm(String jsonPayload) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("<form id='__PostForm' name='__PostForm' action='")
-          .append(eppProperties.getPaymentGatewayIndexUrl())
-          .append("' method='POST'>")
-          .append("<input type='hidden' name='saleDetail' value='")
-          .append(jsonPayload)
-          .append("'/>")
-          .append("</form>")
-          .append("<script language='javascript'>var v__PostForm=document.__PostForm;v__PostForm.submit();</script>");
-        return sb.toString();
-    }
 }
@@ -0,0 +1,47 @@
+package com.ruc.payments.dto;
+
+/**
+ * Outcome of one record in a bulk callback replay. Records are reported in request order.
+ *
+ * <ul>
+ *   <li>CREATED: no transaction existed for the order, one was inserted</li>
+ *   <li>UPDATED: the existing transaction took the callback's values</li>
+ *   <li>UNCHANGED: the transaction already had them, nothing was written</li>
+ *   <li>SUPERSEDED: a later accepted record in the same request was for the same order</li>
+ *   <li>REJECTED: the transaction's status does not allow the record's, it was left as is</li>
+ *   <li>ERROR: the record was rejected or could not be written</li>
+ * </ul>
+ */
+public class BulkCallbackResult {
+
+    private String orderKey;
+
+    private String applicationUniqueId;
+
+    private String outcome;
+
+    private String status; // Transaction status after the replay, unset for SUPERSEDED and ERROR
+
+    private String errorCode;
+
+    private String errorMessage;
+
+    // Getters and Setters
+    public String getOrderKey() { return orderKey; }
+    public void setOrderKey(String orderKey) { this.orderKey = orderKey; }
+
+    public String getApplicationUniqueId() { return applicationUniqueId; }
+    public void setApplicationUniqueId(String applicationUniqueId) { this.applicationUniqueId = applicationUniqueId; }
+
+    public String getOutcome() { return outcome; }
+    public void setOutcome(String outcome) { this.outcome = outcome; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getErrorCode() { return errorCode; }
+    public void setErrorCode(String errorCode) { this.errorCode = errorCode; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+}
@@ -0,0 +1,39 @@
+package com.ruc.payments.dto;
+
+/**
+ * Outcome of one order in a bulk payment initiation: either the hosted checkout form
+ * for the order, or the error that stopped it. Orders are reported in request order.
+ */
+public class BulkPaymentResult {
+
+    private String orderKey;
+
+    private String applicationUniqueId;
+
+    private String status; // APP when the order was started, ERROR otherwise
+
+    private String checkoutForm; // HTML form for EPP hosted checkout, set when started
+
+    private String errorCode;
+
+    private String errorMessage;
+
+    // Getters and Setters
+    public String getOrderKey() { return orderKey; }
+    public void setOrderKey(String orderKey) { this.orderKey = orderKey; }
+
+    public String getApplicationUniqueId() { return applicationUniqueId; }
+    public void setApplicationUniqueId(String applicationUniqueId) { this.applicationUniqueId = applicationUniqueId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getCheckoutForm() { return checkoutForm; }
+    public void setCheckoutForm(String checkoutForm) { this.checkoutForm = checkoutForm; }
+
+    public String getErrorCode() { return errorCode; }
+    public void setErrorCode(String errorCode) { this.errorCode = errorCode; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+}
@@ -0,0 +1,54 @@
+package com.ruc.payments.dto;
+
+import com.ruc.payments.entity.EppTransaction;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A transaction's status as served by the status endpoints. {@code version} goes up with
+ * every write to the transaction, so a client can tell a new write from one it has seen.
+ */
+public class PaymentStatusResponse {
+
+    private String orderKey;
+
+    private String applicationUniqueId;
+
+    private String status;
+
+    private String referenceNo;
+
+    private Long version;
+
+    private OffsetDateTime updatedAt;
+
+    public static PaymentStatusResponse of(EppTransaction transaction) {
+        PaymentStatusResponse response = new PaymentStatusResponse();
+        response.setOrderKey(transaction.getOrderKey());
+        response.setApplicationUniqueId(transaction.getApplicationUniqueId());
+        response.setStatus(transaction.getStatus());
+        response.setReferenceNo(transaction.getReferenceNo());
+        response.setVersion(transaction.getVersion());
+        response.setUpdatedAt(transaction.getUpdatedAt());
+        return response;
+    }
+
+    // Getters and Setters
+    public String getOrderKey() { return orderKey; }
+    public void setOrderKey(String orderKey) { this.orderKey = orderKey; }
+
+    public String getApplicationUniqueId() { return applicationUniqueId; }
+    public void setApplicationUniqueId(String applicationUniqueId) { this.applicationUniqueId = applicationUniqueId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getReferenceNo() { return referenceNo; }
+    public void setReferenceNo(String referenceNo) { this.referenceNo = referenceNo; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public OffsetDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(OffsetDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -8,8 +8,14 @@ import java.time.OffsetDateTime;
 @Table(name = "epp_transaction",
     uniqueConstraints = @UniqueConstraint(name = "uq_epp_order_app", columnNames = {"order_key", "application_unique_id"}))
 public class EppTransaction {
+    /** Sequence name shared with the JDBC upsert path; see V3__epp_transaction_sequence. */
+    public static final String ID_SEQUENCE = "epp_transaction_seq";
+    /** Must match the sequence's INCREMENT BY; ids are handed out from memory in blocks of this size. */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "order_key", length = 200, nullable = false)
@@ -27,14 +33,6 @@ public class EppTransaction {
     @Column(length = 100)
     private String email;
 
-    @Lob
-    @Column(name = "raw_request")
-    private String rawRequest;
-
-    @Lob
-    @Column(name = "raw_response")
-    private String rawResponse;
-
     @Column(name = "auth_code", length = 50)
     private String authCode;
 
@@ -47,6 +45,11 @@ public class EppTransaction {
     @Column(name = "updated_at")
     private OffsetDateTime updatedAt;
 
+    /** Bumped by every update, including the upsert's MERGE; see TransactionStatus for the status rules. */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     public void onInsert() {
         createdAt = OffsetDateTime.now();
@@ -71,10 +74,6 @@ public class EppTransaction {
     public void setAmount(BigDecimal amount) { this.amount = amount; }
     public String getEmail() { return email; }
     public void setEmail(String email) { this.email = email; }
-    public String getRawRequest() { return rawRequest; }
-    public void setRawRequest(String rawRequest) { this.rawRequest = rawRequest; }
-    public String getRawResponse() { return rawResponse; }
-    public void setRawResponse(String rawResponse) { this.rawResponse = rawResponse; }
     public String getAuthCode() { return authCode; }
     public void setAuthCode(String authCode) { this.authCode = authCode; }
     public String getReferenceNo() { return referenceNo; }
@@ -83,4 +82,6 @@ public class EppTransaction {
     public void setCreatedAt(OffsetDateTime createdAt) { this.createdAt = createdAt; }
     public OffsetDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(OffsetDateTime updatedAt) { this.updatedAt = updatedAt; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -0,0 +1,41 @@
+package com.ruc.payments.entity;
+
+import com.ruc.payments.codec.PayloadConverter;
+import jakarta.persistence.*;
+
+/**
+ * Raw EPP request/response JSON for a transaction, kept off the {@code epp_transaction}
+ * row so status lookups never read the LOBs. Shares the transaction's primary key.
+ * The JSON is stored encoded by the configured payload codec and decoded on read.
+ */
+@Entity
+@Table(name = "epp_transaction_payload")
+public class EppTransactionPayload {
+    @Id
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "transaction_id")
+    private EppTransaction transaction;
+
+    @Lob
+    @Convert(converter = PayloadConverter.class)
+    @Column(name = "raw_request")
+    private String rawRequest;
+
+    @Lob
+    @Convert(converter = PayloadConverter.class)
+    @Column(name = "raw_response")
+    private String rawResponse;
+
+    // Getters and Setters
+    public Long getTransactionId() { return transactionId; }
+    public EppTransaction getTransaction() { return transaction; }
+    public void setTransaction(EppTransaction transaction) { this.transaction = transaction; }
+    public String getRawRequest() { return rawRequest; }
+    public void setRawRequest(String rawRequest) { this.rawRequest = rawRequest; }
+    public String getRawResponse() { return rawResponse; }
+    public void setRawResponse(String rawResponse) { this.rawResponse = rawResponse; }
+}
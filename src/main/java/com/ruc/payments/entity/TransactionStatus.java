@@ -0,0 +1,43 @@
+package com.ruc.payments.entity;
+
+/**
+ * The lifecycle of {@link EppTransaction#getStatus()}.
+ *
+ * <pre>
+ *   (none) ──> any status
+ *   APP ─────> any status
+ *   CAN, DEC and other EPP results ──> APP (a new attempt) or COM
+ *   COM ─────> nothing, it is final
+ * </pre>
+ *
+ * <p>Writing the status a row already has is always allowed, so replays are harmless.
+ * The same rules are enforced by the upsert's MERGE in the database, which is what makes
+ * them hold across threads and instances; this class lets callers check a transition
+ * before writing and explain a rejected one.</p>
+ */
+public final class TransactionStatus {
+
+    /** Payment started, checkout form handed out. */
+    public static final String STARTED = "APP";
+    /** Payment completed; final. */
+    public static final String COMPLETED = "COM";
+    public static final String CANCELLED = "CAN";
+    public static final String DECLINED = "DEC";
+
+    private TransactionStatus() {
+    }
+
+    /**
+     * Whether a transaction in status {@code from} (null for no row yet) may move to {@code to}.
+     */
+    public static boolean canTransition(String from, String to) {
+        if (from == null || STARTED.equals(from) || from.equals(to)) {
+            return true;
+        }
+        return !COMPLETED.equals(from) && (STARTED.equals(to) || COMPLETED.equals(to));
+    }
+
+    public static boolean isFinal(String status) {
+        return COMPLETED.equals(status);
+    }
+}
@@ -0,0 +1,28 @@
+package com.ruc.payments.exception;
+
+/**
+ * Thrown when a write would move a transaction to a status its current status does not
+ * allow, e.g. a late start for an order that is already completed.
+ * 
+ * The transaction is left as it was. See {@code TransactionStatus} for the allowed moves.
+ */
+public class StatusTransitionException extends PaymentProcessingException {
+    
+    private final String currentStatus;
+    private final String requestedStatus;
+    
+    public StatusTransitionException(String orderKey, String currentStatus, String requestedStatus) {
+        super("INVALID_STATUS_TRANSITION",
+            "Order " + orderKey + " is " + currentStatus + " and cannot move to " + requestedStatus);
+        this.currentStatus = currentStatus;
+        this.requestedStatus = requestedStatus;
+    }
+    
+    public String getCurrentStatus() {
+        return currentStatus;
+    }
+    
+    public String getRequestedStatus() {
+        return requestedStatus;
+    }
+}
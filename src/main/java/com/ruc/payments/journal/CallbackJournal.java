@@ -0,0 +1,306 @@
+package com.ruc.payments.journal;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ruc.payments.codec.JsonCodecs;
+import com.ruc.payments.config.CallbackJournalProperties;
+import com.ruc.payments.dto.EppResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable, append-only journal of OnEPPResult callbacks.
+ *
+ * <p>Callbacks are appended to numbered segment files as {@code [length][crc32][json]}
+ * records and fsynced before {@link #append} returns, so EPP can be acknowledged without
+ * waiting for the database. {@link CallbackJournalDrainer} reads records past the
+ * checkpoint, applies them, and then advances the checkpoint with {@link #commit}.</p>
+ *
+ * <p>On startup a torn record at the tail of the newest segment (crash mid-append) is
+ * truncated away; everything after the checkpoint is replayed. Replays are safe because
+ * the transaction upsert is idempotent.</p>
+ *
+ * <p>Writers serialize on a {@link ReentrantLock} rather than a monitor, so a virtual
+ * thread waiting on the fsync does not pin its carrier thread.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "ruc.payments.journal", name = "enabled", havingValue = "true")
+public class CallbackJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallbackJournal.class);
+
+    private static final int HEADER_BYTES = 8; // int length + int crc32
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final long segmentSizeBytes;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private FileChannel writeChannel;
+    private volatile JournalPosition writePosition;
+    private volatile JournalPosition checkpoint;
+
+    public CallbackJournal(CallbackJournalProperties properties, JsonCodecs jsonCodecs) {
+        this.directory = Paths.get(properties.getDirectory());
+        this.segmentSizeBytes = properties.getSegmentSizeBytes();
+        this.writer = jsonCodecs.writer(EppResponse.class);
+        this.reader = jsonCodecs.reader(EppResponse.class);
+        try {
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open callback journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends a callback and forces it to disk.
+     *
+     * @return Position just past the appended record
+     */
+    public JournalPosition append(EppResponse eppResponse) throws IOException {
+        byte[] payload = writer.writeValueAsBytes(eppResponse);
+        int recordBytes = HEADER_BYTES + payload.length;
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(recordBytes);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+
+        lock.lock();
+        try {
+            if (writePosition.offset() > 0 && writePosition.offset() + recordBytes > segmentSizeBytes) {
+                rollSegment();
+            }
+            while (record.hasRemaining()) {
+                writeChannel.write(record);
+            }
+            writeChannel.force(false);
+
+            writePosition = new JournalPosition(writePosition.segment(), writePosition.offset() + recordBytes);
+            return writePosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads up to {@code max} durable records starting at {@code from}.
+     */
+    public List<JournalEntry> read(JournalPosition from, int max) throws IOException {
+        List<JournalEntry> entries = new ArrayList<>(Math.min(max, 256));
+        JournalPosition end = writePosition;
+        long segment = from.segment();
+        long offset = from.offset();
+
+        while (entries.size() < max && segment <= end.segment()) {
+            Path file = segmentPath(segment);
+            if (!Files.exists(file)) {
+                segment++;
+                offset = 0;
+                continue;
+            }
+            long limit = segment == end.segment() ? end.offset() : Files.size(file);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                while (entries.size() < max && offset + HEADER_BYTES <= limit) {
+                    byte[] payload = readRecord(channel, offset, limit);
+                    if (payload == null) {
+                        // Only the active tail can be torn, and recovery truncated it
+                        logger.error("Corrupt callback journal record in segment {} at offset {}, skipping rest of segment",
+                                segment, offset);
+                        offset = limit;
+                        break;
+                    }
+                    offset += HEADER_BYTES + payload.length;
+                    entries.add(new JournalEntry(new JournalPosition(segment, offset),
+                            reader.readValue(payload)));
+                }
+            }
+            if (offset >= limit && segment < end.segment()) {
+                segment++;
+                offset = 0;
+            } else {
+                break;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Records that everything before {@code position} has been applied and removes
+     * fully drained segments.
+     */
+    public void commit(JournalPosition position) throws IOException {
+        lock.lock();
+        try {
+            Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.wrap((position.segment() + " " + position.offset())
+                        .getBytes(StandardCharsets.US_ASCII)));
+                channel.force(true);
+            }
+            Files.move(tmp, directory.resolve(CHECKPOINT_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            checkpoint = position;
+
+            for (long segment : listSegments()) {
+                if (segment < position.segment()) {
+                    Files.deleteIfExists(segmentPath(segment));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public JournalPosition checkpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * @return true when records exist past the checkpoint
+     */
+    public boolean hasPending() {
+        return checkpoint.compareTo(writePosition) < 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (writeChannel != null && writeChannel.isOpen()) {
+                writeChannel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+
+        List<Long> segments = listSegments();
+        long activeSegment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+        Path activeFile = segmentPath(activeSegment);
+
+        writeChannel = FileChannel.open(activeFile, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long validEnd = recoverTail(writeChannel);
+        if (validEnd < writeChannel.size()) {
+            logger.warn("Truncating torn callback journal tail in segment {} from {} to {} bytes",
+                    activeSegment, writeChannel.size(), validEnd);
+            writeChannel.truncate(validEnd);
+            writeChannel.force(true);
+        }
+        writeChannel.position(validEnd);
+        writePosition = new JournalPosition(activeSegment, validEnd);
+
+        Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpointFile)) {
+            String[] parts = Files.readString(checkpointFile, StandardCharsets.US_ASCII).trim().split(" ");
+            checkpoint = new JournalPosition(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        } else {
+            checkpoint = new JournalPosition(segments.isEmpty() ? activeSegment : segments.get(0), 0);
+        }
+
+        if (hasPending()) {
+            logger.info("Callback journal has undrained records from {} to {}, they will be replayed",
+                    checkpoint, writePosition);
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        writeChannel.close();
+        long next = writePosition.segment() + 1;
+        writeChannel = FileChannel.open(segmentPath(next), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writePosition = new JournalPosition(next, 0);
+    }
+
+    /**
+     * Scans the segment and returns the offset just past the last intact record.
+     */
+    private static long recoverTail(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long offset = 0;
+        while (offset + HEADER_BYTES <= size) {
+            byte[] payload = readRecord(channel, offset, size);
+            if (payload == null) {
+                break;
+            }
+            offset += HEADER_BYTES + payload.length;
+        }
+        return offset;
+    }
+
+    /**
+     * @return The record payload, or null when the record is truncated or fails its CRC
+     */
+    private static byte[] readRecord(FileChannel channel, long offset, long limit) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header, offset);
+        header.flip();
+        int length = header.getInt();
+        int expectedCrc = header.getInt();
+        if (length < 0 || offset + HEADER_BYTES + length > limit) {
+            return null;
+        }
+
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(channel, payload, offset + HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        return (int) crc.getValue() == expectedCrc ? payload.array() : null;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * A journaled callback and the position just past it.
+     */
+    public record JournalEntry(JournalPosition next, EppResponse eppResponse) {
+    }
+}
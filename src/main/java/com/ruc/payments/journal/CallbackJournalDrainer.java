@@ -0,0 +1,163 @@
+package com.ruc.payments.journal;
+
+import com.ruc.payments.config.CallbackJournalProperties;
+import com.ruc.payments.dto.EppResponse;
+import com.ruc.payments.exception.PaymentProcessingException;
+import com.ruc.payments.journal.CallbackJournal.JournalEntry;
+import com.ruc.payments.service.PaymentService;
+import com.ruc.payments.service.impl.OrderLocks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Background applier for the {@link CallbackJournal}.
+ *
+ * <p>Reads journaled callbacks past the checkpoint and applies a batch of them through
+ * {@link PaymentService#processCallback} inside one database transaction. If the batch
+ * fails, its records are retried one by one so a single bad record cannot block the rest.
+ * A record that fails validation is logged and skipped. A database failure or an order
+ * lock timeout stops the drain, and the same records are retried on the next tick. The
+ * checkpoint only moves past records that have been committed.</p>
+ *
+ * <p>The order locks for a whole batch are taken, in stripe order, before its transaction
+ * opens and released after it commits, the same way bulk callbacks lock. Taking them per
+ * record inside the transaction would hold some stripes while waiting for others.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "ruc.payments.journal", name = "enabled", havingValue = "true")
+public class CallbackJournalDrainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallbackJournalDrainer.class);
+
+    private final CallbackJournal journal;
+    private final PaymentService paymentService;
+    private final TransactionTemplate transactionTemplate;
+    private final CallbackJournalProperties properties;
+    private final OrderLocks orderLocks; // null when ruc.payments.locks.enabled=false
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "callback-journal-drainer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CallbackJournalDrainer(CallbackJournal journal, PaymentService paymentService,
+                                  TransactionTemplate transactionTemplate, CallbackJournalProperties properties,
+                                  ObjectProvider<OrderLocks> orderLocks) {
+        this.journal = journal;
+        this.paymentService = paymentService;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.orderLocks = orderLocks.getIfAvailable();
+    }
+
+    /**
+     * Starts draining once the context (and the database schema) is ready; this also
+     * replays anything left over from before a crash or restart.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.scheduleWithFixedDelay(this::drainSafely, 0, properties.getDrainIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        drainSafely(); // best effort; whatever is left is replayed on the next start
+    }
+
+    /**
+     * Applies journaled callbacks until the journal is empty or a batch fails.
+     *
+     * @return Number of records applied or skipped
+     */
+    public synchronized int drain() throws Exception {
+        int drained = 0;
+        while (journal.hasPending()) {
+            List<JournalEntry> batch = journal.read(journal.checkpoint(), properties.getBatchSize());
+            if (batch.isEmpty()) {
+                break;
+            }
+            try {
+                applyBatch(batch);
+                journal.commit(batch.get(batch.size() - 1).next());
+                drained += batch.size();
+            } catch (RuntimeException batchFailure) {
+                logger.warn("Journal batch of {} callbacks failed, applying individually", batch.size(), batchFailure);
+                drained += applyIndividually(batch);
+            }
+        }
+        return drained;
+    }
+
+    private void applyBatch(List<JournalEntry> batch) {
+        Supplier<Void> inTransaction = () -> {
+            transactionTemplate.executeWithoutResult(status ->
+                    batch.forEach(entry -> paymentService.processCallback(entry.eppResponse())));
+            return null;
+        };
+        if (orderLocks == null) {
+            inTransaction.get();
+            return;
+        }
+        List<String> orderKeys = batch.stream().map(entry -> entry.eppResponse().getOrderKey()).toList();
+        orderLocks.withLocks(orderKeys, inTransaction);
+    }
+
+    private int applyIndividually(List<JournalEntry> batch) throws Exception {
+        int applied = 0;
+        for (JournalEntry entry : batch) {
+            EppResponse eppResponse = entry.eppResponse();
+            try {
+                paymentService.processCallback(eppResponse);
+            } catch (PaymentProcessingException e) {
+                if (isTransient(e)) {
+                    throw e; // database trouble or a busy order: keep the record and retry on the next tick
+                }
+                logger.error("Dropping journaled callback for orderKey: {} [{}]: {}",
+                        eppResponse.getOrderKey(), e.getErrorCode(), e.getMessage());
+            }
+            journal.commit(entry.next());
+            applied++;
+        }
+        return applied;
+    }
+
+    private static boolean isTransient(Throwable e) {
+        if (e instanceof PaymentProcessingException p && "ORDER_LOCK_TIMEOUT".equals(p.getErrorCode())) {
+            return true; // the order is busy on this or another node
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataAccessException || cause instanceof TransactionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void drainSafely() {
+        try {
+            int drained = drain();
+            if (drained > 0) {
+                logger.debug("Applied {} journaled callbacks", drained);
+            }
+        } catch (Exception e) {
+            logger.warn("Callback journal drain stopped, will retry: {}", e.getMessage());
+        }
+    }
+}
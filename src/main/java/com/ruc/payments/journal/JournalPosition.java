@@ -0,0 +1,13 @@
+package com.ruc.payments.journal;
+
+/**
+ * Position in the callback journal: a segment number and a byte offset within it.
+ */
+public record JournalPosition(long segment, long offset) implements Comparable<JournalPosition> {
+
+    @Override
+    public int compareTo(JournalPosition other) {
+        int bySegment = Long.compare(segment, other.segment);
+        return bySegment != 0 ? bySegment : Long.compare(offset, other.offset);
+    }
+}
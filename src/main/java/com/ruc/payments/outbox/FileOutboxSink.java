@@ -0,0 +1,57 @@
+package com.ruc.payments.outbox;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ruc.payments.codec.JsonCodecs;
+import com.ruc.payments.config.OutboxProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends events as JSON lines to {@code ruc.payments.outbox.file}, fsynced before
+ * {@link #publish} returns. A redelivered event appears in the file again with the same id.
+ */
+@Component
+@ConditionalOnExpression("${ruc.payments.outbox.enabled:false} and '${ruc.payments.outbox.sink:file}' == 'file'")
+public class FileOutboxSink implements OutboxSink {
+
+    private final FileChannel channel;
+    private final ObjectWriter writer;
+
+    public FileOutboxSink(OutboxProperties properties, JsonCodecs jsonCodecs) throws IOException {
+        Path file = Paths.get(properties.getFile()).toAbsolutePath();
+        Files.createDirectories(file.getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        this.writer = jsonCodecs.writer(OutboxEvent.class);
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 256);
+        for (OutboxEvent event : events) {
+            writer.writeValue(lines, event);
+            lines.write('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,33 @@
+package com.ruc.payments.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps published events in memory, for tests and local runs.
+ */
+@Component
+@ConditionalOnExpression("${ruc.payments.outbox.enabled:false} and '${ruc.payments.outbox.sink:file}' == 'memory'")
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEvent> events = new ArrayList<>();
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> batch) {
+        events.addAll(batch);
+    }
+
+    /**
+     * Everything published so far, in publish order, including redeliveries.
+     */
+    public synchronized List<OutboxEvent> events() {
+        return List.copyOf(events);
+    }
+
+    public synchronized void clear() {
+        events.clear();
+    }
+}
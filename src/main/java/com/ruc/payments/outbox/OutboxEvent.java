@@ -0,0 +1,25 @@
+package com.ruc.payments.outbox;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * One row of {@code epp_outbox}: a snapshot of the transaction at the moment the event
+ * was recorded. {@code id} increases in insert order, which can differ slightly from
+ * commit order, and is what consumers de-duplicate on, since delivery is at least once.
+ */
+public record OutboxEvent(
+        long id,
+        String eventType,
+        long transactionId,
+        String orderKey,
+        String applicationUniqueId,
+        String status,
+        BigDecimal amount,
+        String authCode,
+        String referenceNo,
+        OffsetDateTime createdAt) {
+
+    /** The transaction reached COM. Recorded once per transaction. */
+    public static final String PAYMENT_COMPLETED = "PAYMENT_COMPLETED";
+}
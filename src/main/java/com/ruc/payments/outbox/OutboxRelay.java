@@ -0,0 +1,231 @@
+package com.ruc.payments.outbox;
+
+import com.ruc.payments.cluster.OrderLeases;
+import com.ruc.payments.config.OutboxProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.sql.Types;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes {@code epp_outbox} events to the {@link OutboxSink}.
+ *
+ * <p>Each poll reads the events without a {@code published_at}, in id order, and stamps
+ * them only after {@link OutboxSink#publish} returns. A crash or a failing sink in between
+ * means the batch is offered again: delivery is at least once, and consumers de-duplicate
+ * on the event id.</p>
+ *
+ * <p>Identity values are handed out when a row is inserted, not when it commits, so an
+ * event can become visible after a higher id has been published. It is still unstamped
+ * and goes out on a later poll; only the order is lost. Events younger than
+ * {@code settleMs} are left for the next poll, which keeps that rare. Their age, like
+ * every timestamp the relay writes, is taken from the database's clock
+ * ({@code LOCALTIMESTAMP}), the clock that stamped {@code created_at}. The highest id
+ * handed to the sink is kept in {@code epp_outbox_relay} for monitoring only. Published
+ * events are deleted once published longer than {@code retentionMs} ago.</p>
+ *
+ * <p>In cluster mode only the node holding the {@code outbox-relay} lease publishes; the
+ * lease is renewed on every poll and passes to another node if this one stops.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "ruc.payments.outbox", name = "enabled", havingValue = "true")
+public class OutboxRelay implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String LEASE_KEY = "outbox-relay";
+
+    private static final String SELECT_SQL = """
+            SELECT id, event_type, transaction_id, order_key, application_unique_id, status, amount,
+                   auth_code, reference_no, created_at
+            FROM epp_outbox
+            WHERE published_at IS NULL
+              AND created_at <= LOCALTIMESTAMP - CAST(:settleMs AS NUMERIC(19)) * INTERVAL '0.001' SECOND
+            ORDER BY id
+            FETCH FIRST %d ROWS ONLY
+            """;
+
+    private static final String SELECT_MARK_SQL =
+            "SELECT last_event_id FROM epp_outbox_relay WHERE relay_name = :relayName";
+    private static final String INSERT_MARK_SQL =
+            "INSERT INTO epp_outbox_relay (relay_name, last_event_id, updated_at) VALUES (:relayName, 0, LOCALTIMESTAMP)";
+    private static final String UPDATE_MARK_SQL = """
+            UPDATE epp_outbox_relay SET last_event_id = :lastEventId, updated_at = LOCALTIMESTAMP
+            WHERE relay_name = :relayName
+            """;
+    private static final String MARK_PUBLISHED_SQL =
+            "UPDATE epp_outbox SET published_at = LOCALTIMESTAMP WHERE id = :id";
+    private static final String PURGE_SQL = """
+            DELETE FROM epp_outbox
+            WHERE published_at < LOCALTIMESTAMP - CAST(:retentionMs AS NUMERIC(19)) * INTERVAL '0.001' SECOND
+            """;
+
+    private static final RowMapper<OutboxEvent> ROW_MAPPER = (rs, rowNum) -> new OutboxEvent(
+            rs.getLong("id"),
+            rs.getString("event_type"),
+            rs.getLong("transaction_id"),
+            rs.getString("order_key"),
+            rs.getString("application_unique_id"),
+            rs.getString("status"),
+            rs.getBigDecimal("amount"),
+            rs.getString("auth_code"),
+            rs.getString("reference_no"),
+            rs.getTimestamp("created_at").toLocalDateTime().atZone(ZoneId.systemDefault()).toOffsetDateTime());
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final OutboxSink sink; // null when no sink bean matches ruc.payments.outbox.sink
+    private final OrderLeases leases; // null unless ruc.payments.cluster.enabled
+    private final OutboxProperties properties;
+    private final String selectSql;
+    private final AtomicLong highWaterMark = new AtomicLong(-1);
+    private final AtomicLong published = new AtomicLong();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OutboxRelay(NamedParameterJdbcTemplate jdbc, ObjectProvider<OutboxSink> sink,
+                       ObjectProvider<OrderLeases> leases, OutboxProperties properties) {
+        this.jdbc = jdbc;
+        this.sink = sink.getIfAvailable();
+        this.leases = leases.getIfAvailable();
+        this.properties = properties;
+        this.selectSql = SELECT_SQL.formatted(properties.getBatchSize());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (sink == null) {
+            logger.warn("Outbox enabled but no OutboxSink for sink '{}'; events are recorded, not published",
+                    properties.getSink());
+            return;
+        }
+        executor.scheduleWithFixedDelay(this::relaySafely, properties.getPollIntervalMs(),
+                properties.getPollIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        if (leases != null) {
+            leases.release(LEASE_KEY);
+        }
+    }
+
+    /**
+     * Publishes settled, unpublished events until none are left or the sink fails.
+     *
+     * @return Number of events published
+     */
+    public synchronized int relay() throws Exception {
+        if (sink == null || (leases != null && !leases.tryAcquire(LEASE_KEY))) {
+            return 0;
+        }
+        long mark = loadHighWaterMark();
+        int relayed = 0;
+        while (true) {
+            List<OutboxEvent> batch = jdbc.query(selectSql, new MapSqlParameterSource()
+                    .addValue("settleMs", properties.getSettleMs(), Types.BIGINT), ROW_MAPPER);
+            if (batch.isEmpty()) {
+                break;
+            }
+            sink.publish(batch);
+            markPublished(batch);
+            mark = Math.max(mark, batch.get(batch.size() - 1).id());
+            saveHighWaterMark(mark);
+            published.addAndGet(batch.size());
+            relayed += batch.size();
+            if (batch.size() < properties.getBatchSize()) {
+                break;
+            }
+        }
+        if (relayed > 0 && properties.getRetentionMs() > 0) {
+            jdbc.update(PURGE_SQL, new MapSqlParameterSource()
+                    .addValue("retentionMs", properties.getRetentionMs(), Types.BIGINT));
+        }
+        return relayed;
+    }
+
+    /**
+     * Highest event id handed to the sink, or -1 before the first poll.
+     */
+    public long highWaterMark() {
+        return highWaterMark.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("epp.outbox.published", published, AtomicLong::get)
+                .description("Outbox events handed to the sink, including redeliveries")
+                .register(registry);
+        Gauge.builder("epp.outbox.high.water.mark", highWaterMark, AtomicLong::get)
+                .description("Highest outbox event id handed to the sink")
+                .register(registry);
+    }
+
+    /**
+     * Read from the database on every poll rather than cached, so a relay taking over
+     * from another node continues where that one stopped.
+     */
+    private long loadHighWaterMark() {
+        MapSqlParameterSource params = new MapSqlParameterSource("relayName", properties.getRelayName());
+        List<Long> marks = jdbc.queryForList(SELECT_MARK_SQL, params, Long.class);
+        if (marks.isEmpty()) {
+            try {
+                jdbc.update(INSERT_MARK_SQL, params);
+            } catch (DuplicateKeyException e) {
+                return loadHighWaterMark();
+            }
+            marks = List.of(0L);
+        }
+        highWaterMark.set(marks.get(0));
+        return marks.get(0);
+    }
+
+    private void markPublished(List<OutboxEvent> batch) {
+        jdbc.batchUpdate(MARK_PUBLISHED_SQL, batch.stream()
+                .map(event -> new MapSqlParameterSource("id", event.id()))
+                .toArray(SqlParameterSource[]::new));
+    }
+
+    private void saveHighWaterMark(long mark) {
+        jdbc.update(UPDATE_MARK_SQL, new MapSqlParameterSource()
+                .addValue("relayName", properties.getRelayName())
+                .addValue("lastEventId", mark, Types.BIGINT));
+        highWaterMark.set(mark);
+    }
+
+    private void relaySafely() {
+        try {
+            int relayed = relay();
+            if (relayed > 0) {
+                logger.debug("Published {} outbox events, high-water mark {}", relayed, highWaterMark.get());
+            }
+        } catch (Exception e) {
+            logger.warn("Outbox relay stopped at event {}, will retry: {}", highWaterMark.get(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.ruc.payments.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of the events {@link OutboxRelay} reads from {@code epp_outbox}.
+ *
+ * <p>A batch counts as delivered once {@link #publish} returns; if it throws, the same
+ * events (and possibly more) are offered again on the next poll. Implementations should
+ * therefore be safe to call again with events they have already accepted.</p>
+ */
+public interface OutboxSink {
+
+    /**
+     * Delivers {@code events}, in id order within the batch. An event that committed late
+     * can arrive in a later batch than higher ids.
+     */
+    void publish(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,7 @@
+package com.ruc.payments.repo;
+
+import com.ruc.payments.entity.EppTransactionPayload;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface EppTransactionPayloadRepository extends JpaRepository<EppTransactionPayload, Long> {
+}
@@ -5,6 +5,6 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.Optional;
 
-public interface EppTransactionRepository extends JpaRepository<EppTransaction, Long> {
+public interface EppTransactionRepository extends JpaRepository<EppTransaction, Long>, EppTransactionRepositoryCustom {
     Optional<EppTransaction> findByOrderKeyAndApplicationUniqueId(String orderKey, String applicationUniqueId);
 }
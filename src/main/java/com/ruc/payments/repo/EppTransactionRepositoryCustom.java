@@ -0,0 +1,75 @@
+package com.ruc.payments.repo;
+
+import com.ruc.payments.entity.EppTransaction;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Native SQL extensions to {@link EppTransactionRepository}.
+ */
+public interface EppTransactionRepositoryCustom {
+
+    /**
+     * Outcome of {@link #upsert}: the row as read back, and whether the MERGE wrote it.
+     */
+    record UpsertResult(EppTransaction row, boolean applied) {
+    }
+
+    /**
+     * Inserts or updates the transaction for an order key / application unique ID pair
+     * with a single MERGE statement, plus a second one for the raw payload when present.
+     * Null values keep whatever is already stored. An existing row is only updated when
+     * {@code TransactionStatus} allows the move to the new status.
+     *
+     * <p>The returned entity is read back from the row after the merge and is not
+     * attached to the persistence context.</p>
+     *
+     * @return The resulting transaction row, and whether the MERGE's update count showed
+     *         it written; when the move was not allowed, the row as it was
+     */
+    UpsertResult upsert(EppTransactionUpsert upsert);
+
+    /**
+     * Runs the same MERGE for every upsert as JDBC batches, in order, on the current
+     * transaction's connection. Unlike {@link #upsert} a duplicate key is not retried;
+     * callers fall back to {@link #upsert} per row when the batch fails.
+     *
+     * @return For each upsert, in order, false if its status transition was rejected and
+     *         nothing was written for it
+     */
+    boolean[] upsertAll(List<EppTransactionUpsert> upserts);
+
+    /**
+     * Inserts or updates the raw payload row of an existing transaction.
+     * Null values keep whatever is already stored.
+     */
+    void savePayload(Long transactionId, String rawRequest, String rawResponse);
+
+    /**
+     * Reads the scalar columns of a transaction row without going through the persistence context.
+     *
+     * @return The transaction, or null if not found
+     */
+    EppTransaction readRow(String orderKey, String applicationUniqueId);
+
+    /**
+     * Reads the scalar columns of every transaction row for the given order keys, in as
+     * few {@code IN} queries as the database allows. Rows are not attached to the
+     * persistence context and come back in no particular order.
+     */
+    List<EppTransaction> readRows(Collection<String> orderKeys);
+
+    /**
+     * Order key, application unique ID, status and version of every transaction written
+     * after {@code since} by an instance other than {@code excludeWriter}. Only those four
+     * fields are set on the returned entities.
+     */
+    List<EppTransaction> readKeysUpdatedSince(LocalDateTime since, String excludeWriter);
+
+    /**
+     * The database's current time, on the clock that stamps {@code updated_at}.
+     */
+    LocalDateTime databaseTime();
+}
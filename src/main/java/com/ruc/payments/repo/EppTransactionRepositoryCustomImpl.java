@@ -0,0 +1,400 @@
+package com.ruc.payments.repo;
+
+import com.ruc.payments.codec.PayloadCodecs;
+import com.ruc.payments.config.ClusterProperties;
+import com.ruc.payments.config.OutboxProperties;
+import com.ruc.payments.entity.EppTransaction;
+import com.ruc.payments.entity.TransactionStatus;
+import com.ruc.payments.outbox.OutboxEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MERGE-based upsert for {@code epp_transaction} and its {@code epp_transaction_payload} row.
+ *
+ * <p>The statement runs through JDBC on the transaction-bound connection rather than the
+ * persistence context, so a duplicate key raised by a concurrent MERGE only fails that
+ * statement and can be retried without poisoning the surrounding transaction.
+ * A callback that lands before its start call inserts with the column's default amount
+ * of 0; the start call's MERGE then fills it in. The SQL is valid on both Oracle and H2.</p>
+ *
+ * <p>The MERGE only updates a row when {@code TransactionStatus} allows the move from its
+ * current status, and bumps its version when it does. A rejected write updates nothing,
+ * which shows as an update count of 0; its payload is not written either. The guard
+ * sits in {@code WHEN MATCHED AND ...} on H2 and in {@code UPDATE ... WHERE ...} on
+ * Oracle, the only form each accepts.</p>
+ *
+ * <p>Inserted ids come from {@code epp_transaction_seq} in the same pooled blocks the entity
+ * mapping uses. The sequence cannot be drawn from inside the MERGE's insert branch without
+ * breaking those blocks. A single upsert binds an id and gives it back to
+ * {@link PooledIdAllocator} when the MERGE updated instead; a batch first reads which of its
+ * keys already have a row and draws one id per new key only.</p>
+ *
+ * <p>Raw request/response JSON goes to the payload table with a second MERGE keyed by the
+ * transaction row, issued only when the upsert carries a payload. Payloads are bound
+ * already encoded by {@link PayloadCodecs}, exactly as the entity mapping stores them.</p>
+ *
+ * <p>With the outbox enabled, a write that leaves the row COM also records a
+ * {@link OutboxEvent#PAYMENT_COMPLETED} event in {@code epp_outbox}, on the same connection
+ * and so in the same transaction. The event is copied from the row by one INSERT ... SELECT
+ * that skips transactions which already have one, so replays of COM add nothing.</p>
+ *
+ * <p>{@code created_at} and {@code updated_at} come from the database's clock
+ * ({@code LOCALTIMESTAMP}), so the cluster change poll can compare them across nodes.
+ * In cluster mode every write also stamps {@code updated_by} with this node's ID, so the
+ * poll can tell other nodes' writes from its own.</p>
+ */
+public class EppTransactionRepositoryCustomImpl implements EppTransactionRepositoryCustom {
+
+    private static final Logger logger = LoggerFactory.getLogger(EppTransactionRepositoryCustomImpl.class);
+
+    /** Two sessions can both miss the ON clause and race to INSERT; the loser retries as an UPDATE. */
+    private static final int MAX_UPSERT_ATTEMPTS = 3;
+
+    private static final String APP_ID_EQUALS = "application_unique_id = :applicationUniqueId";
+    private static final String APP_ID_IS_NULL = "application_unique_id IS NULL";
+
+    /**
+     * Slots: the application unique ID predicate, then the H2 and the Oracle transition guard.
+     * The amount is cast because H2 types an unbound null as scale 0 and COALESCE then rounds.
+     */
+    private static final String MERGE_SQL = """
+            MERGE INTO epp_transaction t
+            USING (SELECT CAST(:orderKey AS VARCHAR(200)) AS order_key,
+                          CAST(:applicationUniqueId AS VARCHAR(200)) AS application_unique_id
+                   FROM dual) s
+            ON (t.order_key = s.order_key AND t.%1$s)
+            WHEN MATCHED%2$s THEN UPDATE SET
+                status = :status,
+                amount = COALESCE(CAST(:amount AS DECIMAL(15,2)), t.amount),
+                email = COALESCE(:email, t.email),
+                auth_code = COALESCE(:authCode, t.auth_code),
+                reference_no = COALESCE(:referenceNo, t.reference_no),
+                updated_at = LOCALTIMESTAMP,
+                updated_by = :updatedBy,
+                version = t.version + 1%3$s
+            WHEN NOT MATCHED THEN INSERT
+                (id, order_key, application_unique_id, status, amount, email,
+                 auth_code, reference_no, created_at, updated_at, updated_by, version)
+            VALUES
+                (:id, s.order_key, s.application_unique_id, :status, COALESCE(CAST(:amount AS DECIMAL(15,2)), 0), :email,
+                 :authCode, :referenceNo, LOCALTIMESTAMP, LOCALTIMESTAMP, :updatedBy, 0)
+            """;
+
+    /** TransactionStatus.canTransition(t.status, :status): COM is final, CAN/DEC reopen only as APP or COM. */
+    private static final String TRANSITION_ALLOWED =
+            "(t.status = 'APP' OR t.status = :status OR (t.status <> 'COM' AND :status IN ('APP', 'COM')))";
+
+    /** The %s slot takes the subquery selecting the owning transaction's id. */
+    private static final String PAYLOAD_MERGE_SQL = """
+            MERGE INTO epp_transaction_payload p
+            USING (%s) s
+            ON (p.transaction_id = s.id)
+            WHEN MATCHED THEN UPDATE SET
+                raw_request = COALESCE(:rawRequest, p.raw_request),
+                raw_response = COALESCE(:rawResponse, p.raw_response)
+            WHEN NOT MATCHED THEN INSERT
+                (transaction_id, raw_request, raw_response)
+            VALUES
+                (s.id, :rawRequest, :rawResponse)
+            """;
+
+    /** The %s slot takes the application unique ID predicate. */
+    private static final String OUTBOX_INSERT_SQL = """
+            INSERT INTO epp_outbox
+                (event_type, transaction_id, order_key, application_unique_id, status, amount,
+                 auth_code, reference_no, created_at)
+            SELECT :eventType, t.id, t.order_key, t.application_unique_id, t.status, t.amount,
+                   t.auth_code, t.reference_no, LOCALTIMESTAMP
+            FROM epp_transaction t
+            WHERE t.order_key = :orderKey AND t.%s AND t.status = :status
+              AND NOT EXISTS (SELECT 1 FROM epp_outbox o
+                              WHERE o.transaction_id = t.id AND o.event_type = :eventType)
+            """;
+
+    private static final String TRANSACTION_BY_KEY = "SELECT id FROM epp_transaction WHERE order_key = :orderKey AND %s";
+    private static final String TRANSACTION_BY_ID = "SELECT id FROM epp_transaction WHERE id = :transactionId";
+
+    private static final String SELECT_SQL = """
+            SELECT id, order_key, application_unique_id, status, amount, email,
+                   auth_code, reference_no, created_at, updated_at, version
+            FROM epp_transaction
+            WHERE order_key = :orderKey AND %s
+            """;
+
+    private static final String SELECT_BY_ORDER_KEYS_SQL = """
+            SELECT id, order_key, application_unique_id, status, amount, email,
+                   auth_code, reference_no, created_at, updated_at, version
+            FROM epp_transaction
+            WHERE order_key IN (:orderKeys)
+            """;
+
+    private static final String SELECT_KEYS_UPDATED_SINCE_SQL = """
+            SELECT order_key, application_unique_id, status, version
+            FROM epp_transaction
+            WHERE updated_at > :since
+              AND (updated_by IS NULL OR updated_by <> :excludeWriter)
+            """;
+
+    private static final String DATABASE_TIME_SQL = "SELECT LOCALTIMESTAMP FROM dual";
+
+    /** Oracle rejects IN lists longer than this (ORA-01795). */
+    private static final int MAX_IN_LIST = 1000;
+
+    private static final RowMapper<EppTransaction> ROW_MAPPER = (rs, rowNum) -> {
+        EppTransaction tx = new EppTransaction();
+        tx.setId(rs.getLong("id"));
+        tx.setOrderKey(rs.getString("order_key"));
+        tx.setApplicationUniqueId(rs.getString("application_unique_id"));
+        tx.setStatus(rs.getString("status"));
+        tx.setAmount(rs.getBigDecimal("amount"));
+        tx.setEmail(rs.getString("email"));
+        tx.setAuthCode(rs.getString("auth_code"));
+        tx.setReferenceNo(rs.getString("reference_no"));
+        tx.setCreatedAt(toOffsetDateTime(rs.getTimestamp("created_at")));
+        tx.setUpdatedAt(toOffsetDateTime(rs.getTimestamp("updated_at")));
+        tx.setVersion(rs.getLong("version"));
+        return tx;
+    };
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final PooledIdAllocator idAllocator;
+    private final PayloadCodecs payloadCodecs;
+    private final String matchedGuard;
+    private final String updateGuard;
+    private final boolean outbox;
+    private final String nodeId; // null unless ruc.payments.cluster.enabled
+
+    public EppTransactionRepositoryCustomImpl(NamedParameterJdbcTemplate jdbc, EntityManagerFactory emf,
+                                              PayloadCodecs payloadCodecs, OutboxProperties outboxProperties,
+                                              ClusterProperties clusterProperties) {
+        this.jdbc = jdbc;
+        this.payloadCodecs = payloadCodecs;
+        this.outbox = outboxProperties.isEnabled();
+        this.nodeId = clusterProperties.isEnabled() ? clusterProperties.resolveNodeId() : null;
+        Dialect dialect = emf.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        this.idAllocator = new PooledIdAllocator(jdbc.getJdbcTemplate(),
+                dialect.getSequenceSupport().getSequenceNextValString(EppTransaction.ID_SEQUENCE),
+                EppTransaction.ID_ALLOCATION_SIZE);
+        boolean h2 = dialect instanceof H2Dialect;
+        this.matchedGuard = h2 ? " AND " + TRANSITION_ALLOWED : "";
+        this.updateGuard = h2 ? "" : "\n    WHERE " + TRANSITION_ALLOWED;
+    }
+
+    @Override
+    public UpsertResult upsert(EppTransactionUpsert upsert) {
+        String appIdPredicate = appIdPredicate(upsert.applicationUniqueId());
+        long id = idAllocator.nextId();
+        MapSqlParameterSource params = toParams(upsert, id);
+
+        int merged = mergeWithRetry(mergeSql(appIdPredicate), params, upsert.orderKey());
+        if (merged > 0 && hasPayload(upsert)) {
+            mergeWithRetry(payloadMergeSql(appIdPredicate), params, upsert.orderKey());
+        }
+        if (merged > 0 && emitsEvent(upsert)) {
+            try {
+                jdbc.update(OUTBOX_INSERT_SQL.formatted(appIdPredicate), params);
+            } catch (DuplicateKeyException e) {
+                logger.debug("Completion event for {} already recorded by a concurrent write", upsert.orderKey());
+            }
+        }
+
+        EppTransaction row = jdbc.queryForObject(SELECT_SQL.formatted(appIdPredicate), params, ROW_MAPPER);
+        if (row.getId() != id) {
+            idAllocator.release(List.of(id));
+        }
+        return new UpsertResult(row, merged > 0);
+    }
+
+    @Override
+    public boolean[] upsertAll(List<EppTransactionUpsert> upserts) {
+
+        // The ON clause differs for a null application unique ID, so each shape is its own batch.
+        // Rows for the same key always share a shape, which keeps their relative order.
+        Map<RowKey, Long> ids = insertIds(upserts);
+        List<MapSqlParameterSource> params = new ArrayList<>(upserts.size());
+        Map<String, List<Integer>> batches = new LinkedHashMap<>();
+        for (int i = 0; i < upserts.size(); i++) {
+            params.add(toParams(upserts.get(i), ids.get(RowKey.of(upserts.get(i)))));
+            batches.computeIfAbsent(appIdPredicate(upserts.get(i).applicationUniqueId()), k -> new ArrayList<>()).add(i);
+        }
+
+        boolean[] applied = new boolean[upserts.size()];
+        Map<String, List<MapSqlParameterSource>> payloadBatches = new LinkedHashMap<>();
+        Map<String, List<MapSqlParameterSource>> eventBatches = new LinkedHashMap<>();
+        batches.forEach((appIdPredicate, rows) -> {
+            int[] counts = jdbc.batchUpdate(mergeSql(appIdPredicate),
+                    rows.stream().map(params::get).toArray(SqlParameterSource[]::new));
+            for (int k = 0; k < rows.size(); k++) {
+                int i = rows.get(k);
+                // SUCCESS_NO_INFO (-2) from drivers that do not report per-row counts means it ran
+                applied[i] = counts[k] != 0;
+                if (applied[i] && hasPayload(upserts.get(i))) {
+                    payloadBatches.computeIfAbsent(appIdPredicate, key -> new ArrayList<>()).add(params.get(i));
+                }
+                if (applied[i] && emitsEvent(upserts.get(i))) {
+                    eventBatches.computeIfAbsent(appIdPredicate, key -> new ArrayList<>()).add(params.get(i));
+                }
+            }
+        });
+        payloadBatches.forEach((appIdPredicate, rows) -> jdbc.batchUpdate(payloadMergeSql(appIdPredicate),
+                rows.toArray(new SqlParameterSource[0])));
+        // A duplicate key here means a concurrent write recorded the event; the batch fails and callers retry per row
+        eventBatches.forEach((appIdPredicate, rows) -> jdbc.batchUpdate(OUTBOX_INSERT_SQL.formatted(appIdPredicate),
+                rows.toArray(new SqlParameterSource[0])));
+        return applied;
+    }
+
+    @Override
+    public void savePayload(Long transactionId, String rawRequest, String rawResponse) {
+        if (rawRequest == null && rawResponse == null) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("transactionId", transactionId, Types.BIGINT)
+                .addValue("rawRequest", payloadCodecs.encode(rawRequest), Types.BLOB)
+                .addValue("rawResponse", payloadCodecs.encode(rawResponse), Types.BLOB);
+        mergeWithRetry(PAYLOAD_MERGE_SQL.formatted(TRANSACTION_BY_ID), params, transactionId);
+    }
+
+    @Override
+    public EppTransaction readRow(String orderKey, String applicationUniqueId) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("orderKey", orderKey, Types.VARCHAR)
+                .addValue("applicationUniqueId", applicationUniqueId, Types.VARCHAR);
+        List<EppTransaction> rows = jdbc.query(SELECT_SQL.formatted(appIdPredicate(applicationUniqueId)),
+                params, ROW_MAPPER);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    @Override
+    public List<EppTransaction> readRows(Collection<String> orderKeys) {
+        List<String> keys = new ArrayList<>(orderKeys);
+        List<EppTransaction> rows = new ArrayList<>(keys.size());
+        for (int from = 0; from < keys.size(); from += MAX_IN_LIST) {
+            List<String> chunk = keys.subList(from, Math.min(from + MAX_IN_LIST, keys.size()));
+            rows.addAll(jdbc.query(SELECT_BY_ORDER_KEYS_SQL,
+                    new MapSqlParameterSource("orderKeys", chunk), ROW_MAPPER));
+        }
+        return rows;
+    }
+
+    @Override
+    public List<EppTransaction> readKeysUpdatedSince(LocalDateTime since, String excludeWriter) {
+        return jdbc.query(SELECT_KEYS_UPDATED_SINCE_SQL,
+                new MapSqlParameterSource()
+                        .addValue("since", Timestamp.valueOf(since), Types.TIMESTAMP)
+                        .addValue("excludeWriter", excludeWriter, Types.VARCHAR),
+                (rs, rowNum) -> {
+                    EppTransaction tx = new EppTransaction();
+                    tx.setOrderKey(rs.getString("order_key"));
+                    tx.setApplicationUniqueId(rs.getString("application_unique_id"));
+                    tx.setStatus(rs.getString("status"));
+                    tx.setVersion(rs.getLong("version"));
+                    return tx;
+                });
+    }
+
+    @Override
+    public LocalDateTime databaseTime() {
+        return jdbc.getJdbcTemplate().queryForObject(DATABASE_TIME_SQL, Timestamp.class).toLocalDateTime();
+    }
+
+    private int mergeWithRetry(String sql, SqlParameterSource params, Object key) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return jdbc.update(sql, params);
+            } catch (DuplicateKeyException e) {
+                if (attempt >= MAX_UPSERT_ATTEMPTS) {
+                    throw e;
+                }
+                logger.debug("Concurrent insert for {}, retrying merge (attempt {})", key, attempt + 1);
+            }
+        }
+    }
+
+    private String mergeSql(String appIdPredicate) {
+        return MERGE_SQL.formatted(appIdPredicate, matchedGuard, updateGuard);
+    }
+
+    private static String payloadMergeSql(String appIdPredicate) {
+        return PAYLOAD_MERGE_SQL.formatted(TRANSACTION_BY_KEY.formatted(appIdPredicate));
+    }
+
+    private boolean emitsEvent(EppTransactionUpsert upsert) {
+        return outbox && TransactionStatus.COMPLETED.equals(upsert.status());
+    }
+
+    private static boolean hasPayload(EppTransactionUpsert upsert) {
+        return upsert.rawRequest() != null || upsert.rawResponse() != null;
+    }
+
+    private static String appIdPredicate(String applicationUniqueId) {
+        return applicationUniqueId != null ? APP_ID_EQUALS : APP_ID_IS_NULL;
+    }
+
+    /**
+     * The id to bind for each key of a batch: the existing row's, which the MERGE will not
+     * use, or a newly drawn one shared by every upsert of a key that has no row yet. A key
+     * inserted concurrently after the read leaves its drawn id unused.
+     */
+    private Map<RowKey, Long> insertIds(List<EppTransactionUpsert> upserts) {
+        Map<RowKey, Long> ids = new HashMap<>();
+        for (EppTransaction row : readRows(upserts.stream().map(EppTransactionUpsert::orderKey).distinct().toList())) {
+            ids.put(new RowKey(row.getOrderKey(), row.getApplicationUniqueId()), row.getId());
+        }
+        for (EppTransactionUpsert upsert : upserts) {
+            ids.computeIfAbsent(RowKey.of(upsert), key -> idAllocator.nextId());
+        }
+        return ids;
+    }
+
+    private MapSqlParameterSource toParams(EppTransactionUpsert upsert, long id) {
+        return new MapSqlParameterSource()
+                .addValue("id", id, Types.BIGINT)
+                .addValue("orderKey", upsert.orderKey(), Types.VARCHAR)
+                .addValue("applicationUniqueId", upsert.applicationUniqueId(), Types.VARCHAR)
+                .addValue("status", upsert.status(), Types.VARCHAR)
+                .addValue("amount", upsert.amount(), Types.DECIMAL)
+                .addValue("email", upsert.email(), Types.VARCHAR)
+                .addValue("rawRequest", payloadCodecs.encode(upsert.rawRequest()), Types.BLOB)
+                .addValue("rawResponse", payloadCodecs.encode(upsert.rawResponse()), Types.BLOB)
+                .addValue("authCode", upsert.authCode(), Types.VARCHAR)
+                .addValue("referenceNo", upsert.referenceNo(), Types.VARCHAR)
+                .addValue("updatedBy", nodeId, Types.VARCHAR)
+                .addValue("eventType", OutboxEvent.PAYMENT_COMPLETED, Types.VARCHAR);
+    }
+
+    private static OffsetDateTime toOffsetDateTime(Timestamp timestamp) {
+        return timestamp != null
+                ? timestamp.toLocalDateTime().atZone(ZoneId.systemDefault()).toOffsetDateTime()
+                : null;
+    }
+
+    private record RowKey(String orderKey, String applicationUniqueId) {
+        static RowKey of(EppTransactionUpsert upsert) {
+            return new RowKey(upsert.orderKey(), upsert.applicationUniqueId());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ruc.payments.repo;
+
+import java.math.BigDecimal;
+
+/**
+ * Values for one MERGE into {@code epp_transaction}. Null fields keep the stored value.
+ */
+public record EppTransactionUpsert(
+        String orderKey,
+        String applicationUniqueId,
+        String status,
+        BigDecimal amount,
+        String email,
+        String rawRequest,
+        String rawResponse,
+        String authCode,
+        String referenceNo) {
+}
@@ -0,0 +1,76 @@
+package com.ruc.payments.repo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out ids from a database sequence using the same block semantics as Hibernate's
+ * pooled optimizer: each sequence value {@code hi} reserves {@code (hi - allocationSize, hi]}.
+ *
+ * <p>The JDBC upsert path and the entity mapping draw from the same sequence, so neither can
+ * produce an id the other has already reserved, and only one in {@code allocationSize} ids
+ * costs a round trip. Refills hold a {@link ReentrantLock} rather than a monitor, so a
+ * virtual thread blocked on that round trip does not pin its carrier thread.</p>
+ *
+ * <p>A MERGE needs its id bound before it knows whether it will insert, so an id that ended
+ * up unused is {@linkplain #release released} and handed out again before new ones.
+ * Updates, the common case for callbacks, therefore leave no gaps in the sequence; only
+ * ids bound to a write that rolled back, or still held when the application stops, are lost.</p>
+ */
+class PooledIdAllocator {
+
+    private final JdbcTemplate jdbc;
+    private final String nextValueSql;
+    private final int allocationSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<Long> released = new ArrayDeque<>();
+
+    private long next;
+    private long hi;
+
+    PooledIdAllocator(JdbcTemplate jdbc, String nextValueSql, int allocationSize) {
+        this.jdbc = jdbc;
+        this.nextValueSql = nextValueSql;
+        this.allocationSize = allocationSize;
+    }
+
+    long nextId() {
+        lock.lock();
+        try {
+            if (!released.isEmpty()) {
+                return released.pop();
+            }
+            if (next == 0 || next > hi) {
+                Long value = jdbc.queryForObject(nextValueSql, Long.class);
+                if (value == null || value < allocationSize) {
+                    throw new IllegalStateException("Sequence value " + value
+                            + " is below the allocation size " + allocationSize);
+                }
+                hi = value;
+                next = value - allocationSize + 1;
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns ids that were handed out but not inserted, so they are used again.
+     */
+    void release(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            released.addAll(ids);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
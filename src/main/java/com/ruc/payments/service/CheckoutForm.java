@@ -0,0 +1,68 @@
+package com.ruc.payments.service;
+
+import com.ruc.payments.util.HtmlEscaper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A hosted checkout form bound to its SaleDetails payload but not yet rendered.
+ *
+ * Obtained from {@link CheckoutFormTemplate#bind(String)}, which fixes the gateway URL at
+ * that point, so {@link #contentLength()} always matches what {@link #writeTo} writes.
+ * The form can be rendered to a String or written as UTF-8 straight to a response stream.
+ */
+public final class CheckoutForm {
+
+    private final String prefix;
+    private final byte[] prefixBytes;
+    private final String suffix;
+    private final byte[] suffixBytes;
+    private final String saleDetailJson;
+    private long contentLength = -1;
+
+    CheckoutForm(String prefix, byte[] prefixBytes, String suffix, byte[] suffixBytes, String saleDetailJson) {
+        this.prefix = prefix;
+        this.prefixBytes = prefixBytes;
+        this.suffix = suffix;
+        this.suffixBytes = suffixBytes;
+        this.saleDetailJson = saleDetailJson;
+    }
+
+    /**
+     * The form as a String, built in a buffer sized exactly for it.
+     */
+    public String render() {
+        StringBuilder sb = new StringBuilder(prefix.length()
+                + HtmlEscaper.escapedLength(saleDetailJson) + suffix.length());
+        sb.append(prefix);
+        HtmlEscaper.appendEscaped(sb, saleDetailJson);
+        sb.append(suffix);
+        return sb.toString();
+    }
+
+    /**
+     * Number of bytes {@link #writeTo} writes, for {@code Content-Length}.
+     */
+    public long contentLength() {
+        if (contentLength < 0) {
+            contentLength = prefixBytes.length + HtmlEscaper.escapedUtf8Length(saleDetailJson) + suffixBytes.length;
+        }
+        return contentLength;
+    }
+
+    /**
+     * Writes the form as UTF-8 to {@code out} without building it as a String.
+     * The stream is not flushed or closed.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(prefixBytes);
+        HtmlEscaper.writeEscapedUtf8(out, saleDetailJson);
+        out.write(suffixBytes);
+    }
+
+    @Override
+    public String toString() {
+        return "CheckoutForm[" + contentLength() + " bytes]";
+    }
+}
@@ -0,0 +1,104 @@
+package com.ruc.payments.service;
+
+import com.ruc.payments.config.EppProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Auto-submitting EPP hosted checkout form, compiled once per gateway URL.
+ *
+ * Everything around the SaleDetails payload depends only on
+ * {@link EppProperties#getPaymentGatewayIndexUrl()}, so the markup before and after the
+ * payload is rendered once, as text and as UTF-8 bytes, and reused until the URL changes.
+ * Per request only the payload is HTML-escaped, either into a buffer sized exactly for
+ * the form or straight onto an output stream.
+ */
+@Component
+public class CheckoutFormTemplate {
+
+    // Rahul's JavaScript form submission markup, split around the action URL and payload
+    private static final String FORM_OPEN = "<form id='__PostForm' name='__PostForm' action='";
+    private static final String FORM_INPUT_OPEN = "' method='POST'>"
+            + "<input type='hidden' name='saleDetail' value='";
+    private static final String FORM_CLOSE = "'/>"
+            + "</form>"
+            + "<script language='javascript'>var v__PostForm=document.__PostForm;v__PostForm.submit();</script>";
+    private static final byte[] FORM_CLOSE_BYTES = FORM_CLOSE.getBytes(StandardCharsets.UTF_8);
+
+    private final EppProperties eppProperties;
+    private volatile Compiled compiled;
+
+    public CheckoutFormTemplate(EppProperties eppProperties) {
+        this.eppProperties = eppProperties;
+    }
+
+    /**
+     * Binds an already serialized SaleDetails payload to the form for the current gateway URL.
+     *
+     * @param saleDetailJson SaleDetails JSON, HTML-escaped when the form is rendered or written
+     * @return The unrendered form
+     */
+    public CheckoutForm bind(String saleDetailJson) {
+        Compiled form = compiled();
+        return new CheckoutForm(form.prefix, form.prefixBytes, FORM_CLOSE, FORM_CLOSE_BYTES, saleDetailJson);
+    }
+
+    /**
+     * Renders the form around an already serialized SaleDetails payload.
+     *
+     * @param saleDetailJson SaleDetails JSON, HTML-escaped while it is appended
+     * @return HTML form as String
+     */
+    public String render(String saleDetailJson) {
+        return bind(saleDetailJson).render();
+    }
+
+    /**
+     * Number of bytes {@link #writeTo} writes for this payload, for {@code Content-Length}.
+     */
+    public long contentLength(String saleDetailJson) {
+        return bind(saleDetailJson).contentLength();
+    }
+
+    /**
+     * Writes the form as UTF-8 straight to {@code out}, without building it as a String.
+     * The bytes are those of {@link #render} encoded as UTF-8. The stream is not flushed.
+     */
+    public void writeTo(OutputStream out, String saleDetailJson) throws IOException {
+        bind(saleDetailJson).writeTo(out);
+    }
+
+    /**
+     * The compiled prefix for the current gateway URL. The URL is read on every call, so a
+     * changed property is picked up on the next request.
+     */
+    private Compiled compiled() {
+        String actionUrl = eppProperties.getPaymentGatewayIndexUrl();
+        Compiled form = compiled;
+        if (form == null || !form.matches(actionUrl)) {
+            form = new Compiled(actionUrl);
+            compiled = form;
+        }
+        return form;
+    }
+
+    private static final class Compiled {
+        final String actionUrl;
+        final String prefix;
+        final byte[] prefixBytes;
+
+        Compiled(String actionUrl) {
+            this.actionUrl = actionUrl;
+            // Appended as-is, as it always has been; the URL comes from our own configuration
+            this.prefix = FORM_OPEN + actionUrl + FORM_INPUT_OPEN;
+            this.prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        }
+
+        boolean matches(String url) {
+            return url == actionUrl || (url != null && url.equals(actionUrl));
+        }
+    }
+}
@@ -1,13 +1,46 @@
 package com.ruc.payments.service;
 
 import com.ruc.payments.dto.ApplicationResponse;
+import com.ruc.payments.dto.BulkCallbackResult;
+import com.ruc.payments.dto.BulkPaymentResult;
 import com.ruc.payments.dto.EppResponse;
 import com.ruc.payments.dto.SaleDetails;
 
+import java.util.List;
+
 /**
  * EPP Payment Service Interface
  */
 public interface PaymentService {
     String initiatePayment(SaleDetails saleDetails);
+
+    /**
+     * Same as {@link #initiatePayment} but returns the checkout form unrendered, so it can
+     * be written straight to the response once the initial transaction has committed.
+     */
+    CheckoutForm initiateCheckout(SaleDetails saleDetails);
+
+    /**
+     * Starts many payments at once. Every order is validated on its own, the accepted
+     * ones are persisted with status APP in one batched commit, and each gets its own
+     * result, in request order, with the checkout form or the error that stopped it.
+     */
+    List<BulkPaymentResult> initiatePayments(List<SaleDetails> orders);
+
     ApplicationResponse processCallback(EppResponse eppResponse);
+
+    /**
+     * Applies a batch of EPP results at once, e.g. a reconciliation replay after an outage.
+     * Records for the same order are folded into the last one, the affected transactions
+     * are pre-loaded with one query, and only records that change something are written,
+     * in one batched commit. Each record gets its own result, in request order.
+     */
+    List<BulkCallbackResult> processCallbacks(List<EppResponse> callbacks);
+
+    /**
+     * Accepts an OnEPPResult callback. When the callback journal is enabled the callback is
+     * validated, durably journaled and acknowledged without touching the database; it is
+     * applied later by the journal drainer. Otherwise it is processed synchronously.
+     */
+    ApplicationResponse acceptCallback(EppResponse eppResponse);
 }
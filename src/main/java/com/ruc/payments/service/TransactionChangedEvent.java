@@ -0,0 +1,9 @@
+package com.ruc.payments.service;
+
+/**
+ * Published when a write to a transaction has been made, by this node or, in cluster mode,
+ * found to have been made by another. Listeners that must only see committed writes use
+ * {@code @TransactionalEventListener}. {@code status} is the status the write left the row in.
+ */
+public record TransactionChangedEvent(String orderKey, String applicationUniqueId, String status) {
+}
@@ -1,8 +1,11 @@
 package com.ruc.payments.service;
 
 import com.ruc.payments.entity.EppTransaction;
+import com.ruc.payments.repo.EppTransactionUpsert;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Service interface for transaction management operations.
@@ -25,6 +28,8 @@ public interface TransactionService {
      * @param authCode The authorization code
      * @param referenceNo The reference number
      * @return The created or updated transaction
+     * @throws com.ruc.payments.exception.StatusTransitionException If the transaction's
+     *         current status does not allow the new one; nothing is written
      */
     EppTransaction createOrUpdateTransaction(
             String orderKey,
@@ -38,6 +43,16 @@ public interface TransactionService {
             String referenceNo
     );
     
+    /**
+     * Creates or updates several transactions as JDBC batches in one transaction.
+     * All of them are written or, on failure, none; the caller decides how to retry.
+     * An upsert whose status transition is not allowed is skipped without failing the rest.
+     * 
+     * @param upserts The transactions to write, in order
+     * @return For each upsert, in order, false if its status transition was rejected
+     */
+    boolean[] createOrUpdateTransactions(List<EppTransactionUpsert> upserts);
+    
     /**
      * Finds a transaction by order key and application unique ID.
      * 
@@ -47,6 +62,15 @@ public interface TransactionService {
      */
     EppTransaction findTransaction(String orderKey, String applicationUniqueId);
     
+    /**
+     * Reads every transaction for the given order keys with as few queries as possible,
+     * bypassing the lookup cache. Used to pre-load rows for bulk updates.
+     * 
+     * @param orderKeys The order keys
+     * @return The transactions found, in no particular order
+     */
+    List<EppTransaction> findTransactions(Collection<String> orderKeys);
+    
     /**
      * Finds a transaction by ID.
      * 
@@ -0,0 +1,149 @@
+package com.ruc.payments.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.ruc.payments.config.CallbackIdempotencyProperties;
+import com.ruc.payments.dto.ApplicationResponse;
+import com.ruc.payments.service.TransactionChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-evicting cache of OnEPPResult responses keyed by order key and application
+ * unique ID, each held with the status it answered, so a callback EPP retries after a
+ * timeout gets the response the first attempt computed without being processed again.
+ *
+ * <p>Each entry is a future for the response. The first caller for a key installs it and
+ * runs the processing; concurrent duplicates wait on the same future, so only one of them
+ * writes to the database. A failed attempt is removed again, handing its error to the
+ * callers already waiting, and the next retry processes the callback afresh.</p>
+ *
+ * <p>Only the latest status is kept per order. Once a write stores a different status for
+ * it (a new payment attempt, say), the entry is dropped, so a later callback with the old
+ * status is processed against the row instead of being answered from the earlier attempt.</p>
+ *
+ * <p>Responses are copied in and out, because callers adjust the status they send back.
+ * Hit, miss and eviction counts are published as the {@code eppCallbackIdempotency}
+ * cache metrics.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "ruc.payments.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CallbackIdempotencyCache implements MeterBinder {
+
+    private record Key(String orderKey, String applicationUniqueId) {
+    }
+
+    private record Entry(String status, CompletableFuture<ApplicationResponse> response) {
+    }
+
+    // Hits and misses are counted here, since an entry for another status is a miss
+    private final ConcurrentStatsCounter statsCounter = new ConcurrentStatsCounter();
+    private final Cache<Key, Entry> cache;
+
+    public CallbackIdempotencyCache(CallbackIdempotencyProperties properties) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(Duration.ofMillis(properties.getTtlMs()))
+                .recordStats(() -> statsCounter)
+                .build();
+    }
+
+    /**
+     * Returns the response for this callback, running {@code processor} only if no earlier
+     * or concurrent call for the same key has produced (or is producing) one.
+     *
+     * @return A private copy of the response
+     */
+    public ApplicationResponse get(String orderKey, String applicationUniqueId, String status,
+                                   Supplier<ApplicationResponse> processor) {
+        Key key = new Key(orderKey, applicationUniqueId);
+        Entry mine = new Entry(status, new CompletableFuture<>());
+        Entry current = cache.asMap().compute(key,
+                (k, existing) -> existing != null && existing.status().equals(status) ? existing : mine);
+        if (current == mine) {
+            statsCounter.recordMisses(1);
+            return process(key, mine, processor);
+        }
+        statsCounter.recordHits(1);
+        return copyOf(await(current.response()));
+    }
+
+    /**
+     * Drops the order's entry once a write has committed a status other than the cached
+     * one. Writes of the cached status, including the one its own processing made, keep it.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        cache.asMap().computeIfPresent(new Key(event.orderKey(), event.applicationUniqueId()),
+                (k, existing) -> existing.status().equals(event.status()) ? existing : null);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "eppCallbackIdempotency");
+    }
+
+    /**
+     * Hit, miss and eviction counts since startup. Duplicates that arrive while the first
+     * call is still processing count as hits.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private ApplicationResponse process(Key key, Entry entry, Supplier<ApplicationResponse> processor) {
+        try {
+            ApplicationResponse response = processor.get();
+            entry.response().complete(copyOf(response));
+            return response;
+        } catch (RuntimeException | Error e) {
+            cache.asMap().remove(key, entry);
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for the call that is processing this callback, surfacing its failure if it had one.
+     */
+    private static ApplicationResponse await(CompletableFuture<ApplicationResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static ApplicationResponse copyOf(ApplicationResponse source) {
+        if (source == null) {
+            return null;
+        }
+        ApplicationResponse copy = new ApplicationResponse();
+        copy.setOrderKey(source.getOrderKey());
+        copy.setApplicationUniqueId(source.getApplicationUniqueId());
+        copy.setStatus(source.getStatus());
+        copy.setErrorMessage(source.getErrorMessage());
+        copy.setHeaderMessage(source.getHeaderMessage());
+        copy.setHtmlMarkup(source.getHtmlMarkup());
+        copy.setMessage(source.getMessage());
+        return copy;
+    }
+}
@@ -0,0 +1,189 @@
+package com.ruc.payments.service.impl;
+
+import com.ruc.payments.cluster.OrderLeases;
+import com.ruc.payments.config.OrderLockProperties;
+import com.ruc.payments.exception.PaymentProcessingException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped locks keyed by order key, so writes for the same order run one at a time in
+ * arrival order while writes for different orders run in parallel.
+ *
+ * <p>The upsert already keeps concurrent writers from inserting the same order twice; this
+ * keeps a double-clicked start and an EPP callback for the same order from interleaving,
+ * so the last one to arrive is the last one applied. Orders share a lock only when their
+ * hashes land on the same stripe. Locks are {@link ReentrantLock}s rather than monitors
+ * so a waiting virtual thread does not pin its carrier.</p>
+ *
+ * <p>Locking several orders takes their stripes in ascending order, and a single-order
+ * caller only ever holds one, so the two cannot deadlock. A caller that cannot get its
+ * stripe within {@code ruc.payments.locks.timeoutMs} fails with {@code ORDER_LOCK_TIMEOUT}.</p>
+ *
+ * <p>In cluster mode each stripe is also backed by an {@link OrderLeases} row, taken after
+ * the local lock and given up before it, so the same order is written by one instance at
+ * a time. Stripes are taken in the same order on every node, which keeps the cluster free
+ * of deadlocks too, provided all nodes run with the same stripe count. The lease wait
+ * has its own {@code timeoutMs}, and a lease that cannot be taken because the database
+ * is unreachable fails the same way. Callers take the locks before opening a
+ * transaction, so a lease never needs a second connection while one is held.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "ruc.payments.locks", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OrderLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutNanos;
+    private final OrderLeases leases; // null unless ruc.payments.cluster.enabled
+
+    public OrderLocks(OrderLockProperties properties) {
+        this(properties, (OrderLeases) null);
+    }
+
+    @Autowired
+    public OrderLocks(OrderLockProperties properties, ObjectProvider<OrderLeases> leases) {
+        this(properties, leases.getIfAvailable());
+    }
+
+    private OrderLocks(OrderLockProperties properties, OrderLeases leases) {
+        int count = properties.getStripes() <= 1 ? 1 : Integer.highestOneBit((properties.getStripes() - 1) << 1);
+        this.stripes = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = count - 1;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(properties.getTimeoutMs());
+        this.leases = leases;
+    }
+
+    /**
+     * Runs {@code action} holding the lock for {@code orderKey}.
+     */
+    public <T> T withLock(String orderKey, Supplier<T> action) {
+        int stripe = stripeOf(orderKey);
+        acquire(stripe, orderKey);
+        try {
+            return action.get();
+        } finally {
+            release(stripe);
+        }
+    }
+
+    /**
+     * Runs {@code action} holding the locks for all of {@code orderKeys}.
+     */
+    public <T> T withLocks(Collection<String> orderKeys, Supplier<T> action) {
+        boolean[] needed = new boolean[stripes.length];
+        for (String orderKey : orderKeys) {
+            needed[stripeOf(orderKey)] = true;
+        }
+        int held = 0;
+        try {
+            for (; held < stripes.length; held++) {
+                if (needed[held]) {
+                    acquire(held, orderKeys.size() + " orders");
+                }
+            }
+            return action.get();
+        } finally {
+            for (int i = held - 1; i >= 0; i--) {
+                if (needed[i]) {
+                    release(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Index of the stripe guarding {@code orderKey}.
+     */
+    public int stripeOf(String orderKey) {
+        int h = orderKey != null ? orderKey.hashCode() : 0;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Takes the stripe's local lock and, for the outermost hold in cluster mode, its lease.
+     */
+    private void acquire(int stripe, String what) {
+        ReentrantLock lock = stripes[stripe];
+        try {
+            if (!lock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new PaymentProcessingException("ORDER_LOCK_TIMEOUT",
+                    "Timed out waiting for another request on the same order (" + what + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentProcessingException("ORDER_LOCK_TIMEOUT",
+                "Interrupted waiting for another request on the same order (" + what + ")", e);
+        }
+        if (leases != null && lock.getHoldCount() == 1) {
+            try {
+                lease(stripe, what);
+            } catch (RuntimeException e) {
+                lock.unlock();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Waits for another node to give up the stripe's lease, backing off from 1 to 50 ms.
+     */
+    private void lease(int stripe, String what) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        long backoffNanos = TimeUnit.MILLISECONDS.toNanos(1);
+        while (!tryLease(stripe, what)) {
+            if (System.nanoTime() + backoffNanos > deadline) {
+                throw new PaymentProcessingException("ORDER_LOCK_TIMEOUT",
+                    "Timed out waiting for another instance writing the same order (" + what + ")");
+            }
+            LockSupport.parkNanos(backoffNanos);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new PaymentProcessingException("ORDER_LOCK_TIMEOUT",
+                    "Interrupted waiting for another instance writing the same order (" + what + ")");
+            }
+            backoffNanos = Math.min(backoffNanos * 2, TimeUnit.MILLISECONDS.toNanos(50));
+        }
+    }
+
+    private boolean tryLease(int stripe, String what) {
+        try {
+            return leases.tryAcquire(leaseKey(stripe));
+        } catch (DataAccessException | TransactionException e) {
+            throw new PaymentProcessingException("ORDER_LOCK_TIMEOUT",
+                "Could not take the cluster lease for the order (" + what + ")", e);
+        }
+    }
+
+    private void release(int stripe) {
+        ReentrantLock lock = stripes[stripe];
+        try {
+            if (leases != null && lock.getHoldCount() == 1) {
+                leases.release(leaseKey(stripe));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String leaseKey(int stripe) {
+        return "order-stripe-" + stripe;
+    }
+}
@@ -1,21 +1,54 @@
 package com.ruc.payments.service.impl;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruc.payments.codec.JsonCodecs;
+import com.ruc.payments.config.BulkPaymentProperties;
+import com.ruc.payments.config.ClusterProperties;
 import com.ruc.payments.config.EppProperties;
 import com.ruc.payments.dto.ApplicationResponse;
+import com.ruc.payments.dto.BulkCallbackResult;
+import com.ruc.payments.dto.BulkPaymentResult;
 import com.ruc.payments.dto.EppResponse;
 import com.ruc.payments.dto.SaleDetails;
 import com.ruc.payments.entity.EppTransaction;
+import com.ruc.payments.entity.TransactionStatus;
 import com.ruc.payments.exception.PaymentProcessingException;
+import com.ruc.payments.exception.StatusTransitionException;
+import com.ruc.payments.journal.CallbackJournal;
+import com.ruc.payments.metrics.PaymentMetrics;
+import com.ruc.payments.metrics.PaymentMetrics.Operation;
+import com.ruc.payments.metrics.PaymentMetrics.Stage;
+import com.ruc.payments.repo.EppTransactionUpsert;
+import com.ruc.payments.service.CheckoutForm;
 import com.ruc.payments.service.EppClient;
 import com.ruc.payments.service.PaymentService;
 import com.ruc.payments.service.TransactionService;
 import com.ruc.payments.util.ModelMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 @Transactional
@@ -25,72 +58,350 @@ public class PaymentServiceImpl implements PaymentService {
     
     private final EppClient eppClient;
     private final TransactionService transactionService;
-    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonCodecs jsonCodecs;
     private final ModelMapper modelMapper;
     private final EppProperties eppProperties;
+    private final CallbackJournal callbackJournal; // null unless ruc.payments.journal.enabled
+    private final PaymentMetrics metrics;
+    private final Validator validator;
+    private final BulkPaymentProperties bulkProperties;
+    private final CallbackIdempotencyCache idempotencyCache; // null when ruc.payments.idempotency.enabled=false
+    private final OrderLocks orderLocks; // null when ruc.payments.locks.enabled=false
+    private final boolean clustered;
     
     public PaymentServiceImpl(
             EppClient eppClient,
             TransactionService transactionService,
-            ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate,
+            JsonCodecs jsonCodecs,
             ModelMapper modelMapper,
-            EppProperties eppProperties) {
+            EppProperties eppProperties,
+            ObjectProvider<CallbackJournal> callbackJournal,
+            PaymentMetrics metrics,
+            Validator validator,
+            ObjectProvider<BulkPaymentProperties> bulkProperties,
+            ObjectProvider<CallbackIdempotencyCache> idempotencyCache,
+            ObjectProvider<OrderLocks> orderLocks,
+            ObjectProvider<ClusterProperties> clusterProperties) {
         this.eppClient = eppClient;
         this.transactionService = transactionService;
-        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.jsonCodecs = jsonCodecs;
         this.modelMapper = modelMapper;
         this.eppProperties = eppProperties;
+        this.callbackJournal = callbackJournal.getIfAvailable();
+        this.metrics = metrics;
+        this.validator = validator;
+        this.bulkProperties = bulkProperties.getIfAvailable(BulkPaymentProperties::new);
+        this.idempotencyCache = idempotencyCache.getIfAvailable();
+        this.orderLocks = orderLocks.getIfAvailable();
+        this.clustered = clusterProperties.getIfAvailable(ClusterProperties::new).isEnabled();
     }
     
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public String initiatePayment(SaleDetails saleDetails) {
+        return initiate(saleDetails, eppClient::buildHostedCheckoutForm);
+    }
+    
+    /**
+     * The FORM stage only covers binding the payload here; rendering happens when the
+     * response is written.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CheckoutForm initiateCheckout(SaleDetails saleDetails) {
+        return initiate(saleDetails, eppClient::checkoutForm);
+    }
+    
+    /**
+     * Runs outside a transaction so the initial write commits inside the order lock; a
+     * callback for the same order waiting on the lock then finds the row.
+     */
+    private <T> T initiate(SaleDetails saleDetails, Function<String, T> checkoutForm) {
         logger.info("Initiating payment: orderKey={}", saleDetails.getOrderKey());
         
-        validateEppEnabled();
-        validatePaymentRequest(saleDetails);
-        prepareSaleDetails(saleDetails);
-        
         try {
-            String rawRequest = objectMapper.writeValueAsString(saleDetails);
-            handleInitialTransaction(saleDetails, rawRequest);
-            return eppClient.buildHostedCheckoutForm(saleDetails);
-        } catch (JsonProcessingException e) {
-            throw new PaymentProcessingException("SERIALIZATION_ERROR", 
-                "Failed to serialize payment request", e);
+            long start = System.nanoTime();
+            validateEppEnabled();
+            validatePaymentRequest(saleDetails);
+            prepareSaleDetails(saleDetails);
+            start = metrics.lap(Operation.INITIATE, Stage.VALIDATION, start);
+            
+            // Serialize once: the same JSON is persisted and embedded in the checkout form
+            String rawRequest = serializeSaleDetails(saleDetails);
+            start = metrics.lap(Operation.INITIATE, Stage.SERIALIZATION, start);
+            withOrderLock(saleDetails.getOrderKey(), () -> transactionTemplate.executeWithoutResult(
+                    status -> handleInitialTransaction(saleDetails, rawRequest)));
+            start = metrics.lap(Operation.INITIATE, Stage.PERSISTENCE, start);
+            T form = checkoutForm.apply(rawRequest);
+            metrics.lap(Operation.INITIATE, Stage.FORM, start);
+            return form;
         } catch (PaymentProcessingException e) {
+            metrics.error(Operation.INITIATE, e.getErrorCode());
             throw e;
         } catch (Exception e) {
+            metrics.error(Operation.INITIATE, "PAYMENT_INITIATION_FAILED");
             throw new PaymentProcessingException("PAYMENT_INITIATION_FAILED", 
                 "Payment initiation failed", e);
         }
     }
     
+    /**
+     * Runs outside a transaction: the accepted orders share one batched commit, and if
+     * that fails each is retried in its own so one bad row does not fail the rest.
+     * Validation and serialization touch no shared state, so large batches spread them
+     * over the common fork-join pool.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BulkPaymentResult> initiatePayments(List<SaleDetails> orders) {
+        validateEppEnabled();
+        if (orders == null || orders.isEmpty()) {
+            throw new PaymentProcessingException("INVALID_REQUEST", "At least one order is required");
+        }
+        if (orders.size() > bulkProperties.getMaxOrders()) {
+            throw new PaymentProcessingException("BULK_LIMIT_EXCEEDED",
+                "At most " + bulkProperties.getMaxOrders() + " orders can be started at once");
+        }
+        logger.info("Initiating {} payments in bulk", orders.size());
+        
+        int count = orders.size();
+        BulkPaymentResult[] results = new BulkPaymentResult[count];
+        String[] rawRequests = new String[count];
+        
+        long start = System.nanoTime();
+        forEachOrder(count, i -> {
+            try {
+                validateBulkOrder(orders.get(i));
+                prepareSaleDetails(orders.get(i));
+            } catch (PaymentProcessingException e) {
+                results[i] = bulkFailure(orders.get(i), e);
+            }
+        });
+        start = metrics.lap(Operation.BULK_INITIATE, Stage.VALIDATION, start);
+        
+        forEachOrder(count, i -> {
+            if (results[i] == null) {
+                try {
+                    rawRequests[i] = serializeSaleDetails(orders.get(i));
+                } catch (PaymentProcessingException e) {
+                    results[i] = bulkFailure(orders.get(i), e);
+                }
+            }
+        });
+        start = metrics.lap(Operation.BULK_INITIATE, Stage.SERIALIZATION, start);
+        
+        List<String> orderKeys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (results[i] == null) {
+                orderKeys.add(orders.get(i).getOrderKey());
+            }
+        }
+        withOrderLocks(orderKeys, () -> persistInitialTransactions(orders, rawRequests, results));
+        start = metrics.lap(Operation.BULK_INITIATE, Stage.PERSISTENCE, start);
+        
+        for (int i = 0; i < count; i++) {
+            if (results[i] == null) {
+                SaleDetails saleDetails = orders.get(i);
+                BulkPaymentResult result = new BulkPaymentResult();
+                result.setOrderKey(saleDetails.getOrderKey());
+                result.setApplicationUniqueId(saleDetails.getApplicationUniqueId());
+                result.setStatus("APP");
+                result.setCheckoutForm(eppClient.buildHostedCheckoutForm(rawRequests[i]));
+                results[i] = result;
+            }
+        }
+        metrics.lap(Operation.BULK_INITIATE, Stage.FORM, start);
+        
+        return Arrays.asList(results);
+    }
+    
+    /**
+     * The only database work here is the upsert, which joins the caller's transaction
+     * (journal drainer) or otherwise manages its own, possibly batched, commit.
+     */
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ApplicationResponse processCallback(EppResponse eppResponse) {
         logger.info("Processing callback: orderKey={}, status={}", 
             eppResponse.getOrderKey(), eppResponse.getStatus());
         
-        validateEppEnabled();
-        validateCallbackRequest(eppResponse);
-        
         try {
-            String rawResponse = objectMapper.writeValueAsString(eppResponse);
-            EppTransaction transaction = processCallbackTransaction(eppResponse, rawResponse);
+            long start = System.nanoTime();
+            validateEppEnabled();
+            validateCallbackRequest(eppResponse);
+            start = metrics.lap(Operation.CALLBACK, Stage.VALIDATION, start);
+            
+            String rawResponse = jsonCodecs.writer(EppResponse.class).writeValueAsString(eppResponse);
+            start = metrics.lap(Operation.CALLBACK, Stage.SERIALIZATION, start);
+            EppTransaction transaction = withOrderLock(eppResponse.getOrderKey(),
+                    () -> processCallbackTransaction(eppResponse, rawResponse));
+            metrics.lap(Operation.CALLBACK, Stage.PERSISTENCE, start);
             
             ApplicationResponse response = createCallbackResponse(eppResponse, transaction);
             response.setMessage("Payment processed successfully");
+            metrics.callbackStatus(eppResponse.getStatus());
+            return response;
+        } catch (StatusTransitionException e) {
+            // EPP retries anything but a success, so a late or out-of-order result is
+            // acknowledged with the status the transaction keeps instead of being failed
+            logger.warn("Callback ignored: {}", e.getMessage());
+            metrics.error(Operation.CALLBACK, e.getErrorCode());
+            ApplicationResponse response = new ApplicationResponse();
+            response.setOrderKey(eppResponse.getOrderKey());
+            response.setApplicationUniqueId(eppResponse.getApplicationUniqueId());
+            response.setStatus(e.getCurrentStatus());
+            response.setMessage("Callback ignored: " + e.getMessage());
             return response;
         } catch (JsonProcessingException e) {
+            metrics.error(Operation.CALLBACK, "SERIALIZATION_ERROR");
             throw new PaymentProcessingException("SERIALIZATION_ERROR", 
                 "Failed to serialize callback", e);
         } catch (PaymentProcessingException e) {
+            metrics.error(Operation.CALLBACK, e.getErrorCode());
             throw e;
         } catch (Exception e) {
+            metrics.error(Operation.CALLBACK, "CALLBACK_PROCESSING_FAILED");
             throw new PaymentProcessingException("CALLBACK_PROCESSING_FAILED", 
                 "Callback processing failed", e);
         }
     }
     
+    /**
+     * Runs outside a transaction for the same reason as {@link #initiatePayments}: the
+     * changed rows share one batched commit, retried one record at a time if it fails.
+     * Authorization and reference numbers of superseded records are carried into the
+     * last one, so the stored row is the same as if every record had been applied in turn.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BulkCallbackResult> processCallbacks(List<EppResponse> callbacks) {
+        validateEppEnabled();
+        if (callbacks == null || callbacks.isEmpty()) {
+            throw new PaymentProcessingException("INVALID_CALLBACK", "At least one callback is required");
+        }
+        if (callbacks.size() > bulkProperties.getMaxCallbacks()) {
+            throw new PaymentProcessingException("BULK_LIMIT_EXCEEDED",
+                "At most " + bulkProperties.getMaxCallbacks() + " callbacks can be processed at once");
+        }
+        logger.info("Processing {} callbacks in bulk", callbacks.size());
+        
+        int count = callbacks.size();
+        BulkCallbackResult[] results = new BulkCallbackResult[count];
+        String[] rawResponses = new String[count];
+        
+        long start = System.nanoTime();
+        forEachOrder(count, i -> {
+            try {
+                validateBulkCallback(callbacks.get(i));
+            } catch (PaymentProcessingException e) {
+                results[i] = callbackFailure(callbacks.get(i), e);
+            }
+        });
+        
+        Map<OrderRef, List<Integer>> byOrder = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            if (results[i] == null) {
+                EppResponse eppResponse = callbacks.get(i);
+                byOrder.computeIfAbsent(new OrderRef(eppResponse.getOrderKey(), eppResponse.getApplicationUniqueId()),
+                        order -> new ArrayList<>()).add(i);
+            }
+        }
+        start = metrics.lap(Operation.BULK_CALLBACK, Stage.VALIDATION, start);
+        
+        forEachOrder(count, i -> {
+            if (results[i] == null) {
+                try {
+                    rawResponses[i] = jsonCodecs.writer(EppResponse.class).writeValueAsString(callbacks.get(i));
+                } catch (JsonProcessingException e) {
+                    results[i] = callbackFailure(callbacks.get(i), new PaymentProcessingException(
+                            "SERIALIZATION_ERROR", "Failed to serialize callback", e));
+                }
+            }
+        });
+        start = metrics.lap(Operation.BULK_CALLBACK, Stage.SERIALIZATION, start);
+        
+        Set<String> orderKeys = byOrder.keySet().stream().map(OrderRef::orderKey).collect(Collectors.toSet());
+        // Held from the pre-load to the commit, so no other write for these orders slips in between
+        withOrderLocks(orderKeys, () -> applyCallbacks(callbacks, rawResponses, orderKeys, byOrder, results));
+        metrics.lap(Operation.BULK_CALLBACK, Stage.PERSISTENCE, start);
+        
+        for (BulkCallbackResult result : results) {
+            if (result.getStatus() != null) {
+                metrics.callbackStatus(result.getStatus());
+            }
+        }
+        return Arrays.asList(results);
+    }
+    
+    /**
+     * With the idempotency cache, a retry of a callback that was already answered gets the
+     * same response back, and concurrent duplicates share one processing. On a cache miss
+     * the transaction row is checked first, so a retry that outlived its cache entry is
+     * still answered without another write; with the journal enabled that check is skipped
+     * to keep the database off the acknowledgement path.
+     *
+     * <p>In cluster mode the cache only knows this node's callbacks, so the check runs under
+     * the order lock against the row itself: a duplicate that EPP delivered to another node
+     * waits for that node's write and is then answered from the row.</p>
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // journaling must not wait on a DB connection
+    public ApplicationResponse acceptCallback(EppResponse eppResponse) {
+        if (idempotencyCache == null) {
+            return journalOrProcessCallback(eppResponse);
+        }
+        
+        validateEppEnabled();
+        validateCallbackRequest(eppResponse);
+        
+        return idempotencyCache.get(eppResponse.getOrderKey(), eppResponse.getApplicationUniqueId(),
+                eppResponse.getStatus(), () -> {
+                    if (callbackJournal != null) {
+                        return journalOrProcessCallback(eppResponse);
+                    }
+                    if (clustered) {
+                        return withOrderLock(eppResponse.getOrderKey(), () -> replayedOrProcessCallback(eppResponse));
+                    }
+                    return replayedOrProcessCallback(eppResponse);
+                });
+    }
+    
+    private ApplicationResponse replayedOrProcessCallback(EppResponse eppResponse) {
+        ApplicationResponse replayed = replayedCallbackResponse(eppResponse);
+        return replayed != null ? replayed : processCallback(eppResponse);
+    }
+    
+    private ApplicationResponse journalOrProcessCallback(EppResponse eppResponse) {
+        if (callbackJournal == null) {
+            return processCallback(eppResponse);
+        }
+        
+        logger.info("Journaling callback: orderKey={}, status={}", 
+            eppResponse.getOrderKey(), eppResponse.getStatus());
+        
+        validateEppEnabled();
+        validateCallbackRequest(eppResponse);
+        
+        try {
+            callbackJournal.append(eppResponse);
+        } catch (IOException e) {
+            metrics.error(Operation.CALLBACK, "CALLBACK_JOURNAL_FAILED");
+            throw new PaymentProcessingException("CALLBACK_JOURNAL_FAILED", 
+                "Failed to journal callback", e);
+        }
+        
+        // Same fields the drainer will persist, so EPP sees the same answer as the synchronous path
+        ApplicationResponse response = new ApplicationResponse();
+        response.setOrderKey(eppResponse.getOrderKey());
+        response.setApplicationUniqueId(eppResponse.getApplicationUniqueId());
+        response.setStatus(eppResponse.getStatus());
+        response.setMessage("Payment accepted for processing");
+        return response;
+    }
+    
     public boolean isEppEnabled() {
         return "epp".equalsIgnoreCase(eppProperties.getProvider());
     }
@@ -173,6 +484,19 @@ public class PaymentServiceImpl implements PaymentService {
         }
     }
     
+    /**
+     * Same writer as {@link EppClient#serializeSaleDetails}, failing with this service's
+     * SERIALIZATION_ERROR code as the callback path does.
+     */
+    private String serializeSaleDetails(SaleDetails saleDetails) {
+        try {
+            return jsonCodecs.writer(SaleDetails.class).writeValueAsString(saleDetails);
+        } catch (JsonProcessingException e) {
+            throw new PaymentProcessingException("SERIALIZATION_ERROR",
+                "Failed to serialize payment request", e);
+        }
+    }
+    
     /**
      * Gets the configured application code from properties.
      */
@@ -203,6 +527,335 @@ public class PaymentServiceImpl implements PaymentService {
         }
     }
     
+    /**
+     * Writes the initial APP rows for every order that passed validation in one batch.
+     * When the batch fails, each order is written on its own and only the ones that
+     * still fail are reported as errors. Orders whose status no longer allows a start,
+     * i.e. completed ones, are reported as INVALID_STATUS_TRANSITION.
+     */
+    private void persistInitialTransactions(List<SaleDetails> orders, String[] rawRequests,
+                                            BulkPaymentResult[] results) {
+        List<EppTransactionUpsert> upserts = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            if (results[i] == null) {
+                SaleDetails saleDetails = orders.get(i);
+                upserts.add(new EppTransactionUpsert(
+                        saleDetails.getOrderKey(),
+                        saleDetails.getApplicationUniqueId(),
+                        "APP", // Initial status
+                        saleDetails.getTotalAmount(),
+                        saleDetails.getEmail(),
+                        rawRequests[i],
+                        null, // No response yet
+                        null, // No auth code yet
+                        null  // No reference number yet
+                ));
+            }
+        }
+        
+        try {
+            boolean[] applied = transactionService.createOrUpdateTransactions(upserts);
+            for (int i = 0, k = 0; i < orders.size(); i++) {
+                if (results[i] == null && !applied[k++]) {
+                    SaleDetails saleDetails = orders.get(i);
+                    EppTransaction transaction = transactionService.findTransaction(
+                            saleDetails.getOrderKey(), saleDetails.getApplicationUniqueId());
+                    results[i] = bulkFailure(saleDetails, new StatusTransitionException(saleDetails.getOrderKey(),
+                            transaction != null ? transaction.getStatus() : null, TransactionStatus.STARTED));
+                }
+            }
+        } catch (RuntimeException batchFailure) {
+            logger.warn("Bulk insert of {} transactions failed, retrying one at a time: {}",
+                    upserts.size(), batchFailure.getMessage());
+            for (int i = 0; i < orders.size(); i++) {
+                if (results[i] == null) {
+                    try {
+                        handleInitialTransaction(orders.get(i), rawRequests[i]);
+                    } catch (PaymentProcessingException e) {
+                        results[i] = bulkFailure(orders.get(i), e);
+                    } catch (RuntimeException e) {
+                        logger.error("Transaction insert failed for orderKey: {}", orders.get(i).getOrderKey(), e);
+                        results[i] = bulkFailure(orders.get(i), new PaymentProcessingException(
+                                "PAYMENT_INITIATION_FAILED", "Payment initiation failed", e));
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Bean validation of one order (the endpoint cannot apply {@code @Valid} per element
+     * without failing the whole request), then the same checks as a single start.
+     */
+    private void validateBulkOrder(SaleDetails saleDetails) {
+        if (saleDetails == null) {
+            throw new PaymentProcessingException("INVALID_REQUEST", "Payment request cannot be null");
+        }
+        validateBean(saleDetails);
+        validatePaymentRequest(saleDetails);
+    }
+    
+    private void validateBulkCallback(EppResponse eppResponse) {
+        if (eppResponse == null) {
+            throw new PaymentProcessingException("INVALID_CALLBACK", "Callback response cannot be null");
+        }
+        validateBean(eppResponse);
+        validateCallbackRequest(eppResponse);
+    }
+    
+    private <T> void validateBean(T bean) {
+        Set<ConstraintViolation<T>> violations = validator.validate(bean);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            throw new PaymentProcessingException("VALIDATION_FAILED", message);
+        }
+    }
+    
+    private BulkPaymentResult bulkFailure(SaleDetails saleDetails, PaymentProcessingException e) {
+        metrics.error(Operation.BULK_INITIATE, e.getErrorCode());
+        BulkPaymentResult result = new BulkPaymentResult();
+        if (saleDetails != null) {
+            result.setOrderKey(saleDetails.getOrderKey());
+            result.setApplicationUniqueId(saleDetails.getApplicationUniqueId());
+        }
+        result.setStatus("ERROR");
+        result.setErrorCode(e.getErrorCode());
+        result.setErrorMessage(e.getMessage());
+        return result;
+    }
+    
+    /**
+     * The response for a callback whose values the transaction row already holds, or null
+     * if it still has to be applied.
+     */
+    private ApplicationResponse replayedCallbackResponse(EppResponse eppResponse) {
+        EppTransaction transaction = clustered
+                ? currentTransaction(eppResponse.getOrderKey(), eppResponse.getApplicationUniqueId())
+                : transactionService.findTransaction(eppResponse.getOrderKey(), eppResponse.getApplicationUniqueId());
+        if (!isApplied(eppResponse.getStatus(), eppResponse.getAuthCode(), eppResponse.getReferenceNo(), transaction)) {
+            return null;
+        }
+        logger.info("Callback already applied: orderKey={}, status={}",
+            eppResponse.getOrderKey(), eppResponse.getStatus());
+        ApplicationResponse response = createCallbackResponse(eppResponse, transaction);
+        response.setMessage("Payment processed successfully");
+        return response;
+    }
+    
+    /**
+     * The row as stored right now, bypassing the lookup cache, which may not have seen
+     * another node's latest write yet.
+     */
+    private EppTransaction currentTransaction(String orderKey, String applicationUniqueId) {
+        return transactionService.findTransactions(List.of(orderKey)).stream()
+                .filter(tx -> Objects.equals(applicationUniqueId, tx.getApplicationUniqueId()))
+                .findFirst()
+                .orElse(null);
+    }
+    
+    /**
+     * Whether applying these callback values would leave the row as it is. Null codes
+     * never overwrite stored ones, so they always match.
+     */
+    private static boolean isApplied(String status, String authCode, String referenceNo, EppTransaction transaction) {
+        return transaction != null
+                && status.equals(transaction.getStatus())
+                && (authCode == null || authCode.equals(transaction.getAuthCode()))
+                && (referenceNo == null || referenceNo.equals(transaction.getReferenceNo()));
+    }
+    
+    /**
+     * Pre-loads the rows of the affected orders and plays each order's records through
+     * {@link TransactionStatus} in request order, starting from the stored status. Records
+     * the state machine refuses are rejected, earlier accepted records are superseded by
+     * later ones, and only a last accepted record that would change its row is written.
+     */
+    private void applyCallbacks(List<EppResponse> callbacks, String[] rawResponses, Set<String> orderKeys,
+                                Map<OrderRef, List<Integer>> byOrder, BulkCallbackResult[] results) {
+        Map<OrderRef, EppTransaction> existing = new HashMap<>();
+        for (EppTransaction transaction : transactionService.findTransactions(orderKeys)) {
+            existing.put(new OrderRef(transaction.getOrderKey(), transaction.getApplicationUniqueId()), transaction);
+        }
+        
+        List<Integer> pending = new ArrayList<>();
+        List<EppTransactionUpsert> upserts = new ArrayList<>();
+        for (Map.Entry<OrderRef, List<Integer>> entry : byOrder.entrySet()) {
+            EppTransaction transaction = existing.get(entry.getKey());
+            String status = transaction != null ? transaction.getStatus() : null;
+            String authCode = null;
+            String referenceNo = null;
+            Integer last = null;
+            for (int i : entry.getValue()) {
+                if (results[i] != null) {
+                    continue;
+                }
+                EppResponse eppResponse = callbacks.get(i);
+                if (!TransactionStatus.canTransition(status, eppResponse.getStatus())) {
+                    results[i] = rejectedCallback(eppResponse,
+                            new StatusTransitionException(eppResponse.getOrderKey(), status, eppResponse.getStatus()));
+                    continue;
+                }
+                if (last != null) {
+                    results[last] = callbackResult(callbacks.get(last), "SUPERSEDED", null);
+                }
+                last = i;
+                status = eppResponse.getStatus();
+                // Later records only overwrite the codes they carry, as the upsert's COALESCE does
+                authCode = eppResponse.getAuthCode() != null ? eppResponse.getAuthCode() : authCode;
+                referenceNo = eppResponse.getReferenceNo() != null ? eppResponse.getReferenceNo() : referenceNo;
+            }
+            if (last == null) {
+                continue;
+            }
+            EppResponse eppResponse = callbacks.get(last);
+            if (isApplied(status, authCode, referenceNo, transaction)) {
+                results[last] = callbackResult(eppResponse, "UNCHANGED", transaction.getStatus());
+                continue;
+            }
+            // Amount, email and raw request are preserved by the upsert, as for a single callback
+            upserts.add(new EppTransactionUpsert(
+                    eppResponse.getOrderKey(),
+                    eppResponse.getApplicationUniqueId(),
+                    status,
+                    null,
+                    null,
+                    null,
+                    rawResponses[last],
+                    authCode,
+                    referenceNo
+            ));
+            pending.add(last);
+        }
+        writeCallbacks(callbacks, upserts, pending, existing, results);
+    }
+    
+    /**
+     * Writes the changed callbacks in one batch. When the batch fails, each is written on
+     * its own and only the ones that still fail are reported as errors.
+     */
+    private void writeCallbacks(List<EppResponse> callbacks, List<EppTransactionUpsert> upserts,
+                                List<Integer> pending, Map<OrderRef, EppTransaction> existing,
+                                BulkCallbackResult[] results) {
+        try {
+            boolean[] applied = transactionService.createOrUpdateTransactions(upserts);
+            for (int k = 0; k < pending.size(); k++) {
+                int i = pending.get(k);
+                results[i] = applied[k]
+                        ? appliedCallback(callbacks.get(i), existing)
+                        : rejectedCallback(callbacks.get(i), currentStatus(callbacks.get(i)));
+            }
+        } catch (RuntimeException batchFailure) {
+            logger.warn("Bulk update of {} transactions failed, retrying one at a time: {}",
+                    upserts.size(), batchFailure.getMessage());
+            for (int k = 0; k < pending.size(); k++) {
+                int i = pending.get(k);
+                EppTransactionUpsert upsert = upserts.get(k);
+                try {
+                    transactionService.createOrUpdateTransaction(
+                            upsert.orderKey(),
+                            upsert.applicationUniqueId(),
+                            upsert.status(),
+                            null,
+                            null,
+                            null,
+                            upsert.rawResponse(),
+                            upsert.authCode(),
+                            upsert.referenceNo()
+                    );
+                    results[i] = appliedCallback(callbacks.get(i), existing);
+                } catch (StatusTransitionException e) {
+                    results[i] = rejectedCallback(callbacks.get(i), e);
+                } catch (RuntimeException e) {
+                    logger.error("Callback update failed for orderKey: {}", upsert.orderKey(), e);
+                    results[i] = callbackFailure(callbacks.get(i), new PaymentProcessingException(
+                            "CALLBACK_PROCESSING_FAILED", "Callback processing failed", e));
+                }
+            }
+        }
+    }
+    
+    private BulkCallbackResult appliedCallback(EppResponse eppResponse, Map<OrderRef, EppTransaction> existing) {
+        OrderRef order = new OrderRef(eppResponse.getOrderKey(), eppResponse.getApplicationUniqueId());
+        return callbackResult(eppResponse, existing.containsKey(order) ? "UPDATED" : "CREATED", eppResponse.getStatus());
+    }
+    
+    /**
+     * A record the state machine refused. Reported with the status the transaction keeps.
+     */
+    private BulkCallbackResult rejectedCallback(EppResponse eppResponse, StatusTransitionException e) {
+        BulkCallbackResult result = callbackFailure(eppResponse, e);
+        result.setOutcome("REJECTED");
+        result.setStatus(e.getCurrentStatus());
+        return result;
+    }
+    
+    /**
+     * Rejection reported by the database rather than the pre-load, i.e. the row changed
+     * after it was read; the current status is read back for the result.
+     */
+    private StatusTransitionException currentStatus(EppResponse eppResponse) {
+        EppTransaction transaction = transactionService.findTransaction(
+                eppResponse.getOrderKey(), eppResponse.getApplicationUniqueId());
+        return new StatusTransitionException(eppResponse.getOrderKey(),
+                transaction != null ? transaction.getStatus() : null, eppResponse.getStatus());
+    }
+    
+    private static BulkCallbackResult callbackResult(EppResponse eppResponse, String outcome, String status) {
+        BulkCallbackResult result = new BulkCallbackResult();
+        result.setOrderKey(eppResponse.getOrderKey());
+        result.setApplicationUniqueId(eppResponse.getApplicationUniqueId());
+        result.setOutcome(outcome);
+        result.setStatus(status);
+        return result;
+    }
+    
+    private BulkCallbackResult callbackFailure(EppResponse eppResponse, PaymentProcessingException e) {
+        metrics.error(Operation.BULK_CALLBACK, e.getErrorCode());
+        BulkCallbackResult result = new BulkCallbackResult();
+        if (eppResponse != null) {
+            result.setOrderKey(eppResponse.getOrderKey());
+            result.setApplicationUniqueId(eppResponse.getApplicationUniqueId());
+        }
+        result.setOutcome("ERROR");
+        result.setErrorCode(e.getErrorCode());
+        result.setErrorMessage(e.getMessage());
+        return result;
+    }
+    
+    private <T> T withOrderLock(String orderKey, Supplier<T> action) {
+        return orderLocks != null ? orderLocks.withLock(orderKey, action) : action.get();
+    }
+    
+    private void withOrderLock(String orderKey, Runnable action) {
+        withOrderLock(orderKey, () -> {
+            action.run();
+            return null;
+        });
+    }
+    
+    private void withOrderLocks(Collection<String> orderKeys, Runnable action) {
+        Supplier<Void> locked = () -> {
+            action.run();
+            return null;
+        };
+        if (orderLocks != null) {
+            orderLocks.withLocks(orderKeys, locked);
+        } else {
+            locked.get();
+        }
+    }
+    
+    private void forEachOrder(int count, IntConsumer action) {
+        IntStream indexes = IntStream.range(0, count);
+        if (count >= bulkProperties.getParallelThreshold()) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(action);
+    }
+    
     /**
      * Processes callback transaction update.
      */
@@ -212,15 +865,14 @@ public class PaymentServiceImpl implements PaymentService {
             return null;
         }
         
-        EppTransaction existingTransaction = findExistingTransaction(eppResponse);
-        
+        // Amount, email and raw request are preserved by the upsert, no pre-read needed
         EppTransaction updatedTransaction = transactionService.createOrUpdateTransaction(
                 eppResponse.getOrderKey(),
                 eppResponse.getApplicationUniqueId(),
                 eppResponse.getStatus(),
-                existingTransaction != null ? existingTransaction.getAmount() : null,
-                existingTransaction != null ? existingTransaction.getEmail() : null,
-                existingTransaction != null ? existingTransaction.getRawRequest() : null,
+                null,
+                null,
+                null,
                 rawResponse,
                 eppResponse.getAuthCode(),
                 eppResponse.getReferenceNo()
@@ -230,21 +882,6 @@ public class PaymentServiceImpl implements PaymentService {
         return updatedTransaction;
     }
     
-    /**
-     * Finds existing transaction safely.
-     */
-    private EppTransaction findExistingTransaction(EppResponse eppResponse) {
-        try {
-            return transactionService.findTransaction(
-                    eppResponse.getOrderKey(), 
-                    eppResponse.getApplicationUniqueId());
-        } catch (Exception e) {
-            logger.warn("Failed to find existing transaction for orderKey: {}, continuing with callback processing", 
-                      eppResponse.getOrderKey(), e);
-            return null;
-        }
-    }
-    
     /**
      * Creates callback response from transaction or fallback.
      */
@@ -264,4 +901,8 @@ public class PaymentServiceImpl implements PaymentService {
         logger.warn("Created fallback response due to missing transaction service or model mapper");
         return response;
     }
+    
+    /** Row identity of a transaction; the application unique ID may be null. */
+    private record OrderRef(String orderKey, String applicationUniqueId) {
+    }
 }
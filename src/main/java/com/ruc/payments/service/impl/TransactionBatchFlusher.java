@@ -0,0 +1,139 @@
+package com.ruc.payments.service.impl;
+
+import com.ruc.payments.config.TransactionBatchProperties;
+import com.ruc.payments.repo.EppTransactionRepository;
+import com.ruc.payments.repo.EppTransactionUpsert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Groups transaction upserts from concurrent callers into JDBC batches.
+ *
+ * <p>A single flusher thread takes the first pending write, then collects more until
+ * {@code maxBatchSize} is reached or {@code flushWindowMs} has passed, and commits them
+ * as one MERGE batch in one transaction. Each caller's future completes when that commit
+ * succeeds, with whether the MERGE applied its row or the status transition guard
+ * skipped it. If the batch fails, every write in it is retried on its own, so each
+ * caller learns whether its own write succeeded.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "ruc.payments.batch", name = "enabled", havingValue = "true")
+public class TransactionBatchFlusher {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionBatchFlusher.class);
+
+    private final EppTransactionRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final long flushWindowNanos;
+    private final BlockingQueue<PendingWrite> queue;
+    private final Thread flusherThread;
+    private volatile boolean running = true;
+
+    public TransactionBatchFlusher(EppTransactionRepository repository, TransactionTemplate transactionTemplate,
+                                   TransactionBatchProperties properties) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBatchSize = properties.getMaxBatchSize();
+        this.flushWindowNanos = TimeUnit.MILLISECONDS.toNanos(properties.getFlushWindowMs());
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.flusherThread = new Thread(this::run, "epp-transaction-batch-flusher");
+        this.flusherThread.setDaemon(true);
+        this.flusherThread.start();
+    }
+
+    /**
+     * Queues an upsert, blocking while the queue is full.
+     *
+     * @return Future completed once the write is committed, with whether the row was applied,
+     *         or exceptionally with its own failure
+     */
+    public CompletableFuture<Boolean> submit(EppTransactionUpsert upsert) {
+        PendingWrite pending = new PendingWrite(upsert, new CompletableFuture<>());
+        if (!running) {
+            pending.result().completeExceptionally(new IllegalStateException("Batch flusher is shut down"));
+            return pending.result();
+        }
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.result().completeExceptionally(e);
+        }
+        return pending.result();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusherThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushWindowNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                logger.error("Unexpected batch flusher failure", e);
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        try {
+            boolean[] applied = transactionTemplate.execute(status ->
+                    repository.upsertAll(batch.stream().map(PendingWrite::upsert).toList()));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(applied[i]);
+            }
+            logger.debug("Flushed {} transaction upserts in one batch", batch.size());
+        } catch (RuntimeException batchFailure) {
+            logger.warn("Batch of {} transaction upserts failed, retrying individually: {}",
+                    batch.size(), batchFailure.getMessage());
+            for (PendingWrite pending : batch) {
+                try {
+                    boolean[] applied = transactionTemplate.execute(status ->
+                            repository.upsertAll(List.of(pending.upsert())));
+                    pending.result().complete(applied[0]);
+                } catch (RuntimeException e) {
+                    pending.result().completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private record PendingWrite(EppTransactionUpsert upsert, CompletableFuture<Boolean> result) {
+    }
+}
@@ -0,0 +1,123 @@
+package com.ruc.payments.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.ruc.payments.config.TransactionCacheProperties;
+import com.ruc.payments.entity.EppTransaction;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-evicting cache of transaction rows keyed by order key and application
+ * unique ID, including "not found" results.
+ *
+ * <p>Stays correct under concurrent writers because:</p>
+ * <ul>
+ *   <li>a miss loads inside Caffeine's per-key compute, and an invalidation of that key
+ *       waits for the load to finish before removing it, so a load that read the old row
+ *       cannot outlive the write's invalidation;</li>
+ *   <li>a write inside a transaction invalidates again after completion, once the new
+ *       row is visible to other connections;</li>
+ *   <li>reads inside a transaction bypass the cache so they see their own writes and
+ *       never publish uncommitted rows.</li>
+ * </ul>
+ *
+ * <p>Entries are copied in and out, so callers cannot mutate the cached row. Hit, miss and
+ * eviction counts are published as the {@code eppTransactionLookup} cache metrics.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "ruc.payments.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionLookupCache implements MeterBinder {
+
+    private record Key(String orderKey, String applicationUniqueId) {
+    }
+
+    private final Cache<Key, Optional<EppTransaction>> cache;
+
+    public TransactionLookupCache(TransactionCacheProperties properties) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(Duration.ofMillis(properties.getTtlMs()))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached row, loading it on a miss.
+     *
+     * @return A private copy of the row, or null if it does not exist
+     */
+    public EppTransaction get(String orderKey, String applicationUniqueId, Supplier<EppTransaction> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+        Optional<EppTransaction> cached = cache.get(new Key(orderKey, applicationUniqueId),
+                key -> Optional.ofNullable(loader.get()).map(TransactionLookupCache::copyOf));
+        return cached.map(TransactionLookupCache::copyOf).orElse(null);
+    }
+
+    /**
+     * Drops the entry now and, when called inside a transaction, again once it completes.
+     */
+    public void invalidate(String orderKey, String applicationUniqueId) {
+        Key key = new Key(orderKey, applicationUniqueId);
+        cache.invalidate(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(key);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "eppTransactionLookup");
+    }
+
+    /**
+     * Hit, miss, load and eviction counts since startup.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Runs pending size and TTL evictions now instead of on the next access.
+     */
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+
+    private static EppTransaction copyOf(EppTransaction source) {
+        EppTransaction copy = new EppTransaction();
+        copy.setId(source.getId());
+        copy.setOrderKey(source.getOrderKey());
+        copy.setApplicationUniqueId(source.getApplicationUniqueId());
+        copy.setStatus(source.getStatus());
+        copy.setAmount(source.getAmount());
+        copy.setEmail(source.getEmail());
+        copy.setAuthCode(source.getAuthCode());
+        copy.setReferenceNo(source.getReferenceNo());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        copy.setVersion(source.getVersion());
+        return copy;
+    }
+}
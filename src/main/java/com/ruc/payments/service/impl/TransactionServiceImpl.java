@@ -1,21 +1,35 @@
 package com.ruc.payments.service.impl;
 
 import com.ruc.payments.entity.EppTransaction;
+import com.ruc.payments.exception.StatusTransitionException;
+import com.ruc.payments.metrics.PaymentMetrics;
 import com.ruc.payments.repo.EppTransactionRepository;
+import com.ruc.payments.repo.EppTransactionRepositoryCustom.UpsertResult;
+import com.ruc.payments.repo.EppTransactionUpsert;
+import com.ruc.payments.service.TransactionChangedEvent;
 import com.ruc.payments.service.TransactionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletionException;
 
 /**
  * Implementation of TransactionService for managing EPP transactions.
  * 
  * This service handles all transaction-related database operations
- * with proper logging and transaction management.
+ * with proper logging and transaction management. Every applied write publishes a
+ * {@link TransactionChangedEvent}; it reaches transactional listeners once the
+ * caller's transaction, if any, commits.
  */
 @Service
 @Transactional
@@ -24,12 +38,34 @@ public class TransactionServiceImpl implements TransactionService {
     private static final Logger logger = LoggerFactory.getLogger(TransactionServiceImpl.class);
     
     private final EppTransactionRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionBatchFlusher batchFlusher; // null unless ruc.payments.batch.enabled
+    private final TransactionLookupCache lookupCache; // null when ruc.payments.cache.enabled=false
+    private final PaymentMetrics metrics;
+    private final ApplicationEventPublisher events;
     
-    public TransactionServiceImpl(EppTransactionRepository repository) {
+    public TransactionServiceImpl(EppTransactionRepository repository,
+                                  TransactionTemplate transactionTemplate,
+                                  ObjectProvider<TransactionBatchFlusher> batchFlusher,
+                                  ObjectProvider<TransactionLookupCache> lookupCache,
+                                  PaymentMetrics metrics,
+                                  ApplicationEventPublisher events) {
         this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchFlusher = batchFlusher.getIfAvailable();
+        this.lookupCache = lookupCache.getIfAvailable();
+        this.metrics = metrics;
+        this.events = events;
     }
     
+    /**
+     * Joins the caller's transaction when there is one. Otherwise the write is handed to
+     * the batch flusher (when enabled) so it shares a JDBC batch and a commit with other
+     * concurrent writers; without the flusher it runs in its own transaction.
+     * A rejected status change wrote nothing, so it leaves the caller's transaction usable.
+     */
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS, noRollbackFor = StatusTransitionException.class)
     public EppTransaction createOrUpdateTransaction(
             String orderKey,
             String applicationUniqueId,
@@ -44,62 +80,115 @@ public class TransactionServiceImpl implements TransactionService {
         logger.debug("Creating/updating transaction for orderKey: {}, applicationUniqueId: {}", 
                     orderKey, applicationUniqueId);
         
-        // Find existing transaction
-        Optional<EppTransaction> existingOpt = repository.findByOrderKeyAndApplicationUniqueId(
-                orderKey, applicationUniqueId);
+        // Single MERGE: null values preserve existing data, and concurrent
+        // start/callback calls for the same order cannot both insert
+        EppTransactionUpsert upsert = new EppTransactionUpsert(
+                orderKey, applicationUniqueId, status, amount, email,
+                rawRequest, rawResponse, authCode, referenceNo);
         
-        EppTransaction transaction = existingOpt.orElseGet(() -> {
-            logger.debug("Creating new transaction for orderKey: {}", orderKey);
-            return new EppTransaction();
-        });
-        
-        // Update transaction fields
-        transaction.setOrderKey(orderKey);
-        transaction.setApplicationUniqueId(applicationUniqueId);
-        transaction.setStatus(status);
-        
-        // Only update non-null values to preserve existing data
-        if (amount != null) {
-            transaction.setAmount(amount);
+        long start = System.nanoTime();
+        boolean batched = batchFlusher != null && !TransactionSynchronizationManager.isActualTransactionActive();
+        EppTransaction savedTransaction;
+        boolean applied;
+        if (batched) {
+            // The flusher reports what the MERGE did; the row read after its commit may already hold a later write
+            applied = awaitBatchedWrite(upsert);
+            savedTransaction = repository.readRow(orderKey, applicationUniqueId);
+        } else {
+            UpsertResult result = transactionTemplate.execute(txStatus -> repository.upsert(upsert));
+            savedTransaction = result.row();
+            applied = result.applied();
         }
-        if (email != null) {
-            transaction.setEmail(email);
+        metrics.recordUpsert(batched, start);
+        if (lookupCache != null) {
+            lookupCache.invalidate(orderKey, applicationUniqueId);
         }
-        if (rawRequest != null) {
-            transaction.setRawRequest(rawRequest);
+        
+        if (!applied) {
+            String current = savedTransaction != null ? savedTransaction.getStatus() : null;
+            logger.warn("Status change rejected for orderKey: {}, {} -> {}", orderKey, current, status);
+            throw new StatusTransitionException(orderKey, current, status);
         }
-        if (rawResponse != null) {
-            transaction.setRawResponse(rawResponse);
+        
+        events.publishEvent(new TransactionChangedEvent(orderKey, applicationUniqueId, status));
+        logger.info("Transaction upserted for orderKey: {}, status: {}", orderKey, status);
+        
+        return savedTransaction;
+    }
+    
+    /**
+     * Joins the caller's transaction when there is one, otherwise commits the whole
+     * batch at once. Bypasses the batch flusher, which is for single concurrent writes.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean[] createOrUpdateTransactions(List<EppTransactionUpsert> upserts) {
+        if (upserts.isEmpty()) {
+            return new boolean[0];
         }
-        if (authCode != null) {
-            transaction.setAuthCode(authCode);
+        logger.debug("Upserting {} transactions in one batch", upserts.size());
+        
+        boolean[] applied = transactionTemplate.execute(txStatus -> repository.upsertAll(upserts));
+        if (lookupCache != null) {
+            upserts.forEach(upsert -> lookupCache.invalidate(upsert.orderKey(), upsert.applicationUniqueId()));
         }
-        if (referenceNo != null) {
-            transaction.setReferenceNo(referenceNo);
+        for (int i = 0; i < upserts.size(); i++) {
+            if (applied[i]) {
+                EppTransactionUpsert upsert = upserts.get(i);
+                events.publishEvent(new TransactionChangedEvent(
+                        upsert.orderKey(), upsert.applicationUniqueId(), upsert.status()));
+            }
         }
         
-        EppTransaction savedTransaction = repository.save(transaction);
-        
-        logger.info("Transaction {} for orderKey: {}, status: {}", 
-                   existingOpt.isPresent() ? "updated" : "created", 
-                   orderKey, status);
-        
-        return savedTransaction;
+        logger.info("{} transactions upserted in one batch", upserts.size());
+        return applied;
     }
     
+    /**
+     * Served from the lookup cache when it is enabled and the caller has no transaction.
+     */
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public EppTransaction findTransaction(String orderKey, String applicationUniqueId) {
         logger.debug("Finding transaction for orderKey: {}, applicationUniqueId: {}", 
                     orderKey, applicationUniqueId);
         
+        if (lookupCache != null) {
+            return lookupCache.get(orderKey, applicationUniqueId,
+                    () -> repository.readRow(orderKey, applicationUniqueId));
+        }
         return repository.findByOrderKeyAndApplicationUniqueId(orderKey, applicationUniqueId)
                 .orElse(null);
     }
     
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<EppTransaction> findTransactions(Collection<String> orderKeys) {
+        logger.debug("Finding transactions for {} order keys", orderKeys.size());
+        
+        return orderKeys.isEmpty() ? List.of() : repository.readRows(orderKeys);
+    }
+    
     @Override
     public EppTransaction findTransactionById(Long id) {
         logger.debug("Finding transaction by ID: {}", id);
         
         return repository.findById(id).orElse(null);
     }
+    
+    /**
+     * Waits for the flusher to commit this write, surfacing its own failure if it had one.
+     *
+     * @return Whether the MERGE applied the write
+     */
+    private boolean awaitBatchedWrite(EppTransactionUpsert upsert) {
+        try {
+            return batchFlusher.submit(upsert).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
 }
@@ -0,0 +1,196 @@
+package com.ruc.payments.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * HTML escaping for values embedded in single- or double-quoted attributes.
+ *
+ * Escapes {@code & < > " '} in one pass over the input, copying the runs between
+ * escapable characters in bulk. Output is identical to chaining
+ * {@code replace("&", "&amp;")}, {@code replace("<", "&lt;")}, {@code replace(">", "&gt;")},
+ * {@code replace("\"", "&quot;")} and {@code replace("'", "&#39;")}, the escaping EPP
+ * has always received.
+ */
+public final class HtmlEscaper {
+
+    private static final int UTF8_CHUNK = 8192;
+
+    private HtmlEscaper() {
+    }
+
+    /**
+     * Escapes {@code input}, returning the same instance when nothing needs escaping.
+     *
+     * @param input Text to escape, may be null
+     * @return Escaped text, or an empty string for null input
+     */
+    public static String escape(String input) {
+        if (input == null) {
+            return "";
+        }
+        int first = indexOfEscapable(input, 0);
+        if (first < 0) {
+            return input;
+        }
+        // Leave room for a handful of entities before the builder has to grow
+        StringBuilder out = new StringBuilder(input.length() + 32);
+        out.append(input, 0, first);
+        appendEscaped(out, input, first);
+        return out.toString();
+    }
+
+    /**
+     * Appends {@code input} to {@code out}, escaped. Null input appends nothing.
+     */
+    public static void appendEscaped(StringBuilder out, CharSequence input) {
+        if (input != null) {
+            appendEscaped(out, input, 0);
+        }
+    }
+
+    /**
+     * Appends {@code input} to {@code out}, escaped, for writers and other
+     * {@link Appendable} targets. Null input appends nothing.
+     */
+    public static void appendEscaped(Appendable out, CharSequence input) throws IOException {
+        if (input == null) {
+            return;
+        }
+        int start = 0;
+        for (int i = 0, n = input.length(); i < n; i++) {
+            String entity = entity(input.charAt(i));
+            if (entity != null) {
+                out.append(input, start, i).append(entity);
+                start = i + 1;
+            }
+        }
+        out.append(input, start, input.length());
+    }
+
+    /**
+     * Length of {@code input} once escaped, for sizing buffers exactly. Null counts as empty.
+     */
+    public static int escapedLength(CharSequence input) {
+        if (input == null) {
+            return 0;
+        }
+        int length = input.length();
+        for (int i = 0, n = input.length(); i < n; i++) {
+            String entity = entity(input.charAt(i));
+            if (entity != null) {
+                length += entity.length() - 1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Number of bytes {@link #writeEscapedUtf8} writes for {@code input}.
+     */
+    public static long escapedUtf8Length(CharSequence input) {
+        if (input == null) {
+            return 0;
+        }
+        long length = 0;
+        for (int i = 0, n = input.length(); i < n; i++) {
+            char c = input.charAt(i);
+            if (c < 0x80) {
+                String entity = entity(c);
+                length += entity != null ? entity.length() : 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(input.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                // Unpaired surrogates become '?', as String.getBytes(UTF_8) does
+                length += Character.isSurrogate(c) ? 1 : 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Writes {@code input} to {@code out} escaped and UTF-8 encoded, without building the
+     * escaped text first. The bytes are the same as
+     * {@code escape(input).getBytes(StandardCharsets.UTF_8)}.
+     */
+    public static void writeEscapedUtf8(OutputStream out, CharSequence input) throws IOException {
+        if (input == null || input.isEmpty()) {
+            return;
+        }
+        // Room for the longest entity or a 4-byte code point after each flush check
+        byte[] buffer = new byte[Math.min(UTF8_CHUNK, input.length() * 3) + 8];
+        int limit = buffer.length - 8;
+        int pos = 0;
+        for (int i = 0, n = input.length(); i < n; i++) {
+            if (pos > limit) {
+                out.write(buffer, 0, pos);
+                pos = 0;
+            }
+            char c = input.charAt(i);
+            if (c < 0x80) {
+                String entity = entity(c);
+                if (entity == null) {
+                    buffer[pos++] = (byte) c;
+                } else {
+                    for (int k = 0; k < entity.length(); k++) {
+                        buffer[pos++] = (byte) entity.charAt(k);
+                    }
+                }
+            } else if (c < 0x800) {
+                buffer[pos++] = (byte) (0xC0 | (c >> 6));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(input.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, input.charAt(++i));
+                buffer[pos++] = (byte) (0xF0 | (cp >> 18));
+                buffer[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer[pos++] = '?';
+            } else {
+                buffer[pos++] = (byte) (0xE0 | (c >> 12));
+                buffer[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        out.write(buffer, 0, pos);
+    }
+
+    /**
+     * Index of the first character at or after {@code from} that needs escaping, or -1.
+     */
+    private static int indexOfEscapable(CharSequence input, int from) {
+        for (int i = from, n = input.length(); i < n; i++) {
+            if (entity(input.charAt(i)) != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void appendEscaped(StringBuilder out, CharSequence input, int from) {
+        int start = from;
+        for (int i = from, n = input.length(); i < n; i++) {
+            String entity = entity(input.charAt(i));
+            if (entity != null) {
+                out.append(input, start, i).append(entity);
+                start = i + 1;
+            }
+        }
+        out.append(input, start, input.length());
+    }
+
+    private static String entity(char c) {
+        return switch (c) {
+            case '&' -> "&amp;";
+            case '<' -> "&lt;";
+            case '>' -> "&gt;";
+            case '"' -> "&quot;";
+            case '\'' -> "&#39;";
+            default -> null;
+        };
+    }
+}
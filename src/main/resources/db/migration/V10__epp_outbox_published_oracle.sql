@@ -0,0 +1,9 @@
+-- The relay marks each event once its sink has accepted it and selects unmarked ones, so an
+-- event that commits after a higher id was published is still picked up.
+-- Events up to a relay's high-water mark were published before this column existed.
+ALTER TABLE epp_outbox ADD (published_at TIMESTAMP);
+UPDATE epp_outbox SET published_at = created_at
+WHERE id <= (SELECT MAX(last_event_id) FROM epp_outbox_relay);
+
+-- Unpublished events in id order; rows with a null published_at are still indexed through id
+CREATE INDEX ix_epp_outbox_published ON epp_outbox(published_at, id);
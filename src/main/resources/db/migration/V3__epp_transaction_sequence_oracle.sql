@@ -0,0 +1,19 @@
+-- Pooled sequence for epp_transaction ids (EppTransaction allocationSize = 50).
+-- Hibernate's pooled optimizer hands out (value - 49 .. value), so the first value must
+-- sit a full block above the highest existing id.
+DECLARE
+  v_start NUMBER;
+  v_identity NUMBER;
+BEGIN
+  SELECT NVL(MAX(id), 0) + 50 INTO v_start FROM epp_transaction;
+  EXECUTE IMMEDIATE 'CREATE SEQUENCE epp_transaction_seq START WITH ' || v_start
+                    || ' INCREMENT BY 50 CACHE 20 NOCYCLE';
+
+  -- Every insert now supplies its id from the sequence
+  SELECT COUNT(*) INTO v_identity FROM user_tab_identity_cols
+   WHERE table_name = 'EPP_TRANSACTION' AND column_name = 'ID';
+  IF v_identity > 0 THEN
+    EXECUTE IMMEDIATE 'ALTER TABLE epp_transaction MODIFY id DROP IDENTITY';
+  END IF;
+END;
+/
@@ -0,0 +1,37 @@
+-- Raw payloads become codec-encoded BLOBs: [codec id byte][body].
+-- Existing JSON is carried over with the plain UTF-8 codec (id 0).
+ALTER TABLE epp_transaction_payload ADD (raw_request_bin BLOB, raw_response_bin BLOB)
+LOB (raw_request_bin, raw_response_bin) STORE AS SECUREFILE;
+
+DECLARE
+  FUNCTION to_plain_payload(p_text CLOB) RETURN BLOB IS
+    v_blob        BLOB;
+    v_dest_offset INTEGER := 2;
+    v_src_offset  INTEGER := 1;
+    v_lang_ctx    INTEGER := DBMS_LOB.DEFAULT_LANG_CTX;
+    v_warning     INTEGER;
+  BEGIN
+    IF p_text IS NULL THEN
+      RETURN NULL;
+    END IF;
+    DBMS_LOB.CREATETEMPORARY(v_blob, TRUE);
+    DBMS_LOB.WRITEAPPEND(v_blob, 1, HEXTORAW('00'));
+    IF DBMS_LOB.GETLENGTH(p_text) > 0 THEN
+      DBMS_LOB.CONVERTTOBLOB(v_blob, p_text, DBMS_LOB.LOBMAXSIZE, v_dest_offset, v_src_offset,
+                             NLS_CHARSET_ID('AL32UTF8'), v_lang_ctx, v_warning);
+    END IF;
+    RETURN v_blob;
+  END;
+BEGIN
+  FOR r IN (SELECT transaction_id, raw_request, raw_response FROM epp_transaction_payload) LOOP
+    UPDATE epp_transaction_payload
+       SET raw_request_bin = to_plain_payload(r.raw_request),
+           raw_response_bin = to_plain_payload(r.raw_response)
+     WHERE transaction_id = r.transaction_id;
+  END LOOP;
+END;
+/
+
+ALTER TABLE epp_transaction_payload DROP (raw_request, raw_response);
+ALTER TABLE epp_transaction_payload RENAME COLUMN raw_request_bin TO raw_request;
+ALTER TABLE epp_transaction_payload RENAME COLUMN raw_response_bin TO raw_response;
@@ -0,0 +1,24 @@
+-- Payment events for downstream RUC systems, written in the same transaction as the
+-- status change and published in id order by the outbox relay
+CREATE TABLE epp_outbox (
+  id NUMBER(19) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  event_type VARCHAR2(50) NOT NULL,
+  transaction_id NUMBER(19) NOT NULL,
+  order_key VARCHAR2(200) NOT NULL,
+  application_unique_id VARCHAR2(200),
+  status VARCHAR2(10) NOT NULL,
+  amount NUMBER(15,2) NOT NULL,
+  auth_code VARCHAR2(100),
+  reference_no VARCHAR2(100),
+  created_at TIMESTAMP NOT NULL
+);
+
+-- One event of each type per transaction, however often the status is replayed
+CREATE UNIQUE INDEX uq_epp_outbox_event ON epp_outbox(transaction_id, event_type);
+
+-- Highest event id each relay has handed to its sink
+CREATE TABLE epp_outbox_relay (
+  relay_name VARCHAR2(100) PRIMARY KEY,
+  last_event_id NUMBER(19) NOT NULL,
+  updated_at TIMESTAMP NOT NULL
+);
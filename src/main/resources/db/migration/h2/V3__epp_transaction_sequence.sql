@@ -0,0 +1,8 @@
+-- Pooled sequence for epp_transaction ids (EppTransaction allocationSize = 50).
+-- Hibernate's pooled optimizer hands out (value - 49 .. value), so the first value must
+-- sit a full block above the highest existing id.
+CREATE SEQUENCE epp_transaction_seq START WITH 50 INCREMENT BY 50;
+ALTER SEQUENCE epp_transaction_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM epp_transaction);
+
+-- Every insert now supplies its id from the sequence
+ALTER TABLE epp_transaction ALTER COLUMN id DROP IDENTITY;
@@ -0,0 +1,16 @@
+-- Raw request/response JSON moves off the hot epp_transaction row
+CREATE TABLE epp_transaction_payload (
+  transaction_id BIGINT PRIMARY KEY,
+  raw_request CLOB,
+  raw_response CLOB,
+  CONSTRAINT fk_epp_payload_transaction FOREIGN KEY (transaction_id)
+    REFERENCES epp_transaction(id) ON DELETE CASCADE
+);
+
+INSERT INTO epp_transaction_payload (transaction_id, raw_request, raw_response)
+SELECT id, raw_request, raw_response
+FROM epp_transaction
+WHERE raw_request IS NOT NULL OR raw_response IS NOT NULL;
+
+ALTER TABLE epp_transaction DROP COLUMN raw_request;
+ALTER TABLE epp_transaction DROP COLUMN raw_response;
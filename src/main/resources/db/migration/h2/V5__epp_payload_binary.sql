@@ -0,0 +1,15 @@
+-- Raw payloads become codec-encoded BLOBs: [codec id byte][body].
+-- Existing JSON is carried over with the plain UTF-8 codec (id 0).
+ALTER TABLE epp_transaction_payload ADD COLUMN raw_request_bin BLOB;
+ALTER TABLE epp_transaction_payload ADD COLUMN raw_response_bin BLOB;
+
+UPDATE epp_transaction_payload SET
+  raw_request_bin = CASE WHEN raw_request IS NOT NULL
+                         THEN CAST(X'00' || STRINGTOUTF8(raw_request) AS BLOB) END,
+  raw_response_bin = CASE WHEN raw_response IS NOT NULL
+                          THEN CAST(X'00' || STRINGTOUTF8(raw_response) AS BLOB) END;
+
+ALTER TABLE epp_transaction_payload DROP COLUMN raw_request;
+ALTER TABLE epp_transaction_payload DROP COLUMN raw_response;
+ALTER TABLE epp_transaction_payload ALTER COLUMN raw_request_bin RENAME TO raw_request;
+ALTER TABLE epp_transaction_payload ALTER COLUMN raw_response_bin RENAME TO raw_response;
@@ -0,0 +1,3 @@
+-- Optimistic version, bumped by every update of the row (JPA @Version and the MERGE upsert).
+-- Existing rows start at 0.
+ALTER TABLE epp_transaction ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,9 @@
+-- Cluster mode: one row per order lock stripe held by a node, taken over once it expires
+CREATE TABLE epp_lease (
+  lease_key VARCHAR(100) PRIMARY KEY,
+  owner VARCHAR(200) NOT NULL,
+  expires_at TIMESTAMP NOT NULL
+);
+
+-- Other nodes' writes are found by polling for recently updated rows
+CREATE INDEX ix_epp_transaction_updated_at ON epp_transaction(updated_at);
@@ -0,0 +1,3 @@
+-- Cluster mode: node that last wrote the row, so a node's cache poll can skip its own writes.
+-- Null outside cluster mode and on rows written before this column existed.
+ALTER TABLE epp_transaction ADD COLUMN updated_by VARCHAR(200);
@@ -0,0 +1,150 @@
+package com.ruc.payments;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruc.payments.dto.EppResponse;
+import com.ruc.payments.entity.EppTransaction;
+import com.ruc.payments.repo.EppTransactionRepository;
+import com.ruc.payments.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.ruc.payments.TestPayments.APP_ID;
+import static com.ruc.payments.TestPayments.callback;
+import static com.ruc.payments.TestPayments.started;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(properties = "ruc.payments.bulk.maxCallbacks=20")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class BulkCallbackTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private EppTransactionRepository repo;
+
+    private JsonNode postBatch(Object body, int expectedStatus) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(post("/payments/epp/result/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andReturn().getResponse();
+        assertEquals(expectedStatus, response.getStatus(), response.getContentAsString());
+        return expectedStatus == 200 ? objectMapper.readTree(response.getContentAsByteArray()) : null;
+    }
+
+    private EppTransaction row(String orderKey) {
+        return repo.findByOrderKeyAndApplicationUniqueId(orderKey, APP_ID).orElse(null);
+    }
+
+    private static void assertOutcome(JsonNode result, String orderKey, String outcome, String status) {
+        assertEquals(orderKey, result.path("orderKey").asText());
+        assertEquals(outcome, result.path("outcome").asText(), result::toString);
+        assertEquals(status, result.path("status").isNull() ? null : result.path("status").asText());
+    }
+
+    @Test
+    void resultBatch_foldsDuplicatesAndReportsEachRecord() throws Exception {
+        String prefix = "REPLAY-" + System.nanoTime() + "-";
+        String paid = prefix + "paid", declined = prefix + "declined", unknown = prefix + "unknown";
+        started(transactionService, paid);
+        started(transactionService, declined);
+
+        EppResponse invalid = callback(prefix + "invalid", APP_ID, "COM", null, null);
+        invalid.setApplicationCode(null);
+        List<EppResponse> replay = List.of(
+                callback(paid, APP_ID, "COM", "AUTH-1", null),
+                callback(declined, APP_ID, "DEC", null, null),
+                invalid,
+                callback(paid, APP_ID, "COM", null, "REF-1"),
+                callback(unknown, APP_ID, "COM", "AUTH-2", "REF-2"));
+
+        JsonNode results = postBatch(replay, 200);
+
+        assertEquals(5, results.size());
+        assertOutcome(results.get(0), paid, "SUPERSEDED", null);
+        assertOutcome(results.get(1), declined, "UPDATED", "DEC");
+        assertOutcome(results.get(2), prefix + "invalid", "ERROR", null);
+        assertEquals("VALIDATION_FAILED", results.get(2).path("errorCode").asText());
+        assertOutcome(results.get(3), paid, "UPDATED", "COM");
+        assertOutcome(results.get(4), unknown, "CREATED", "COM");
+
+        // Same row as applying the records one after another
+        EppTransaction paidRow = row(paid);
+        assertEquals("COM", paidRow.getStatus());
+        assertEquals("AUTH-1", paidRow.getAuthCode());
+        assertEquals("REF-1", paidRow.getReferenceNo());
+        assertEquals(0, new BigDecimal("10.00").compareTo(paidRow.getAmount()));
+        assertEquals("DEC", row(declined).getStatus());
+        assertEquals("AUTH-2", row(unknown).getAuthCode());
+        assertNull(row(prefix + "invalid"));
+        assertEquals("COM", transactionService.findTransaction(paid, APP_ID).getStatus());
+
+        // Replaying the same results again changes nothing
+        JsonNode again = postBatch(replay, 200);
+        assertOutcome(again.get(1), declined, "UNCHANGED", "DEC");
+        assertOutcome(again.get(3), paid, "UNCHANGED", "COM");
+        assertOutcome(again.get(4), unknown, "UNCHANGED", "COM");
+        assertEquals(paidRow.getUpdatedAt(), row(paid).getUpdatedAt());
+    }
+
+    @Test
+    void resultBatch_failedBatchFallsBackToOneRecordAtATime() throws Exception {
+        String prefix = "REPLAY-FALLBACK-" + System.nanoTime() + "-";
+        started(transactionService, prefix + 0);
+        started(transactionService, prefix + 1);
+        started(transactionService, prefix + 2);
+        started(transactionService, prefix + 3);
+
+        // Passes validation but overflows the 10 character status column, failing the whole batch
+        JsonNode results = postBatch(List.of(
+                callback(prefix + 0, APP_ID, "COM", "AUTH-0", null),
+                callback(prefix + 1, APP_ID, "RECONCILED", null, null),
+                callback(prefix + 2, APP_ID, "CAN", null, null)), 200);
+
+        assertOutcome(results.get(0), prefix + 0, "UPDATED", "COM");
+        assertOutcome(results.get(1), prefix + 1, "UPDATED", "RECONCILED");
+        assertOutcome(results.get(2), prefix + 2, "UPDATED", "CAN");
+        assertEquals("COM", row(prefix + 0).getStatus());
+        assertEquals("CAN", row(prefix + 2).getStatus());
+
+        JsonNode failing = postBatch(List.of(
+                callback(prefix + 2, APP_ID, "COM", null, null),
+                callback(prefix + 3, APP_ID, "RECONCILED-LATE", null, null)), 200);
+
+        assertOutcome(failing.get(0), prefix + 2, "UPDATED", "COM");
+        assertEquals("ERROR", failing.get(1).path("outcome").asText());
+        assertEquals("CALLBACK_PROCESSING_FAILED", failing.get(1).path("errorCode").asText());
+        assertEquals("COM", row(prefix + 2).getStatus());
+        assertEquals("APP", row(prefix + 3).getStatus());
+    }
+
+    @Test
+    void resultBatch_rejectsEmptyAndOversizedRequests() throws Exception {
+        postBatch(List.of(), 400);
+
+        EppResponse[] tooMany = new EppResponse[21];
+        for (int i = 0; i < tooMany.length; i++) {
+            tooMany[i] = callback("REPLAY-LIMIT-" + i, APP_ID, "COM", null, null);
+        }
+        postBatch(tooMany, 400);
+        assertNull(row("REPLAY-LIMIT-0"));
+    }
+}
@@ -0,0 +1,138 @@
+package com.ruc.payments;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruc.payments.dto.SaleDetails;
+import com.ruc.payments.dto.SaleItems;
+import com.ruc.payments.entity.EppTransaction;
+import com.ruc.payments.repo.EppTransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(properties = {"ruc.payments.bulk.maxOrders=50", "ruc.payments.bulk.parallelThreshold=4"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class BulkPaymentTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EppTransactionRepository repo;
+
+    private static SaleDetails sale(String orderKey, String amount) {
+        SaleItems item = new SaleItems();
+        item.setSaleItemId(1);
+        item.setCount(1);
+        item.setDescription("RUC distance licence - vehicle 1");
+        item.setAmount(new BigDecimal(amount));
+
+        SaleDetails details = new SaleDetails();
+        details.setApplicationCode("3256d54a-9e63-4c7d-b2f9-a2897ec82aab");
+        details.setOrderKey(orderKey);
+        details.setApplicationUniqueId("APP-" + orderKey);
+        details.setTotalAmount(new BigDecimal(amount));
+        details.setFirstName("Fleet");
+        details.setLastName("O'Brien");
+        details.setAddress1("400 Market Street");
+        details.setCity("Harrisburg");
+        details.setStateCode("PA");
+        details.setZipCode("17111");
+        details.setEmail("fleet@example.com");
+        details.setItems(List.of(item));
+        return details;
+    }
+
+    private JsonNode postBatch(Object body, int expectedStatus) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(post("/payments/epp/start/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andReturn().getResponse();
+        assertEquals(expectedStatus, response.getStatus(), response.getContentAsString());
+        return expectedStatus == 200 ? objectMapper.readTree(response.getContentAsByteArray()) : null;
+    }
+
+    private EppTransaction row(String orderKey) {
+        return repo.findByOrderKeyAndApplicationUniqueId(orderKey, "APP-" + orderKey).orElse(null);
+    }
+
+    @Test
+    void startBatch_reportsEachOrderInRequestOrder() throws Exception {
+        String prefix = "BULK-" + System.nanoTime() + "-";
+        List<SaleDetails> orders = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            orders.add(sale(prefix + i, "76.00"));
+        }
+        orders.get(2).setEmail(null);                              // bean validation
+        orders.get(4).setTotalAmount(BigDecimal.ZERO);             // service validation
+
+        JsonNode results = postBatch(orders, 200);
+
+        assertEquals(6, results.size());
+        for (int i = 0; i < 6; i++) {
+            JsonNode result = results.get(i);
+            assertEquals(prefix + i, result.path("orderKey").asText());
+            if (i == 2 || i == 4) {
+                assertEquals("ERROR", result.path("status").asText());
+                assertTrue(result.path("checkoutForm").isNull());
+                assertNull(row(prefix + i));
+            } else {
+                assertEquals("APP", result.path("status").asText());
+                assertTrue(result.path("checkoutForm").asText().contains("O&#39;Brien"));
+                assertEquals("APP", row(prefix + i).getStatus());
+                assertEquals(0, new BigDecimal("76.00").compareTo(row(prefix + i).getAmount()));
+            }
+        }
+        assertEquals("VALIDATION_FAILED", results.get(2).path("errorCode").asText());
+        assertTrue(results.get(2).path("errorMessage").asText().contains("email"));
+        assertEquals("INVALID_AMOUNT", results.get(4).path("errorCode").asText());
+    }
+
+    @Test
+    void startBatch_failedBatchFallsBackToOneOrderAtATime() throws Exception {
+        String prefix = "BULK-FALLBACK-" + System.nanoTime() + "-";
+        // Passes validation but overflows DECIMAL(15,2), failing the whole JDBC batch
+        List<SaleDetails> orders = List.of(
+                sale(prefix + 0, "10.00"),
+                sale(prefix + 1, "12345678901234.00"),
+                sale(prefix + 2, "20.00"));
+
+        JsonNode results = postBatch(orders, 200);
+
+        assertEquals("APP", results.get(0).path("status").asText());
+        assertEquals("ERROR", results.get(1).path("status").asText());
+        assertEquals("PAYMENT_INITIATION_FAILED", results.get(1).path("errorCode").asText());
+        assertEquals("APP", results.get(2).path("status").asText());
+        assertNotNull(row(prefix + 0));
+        assertNull(row(prefix + 1));
+        assertNotNull(row(prefix + 2));
+    }
+
+    @Test
+    void startBatch_rejectsEmptyAndOversizedRequests() throws Exception {
+        postBatch(List.of(), 400);
+
+        List<SaleDetails> tooMany = new ArrayList<>();
+        for (int i = 0; i < 51; i++) {
+            tooMany.add(sale("BULK-LIMIT-" + i, "1.00"));
+        }
+        postBatch(tooMany, 400);
+        assertNull(row("BULK-LIMIT-0"));
+    }
+}
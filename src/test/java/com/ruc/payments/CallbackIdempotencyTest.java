@@ -0,0 +1,219 @@
+package com.ruc.payments;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.ruc.payments.dto.ApplicationResponse;
+import com.ruc.payments.dto.EppResponse;
+import com.ruc.payments.entity.EppTransaction;
+import com.ruc.payments.exception.PaymentProcessingException;
+import com.ruc.payments.metrics.PaymentMetrics;
+import com.ruc.payments.repo.EppTransactionRepository;
+import com.ruc.payments.service.PaymentService;
+import com.ruc.payments.service.TransactionService;
+import com.ruc.payments.service.impl.CallbackIdempotencyCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ruc.payments.TestPayments.APP_ID;
+import static com.ruc.payments.TestPayments.callback;
+import static com.ruc.payments.TestPayments.started;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class CallbackIdempotencyTest {
+    private static final int DUPLICATES = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private CallbackIdempotencyCache idempotencyCache;
+
+    @Autowired
+    private EppTransactionRepository repo;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private long upserts() {
+        return registry.get(PaymentMetrics.UPSERT_TIMER).timers().stream().mapToLong(t -> t.count()).sum();
+    }
+
+    private JsonNode postOnEppResult(EppResponse callback) throws Exception {
+        byte[] body = mockMvc.perform(post("/payments/epp/OnEPPResult")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(callback)))
+                .andReturn().getResponse().getContentAsByteArray();
+        return objectMapper.readTree(body);
+    }
+
+    @Test
+    void onEppResult_retryIsAnsweredFromCacheWithoutWriting() throws Exception {
+        String orderKey = "ORD-IDEM-" + System.nanoTime();
+        started(transactionService, orderKey);
+        CacheStats before = idempotencyCache.stats();
+        long upsertsBefore = upserts();
+
+        JsonNode first = postOnEppResult(callback(orderKey, "CAN"));
+        EppTransaction afterFirst = repo.readRow(orderKey, APP_ID);
+        JsonNode retry = postOnEppResult(callback(orderKey, "CAN"));
+
+        // The controller answers COM for a cancellation; that must not leak into the cached response
+        assertEquals("COM", first.path("status").asText());
+        assertEquals(first, retry);
+        assertEquals("CAN", paymentService.acceptCallback(callback(orderKey, "CAN")).getStatus());
+        assertEquals(1, upserts() - upsertsBefore);
+        assertEquals(afterFirst.getUpdatedAt(), repo.readRow(orderKey, APP_ID).getUpdatedAt());
+        CacheStats delta = idempotencyCache.stats().minus(before);
+        assertEquals(1, delta.missCount());
+        assertEquals(2, delta.hitCount());
+
+        // A different status for the same order is a new callback
+        postOnEppResult(callback(orderKey, "COM"));
+        assertEquals("COM", repo.readRow(orderKey, APP_ID).getStatus());
+        assertEquals(2, upserts() - upsertsBefore);
+    }
+
+    @Test
+    void acceptCallback_sameStatusOnANewAttemptIsWrittenAgain() {
+        String orderKey = "ORD-IDEM-RETRY-" + System.nanoTime();
+        started(transactionService, orderKey);
+        paymentService.acceptCallback(callback(orderKey, "CAN"));
+        assertEquals("CAN", repo.readRow(orderKey, APP_ID).getStatus());
+
+        // The customer starts over and cancels again within the cache TTL
+        started(transactionService, orderKey);
+        assertEquals("APP", repo.readRow(orderKey, APP_ID).getStatus());
+        long upsertsBefore = upserts();
+        paymentService.acceptCallback(callback(orderKey, "CAN"));
+
+        assertEquals("CAN", repo.readRow(orderKey, APP_ID).getStatus());
+        assertEquals(1, upserts() - upsertsBefore);
+    }
+
+    @Test
+    void acceptCallback_concurrentDuplicatesWriteOnce() throws Exception {
+        String orderKey = "ORD-IDEM-RACE-" + System.nanoTime();
+        started(transactionService, orderKey);
+        long upsertsBefore = upserts();
+        ExecutorService pool = Executors.newFixedThreadPool(DUPLICATES);
+
+        try {
+            CyclicBarrier go = new CyclicBarrier(DUPLICATES);
+            List<Future<ApplicationResponse>> futures = new ArrayList<>();
+            for (int t = 0; t < DUPLICATES; t++) {
+                futures.add(pool.submit(() -> {
+                    go.await(10, TimeUnit.SECONDS);
+                    return paymentService.acceptCallback(callback(orderKey, "COM"));
+                }));
+            }
+            for (Future<ApplicationResponse> future : futures) {
+                ApplicationResponse response = future.get(30, TimeUnit.SECONDS);
+                assertEquals("COM", response.getStatus());
+                assertEquals(orderKey, response.getOrderKey());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, upserts() - upsertsBefore);
+        assertEquals("AUTH-" + orderKey, repo.readRow(orderKey, APP_ID).getAuthCode());
+    }
+
+    @Test
+    void acceptCallback_alreadyAppliedRowIsNotWrittenAgain() {
+        String orderKey = "ORD-IDEM-ROW-" + System.nanoTime();
+        started(transactionService, orderKey);
+        // Applied through the legacy endpoint's path, which does not fill the cache
+        paymentService.processCallback(callback(orderKey, "COM"));
+        long upsertsBefore = upserts();
+
+        ApplicationResponse response = paymentService.acceptCallback(callback(orderKey, "COM"));
+
+        assertEquals("COM", response.getStatus());
+        assertEquals("Payment processed successfully", response.getMessage());
+        assertEquals(0, upserts() - upsertsBefore);
+    }
+
+    @Test
+    void get_sharesOneProcessingAndForgetsFailures() throws Exception {
+        String orderKey = "ORD-IDEM-UNIT-" + System.nanoTime();
+        AtomicInteger processed = new AtomicInteger();
+        CountDownLatch processing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(DUPLICATES);
+
+        try {
+            // The first attempt fails while duplicates are waiting on it
+            List<Future<ApplicationResponse>> futures = new ArrayList<>();
+            futures.add(pool.submit(() -> idempotencyCache.get(orderKey, APP_ID, "COM", () -> {
+                processed.incrementAndGet();
+                processing.countDown();
+                await(release);
+                throw new PaymentProcessingException("CALLBACK_PROCESSING_FAILED", "database down");
+            })));
+            assertTrue(processing.await(10, TimeUnit.SECONDS));
+            for (int t = 1; t < DUPLICATES; t++) {
+                futures.add(pool.submit(() -> idempotencyCache.get(orderKey, APP_ID, "COM", () -> {
+                    processed.incrementAndGet();
+                    return new ApplicationResponse();
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<ApplicationResponse> future : futures) {
+                Exception e = assertThrows(Exception.class, () -> future.get(10, TimeUnit.SECONDS));
+                assertInstanceOf(PaymentProcessingException.class, e.getCause());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, processed.get());
+
+        // EPP's next retry processes the callback again
+        ApplicationResponse ok = new ApplicationResponse();
+        ok.setStatus("COM");
+        assertEquals("COM", idempotencyCache.get(orderKey, APP_ID, "COM", () -> ok).getStatus());
+        assertEquals("COM", idempotencyCache.get(orderKey, APP_ID, "COM", () -> {
+            throw new AssertionError("should be cached");
+        }).getStatus());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
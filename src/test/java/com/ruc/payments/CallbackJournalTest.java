@@ -0,0 +1,100 @@
+package com.ruc.payments;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruc.payments.codec.JsonCodecs;
+import com.ruc.payments.config.CallbackJournalProperties;
+import com.ruc.payments.journal.CallbackJournal;
+import com.ruc.payments.journal.CallbackJournal.JournalEntry;
+import com.ruc.payments.journal.JournalPosition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.ruc.payments.TestPayments.callback;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CallbackJournalTest {
+    @TempDir
+    Path dir;
+
+    private CallbackJournalProperties props;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setup() {
+        props = new CallbackJournalProperties();
+        props.setDirectory(dir.toString());
+        objectMapper = new ObjectMapper();
+    }
+
+    @Test
+    void appendReadCommit_replaysOnlyUncommittedAfterReopen() throws Exception {
+        try (CallbackJournal journal = new CallbackJournal(props, new JsonCodecs(objectMapper))) {
+            for (int i = 1; i <= 3; i++) {
+                journal.append(callback("ORD" + i, "COM"));
+            }
+            List<JournalEntry> entries = journal.read(journal.checkpoint(), 10);
+            assertEquals(3, entries.size());
+            assertEquals("ORD1", entries.get(0).eppResponse().getOrderKey());
+
+            journal.commit(entries.get(0).next());
+        }
+
+        try (CallbackJournal reopened = new CallbackJournal(props, new JsonCodecs(objectMapper))) {
+            assertTrue(reopened.hasPending());
+            List<JournalEntry> replay = reopened.read(reopened.checkpoint(), 10);
+            assertEquals(List.of("ORD2", "ORD3"),
+                    replay.stream().map(e -> e.eppResponse().getOrderKey()).toList());
+        }
+    }
+
+    @Test
+    void reopen_truncatesTornTailRecord() throws Exception {
+        try (CallbackJournal journal = new CallbackJournal(props, new JsonCodecs(objectMapper))) {
+            journal.append(callback("ORD1", "COM"));
+            journal.append(callback("ORD2", "COM"));
+        }
+        Path segment = segments().get(0);
+        // Simulate a crash halfway through writing a third record
+        Files.write(segment, new byte[] {0, 0, 0, 100, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (CallbackJournal reopened = new CallbackJournal(props, new JsonCodecs(objectMapper))) {
+            reopened.append(callback("ORD3", "COM"));
+            List<JournalEntry> entries = reopened.read(reopened.checkpoint(), 10);
+            assertEquals(List.of("ORD1", "ORD2", "ORD3"),
+                    entries.stream().map(e -> e.eppResponse().getOrderKey()).toList());
+        }
+    }
+
+    @Test
+    void commit_deletesDrainedSegments() throws Exception {
+        props.setSegmentSizeBytes(512);
+        try (CallbackJournal journal = new CallbackJournal(props, new JsonCodecs(objectMapper))) {
+            for (int i = 0; i < 20; i++) {
+                journal.append(callback("ORD" + i, "COM"));
+            }
+            assertTrue(segments().size() > 1);
+
+            List<JournalEntry> entries = journal.read(journal.checkpoint(), 100);
+            assertEquals(20, entries.size());
+            JournalPosition end = entries.get(entries.size() - 1).next();
+            journal.commit(end);
+
+            assertFalse(journal.hasPending());
+            assertEquals(1, segments().size());
+        }
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.ruc.payments;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruc.payments.codec.JsonCodecs;
+import com.ruc.payments.config.EppProperties;
+import com.ruc.payments.controller.TestUIController;
+import com.ruc.payments.service.CheckoutFormTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckoutFormTemplateTest {
+
+    private static final String JSON = "{\"FirstName\":\"Zoë\",\"LastName\":\"O'Brien\",\"Address1\":\"State & Main 🚗\"}";
+
+    private EppProperties props;
+    private CheckoutFormTemplate template;
+
+    @BeforeEach
+    void setup() {
+        props = new EppProperties();
+        props.setPaymentGatewayIndexUrl("https://epp.example.com/Payment/Index");
+        template = new CheckoutFormTemplate(props);
+    }
+
+    @Test
+    void writeTo_writesRenderedFormAsUtf8WithExactLength() throws Exception {
+        String rendered = template.render(JSON);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        template.writeTo(out, JSON);
+
+        assertArrayEquals(rendered.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+        assertEquals(out.size(), template.contentLength(JSON));
+        assertTrue(rendered.contains("value='{&quot;FirstName&quot;:&quot;Zoë&quot;,&quot;LastName&quot;:&quot;O&#39;Brien"));
+    }
+
+    @Test
+    void render_picksUpChangedGatewayUrl() {
+        assertTrue(template.render(JSON).contains("action='https://epp.example.com/Payment/Index'"));
+
+        props.setPaymentGatewayIndexUrl("https://epp.beta.pa.gov/Payment/Index");
+
+        String form = template.render(JSON);
+        assertTrue(form.contains("action='https://epp.beta.pa.gov/Payment/Index'"));
+        assertFalse(form.contains("epp.example.com"));
+        assertEquals(form.getBytes(StandardCharsets.UTF_8).length, template.contentLength(JSON));
+    }
+
+    @Test
+    void testUiDirectMethod_streamsFormWithContentLength() throws Exception {
+        TestUIController controller = new TestUIController(props, new JsonCodecs(new ObjectMapper()), template);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setParameter("applicationCode", "3256d54a-9e63-4c7d-b2f9-a2897ec82aab");
+        request.setParameter("orderKey", "TEST-ORDER-1");
+        request.setParameter("firstName", "Zoë");
+        request.setParameter("lastName", "O'Brien");
+        request.setParameter("address1", "State & Main");
+        request.setParameter("amount", "100.00");
+        request.setParameter("description", "RUC Payment Test");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.method1Direct(request, response);
+
+        String json = (String) controller.method5Rest(request).get("paymentData");
+        byte[] expected = template.render(json).getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expected, response.getContentAsByteArray());
+        assertEquals(expected.length, response.getContentLength());
+        assertEquals("UTF-8", response.getCharacterEncoding());
+    }
+}
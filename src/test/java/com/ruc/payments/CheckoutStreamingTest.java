@@ -0,0 +1,94 @@
+package com.ruc.payments;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruc.payments.dto.SaleDetails;
+import com.ruc.payments.dto.SaleItems;
+import com.ruc.payments.repo.EppTransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(properties = "ruc.payments.checkout.streaming=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class CheckoutStreamingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EppTransactionRepository repo;
+
+    private static SaleDetails sale(String orderKey, BigDecimal amount) {
+        SaleDetails details = new SaleDetails();
+        details.setApplicationCode("3256d54a-9e63-4c7d-b2f9-a2897ec82aab");
+        details.setOrderKey(orderKey);
+        details.setApplicationUniqueId("APP-" + orderKey);
+        details.setTotalAmount(amount);
+        details.setFirstName("Zoë");
+        details.setLastName("O'Brien");
+        details.setAddress1("400 Market Street");
+        details.setCity("Harrisburg");
+        details.setStateCode("PA");
+        details.setZipCode("17111");
+        details.setEmail("a@b.com");
+        SaleItems item = new SaleItems();
+        item.setSaleItemId(1);
+        item.setCount(1);
+        item.setDescription("RUC distance licence <5000 km> & fees");
+        item.setAmount(amount);
+        item.setItemKey(orderKey);
+        details.setItems(List.of(item));
+        return details;
+    }
+
+    @Test
+    void start_streamsEscapedFormWithContentLength() throws Exception {
+        SaleDetails details = sale("ORD-STREAM-1", new BigDecimal("76.00"));
+
+        MockHttpServletResponse response = mockMvc.perform(post("/payments/epp/start")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(details)))
+                .andReturn().getResponse();
+
+        byte[] body = response.getContentAsByteArray();
+        String html = new String(body, StandardCharsets.UTF_8);
+        assertEquals(200, response.getStatus());
+        assertEquals(body.length, response.getContentLength());
+        assertTrue(MediaType.parseMediaType(response.getContentType()).isCompatibleWith(MediaType.TEXT_HTML));
+        assertEquals(StandardCharsets.UTF_8.name(), response.getCharacterEncoding());
+        assertTrue(html.startsWith("<form id='__PostForm' name='__PostForm' action='https://epp.beta.pa.gov/Payment/Index'"));
+        assertTrue(html.contains("&quot;FirstName&quot;:&quot;Zoë&quot;,&quot;LastName&quot;:&quot;O&#39;Brien&quot;"));
+        assertTrue(html.contains("RUC distance licence &lt;5000 km&gt; &amp; fees"));
+        assertTrue(html.endsWith("v__PostForm.submit();</script>"));
+        assertTrue(repo.findByOrderKeyAndApplicationUniqueId("ORD-STREAM-1", "APP-ORD-STREAM-1").isPresent());
+    }
+
+    @Test
+    void start_reportsFailuresAsBeforeWhenStreaming() throws Exception {
+        SaleDetails details = sale("ORD-STREAM-2", BigDecimal.ZERO);
+
+        MockHttpServletResponse response = mockMvc.perform(post("/payments/epp/start")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(details)))
+                .andReturn().getResponse();
+
+        assertEquals(400, response.getStatus());
+        assertTrue(response.getContentAsString().startsWith("Payment initiation failed: "));
+    }
+}
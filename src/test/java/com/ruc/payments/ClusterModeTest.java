@@ -0,0 +1,199 @@
+package com.ruc.payments;
+
+import com.ruc.payments.cluster.ClusterCacheInvalidator;
+import com.ruc.payments.cluster.OrderLeases;
+import com.ruc.payments.dto.ApplicationResponse;
+import com.ruc.payments.entity.EppTransaction;
+import com.ruc.payments.exception.PaymentProcessingException;
+import com.ruc.payments.repo.EppTransactionRepository;
+import com.ruc.payments.service.PaymentService;
+import com.ruc.payments.service.TransactionService;
+import com.ruc.payments.service.impl.OrderLocks;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.ruc.payments.TestPayments.APP_ID;
+import static com.ruc.payments.TestPayments.callback;
+import static com.ruc.payments.TestPayments.started;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Three application contexts in one JVM sharing one H2 database, standing in for three
+ * instances behind a load balancer.
+ */
+public class ClusterModeTest {
+
+    private static final int NODES = 3;
+    private static final long LEASE_TTL_MS = 2000;
+
+    private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @BeforeAll
+    static void startNodes() {
+        String url = "jdbc:h2:mem:cluster-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        // One after the other, so only the first runs the migrations
+        for (int i = 0; i < NODES; i++) {
+            nodes.add(new SpringApplicationBuilder(EppIntegrationApplication.class)
+                    .profiles("test")
+                    .run("--spring.main.web-application-type=none",
+                            "--spring.main.banner-mode=off",
+                            "--spring.datasource.url=" + url,
+                            "--ruc.payments.cluster.enabled=true",
+                            "--ruc.payments.cluster.nodeId=node-" + i,
+                            "--ruc.payments.cluster.leaseTtlMs=" + LEASE_TTL_MS,
+                            "--ruc.payments.cluster.pollIntervalMs=50",
+                            "--ruc.payments.locks.timeoutMs=500"));
+        }
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+        nodes.clear();
+    }
+
+    private static <T> T bean(int node, Class<T> type) {
+        return nodes.get(node).getBean(type);
+    }
+
+    @Test
+    void writeOnOneNode_reachesOtherNodesCachedLookups() throws Exception {
+        String orderKey = "ORD-CLUSTER-CACHE-" + System.nanoTime();
+        started(bean(0, TransactionService.class), orderKey);
+        assertEquals("APP", bean(1, TransactionService.class).findTransaction(orderKey, APP_ID).getStatus());
+
+        bean(2, PaymentService.class).processCallback(callback(orderKey, "COM"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String seen;
+        while (!"COM".equals(seen = bean(1, TransactionService.class).findTransaction(orderKey, APP_ID).getStatus())
+                && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals("COM", seen, "node 1 still serves its cached row");
+        bean(1, ClusterCacheInvalidator.class).poll(); // in case the background poll has not reached it yet
+        assertEquals(0, bean(1, ClusterCacheInvalidator.class).poll(),
+                "a write still inside the lookback is not acted on again");
+    }
+
+    @Test
+    void changePoll_skipsThisNodesOwnWrites() {
+        String orderKey = "ORD-CLUSTER-OWN-" + System.nanoTime();
+        EppTransactionRepository repository = bean(0, EppTransactionRepository.class);
+        LocalDateTime before = repository.databaseTime();
+        started(bean(0, TransactionService.class), orderKey);
+
+        assertTrue(repository.readKeysUpdatedSince(before, "node-0").stream()
+                .noneMatch(tx -> orderKey.equals(tx.getOrderKey())), "written by node 0 itself");
+        EppTransaction other = repository.readKeysUpdatedSince(before, "node-1").stream()
+                .filter(tx -> orderKey.equals(tx.getOrderKey()))
+                .findFirst().orElseThrow();
+        assertEquals(0L, other.getVersion());
+    }
+
+    @Test
+    void sameOrderOnTwoNodes_isHeldByOneAtATime() throws Exception {
+        String orderKey = "ORD-CLUSTER-LOCK-" + System.nanoTime();
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() ->
+                bean(0, OrderLocks.class).withLock(orderKey, () -> {
+                    held.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return null;
+                }));
+        assertTrue(held.await(10, TimeUnit.SECONDS));
+
+        PaymentProcessingException e = assertThrows(PaymentProcessingException.class,
+                () -> bean(1, OrderLocks.class).withLock(orderKey, () -> "node 1"));
+        assertEquals("ORDER_LOCK_TIMEOUT", e.getErrorCode());
+
+        release.countDown();
+        holder.get(10, TimeUnit.SECONDS);
+        assertEquals("node 1", bean(1, OrderLocks.class).withLock(orderKey, () -> "node 1"));
+    }
+
+    @Test
+    void leaseOfAVanishedNode_isTakenOverOnceExpired() throws Exception {
+        String leaseKey = "test-lease-" + System.nanoTime();
+        assertTrue(bean(0, OrderLeases.class).tryAcquire(leaseKey));
+        assertTrue(bean(0, OrderLeases.class).tryAcquire(leaseKey), "the owner renews its own lease");
+        assertFalse(bean(1, OrderLeases.class).tryAcquire(leaseKey));
+        bean(0, OrderLeases.class).release(leaseKey);
+
+        // A node that vanished leaves its lease behind and no longer renews it
+        bean(0, JdbcTemplate.class).update("INSERT INTO epp_lease (lease_key, owner, expires_at)"
+                + " VALUES (?, ?, LOCALTIMESTAMP + CAST(? AS NUMERIC(19)) * INTERVAL '0.001' SECOND)", leaseKey, "node-vanished", LEASE_TTL_MS);
+        assertFalse(bean(1, OrderLeases.class).tryAcquire(leaseKey));
+
+        Thread.sleep(LEASE_TTL_MS + 200);
+        assertTrue(bean(1, OrderLeases.class).tryAcquire(leaseKey));
+        assertFalse(bean(0, OrderLeases.class).tryAcquire(leaseKey));
+
+        bean(1, OrderLeases.class).release(leaseKey);
+        assertTrue(bean(2, OrderLeases.class).tryAcquire(leaseKey));
+        bean(2, OrderLeases.class).release(leaseKey);
+    }
+
+    @Test
+    void heldLease_isRenewedPastItsTtl() throws Exception {
+        String leaseKey = "test-lease-renewed-" + System.nanoTime();
+        assertTrue(bean(0, OrderLeases.class).tryAcquire(leaseKey));
+        assertTrue(bean(0, OrderLeases.class).renew() >= 1);
+
+        Thread.sleep(LEASE_TTL_MS + 500);
+        assertFalse(bean(1, OrderLeases.class).tryAcquire(leaseKey), "the holder is still working");
+
+        bean(0, OrderLeases.class).release(leaseKey);
+        assertTrue(bean(1, OrderLeases.class).tryAcquire(leaseKey));
+        bean(1, OrderLeases.class).release(leaseKey);
+    }
+
+    @Test
+    void duplicateCallbackOnEveryNode_isWrittenOnce() throws Exception {
+        String orderKey = "ORD-CLUSTER-DUP-" + System.nanoTime();
+        long version = started(bean(0, TransactionService.class), orderKey).getVersion();
+
+        ExecutorService pool = Executors.newFixedThreadPool(NODES);
+        try {
+            CyclicBarrier go = new CyclicBarrier(NODES);
+            List<Future<ApplicationResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < NODES; i++) {
+                PaymentService paymentService = bean(i, PaymentService.class);
+                responses.add(pool.submit(() -> {
+                    go.await(10, TimeUnit.SECONDS);
+                    return paymentService.acceptCallback(callback(orderKey, "COM"));
+                }));
+            }
+            for (Future<ApplicationResponse> response : responses) {
+                assertEquals("COM", response.get(30, TimeUnit.SECONDS).getStatus());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        EppTransaction row = bean(0, EppTransactionRepository.class).readRow(orderKey, APP_ID);
+        assertEquals("COM", row.getStatus());
+        assertEquals(version + 1, row.getVersion(), "each node must not apply the callback again");
+    }
+}
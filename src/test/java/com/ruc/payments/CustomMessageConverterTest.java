@@ -0,0 +1,78 @@
+package com.ruc.payments;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruc.payments.codec.JsonCodecs;
+import com.ruc.payments.config.CustomMessageConverter;
+import com.ruc.payments.config.RequestBodyProperties;
+import com.ruc.payments.dto.EppResponse;
+import com.ruc.payments.dto.SaleDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CustomMessageConverterTest {
+    private CustomMessageConverter converter;
+
+    @BeforeEach
+    void setup() {
+        RequestBodyProperties properties = new RequestBodyProperties();
+        properties.setMaxBodyBytes(256);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("requestBodyProperties", properties);
+        converter = new CustomMessageConverter(new JsonCodecs(new ObjectMapper()),
+                beanFactory.getBeanProvider(RequestBodyProperties.class));
+    }
+
+    private static MockHttpInputMessage message(String body, boolean withContentLength) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        MockHttpInputMessage message = new MockHttpInputMessage(new ByteArrayInputStream(bytes));
+        message.getHeaders().setContentType(MediaType.valueOf("text/html;charset=UTF-8"));
+        if (withContentLength) {
+            message.getHeaders().setContentLength(bytes.length);
+        }
+        return message;
+    }
+
+    @Test
+    void read_parsesJsonSentAsTextHtml() throws Exception {
+        Object saleDetails = converter.read(SaleDetails.class,
+                message("{\"OrderKey\":\"ORD1\",\"City\":\"Zürich\",\"TotalAmount\":10.00}", true));
+        Object eppResponse = converter.read(EppResponse.class,
+                message("{\"orderKey\":\"ORD1\",\"status\":\"COM\"}", false));
+
+        assertEquals("ORD1", ((SaleDetails) saleDetails).getOrderKey());
+        assertEquals("Zürich", ((SaleDetails) saleDetails).getCity());
+        assertEquals(new BigDecimal("10.00"), ((SaleDetails) saleDetails).getTotalAmount());
+        assertEquals("COM", ((EppResponse) eppResponse).getStatus());
+    }
+
+    @Test
+    void read_rejectsOversizedBodyWithOrWithoutContentLength() {
+        String body = "{\"orderKey\":\"" + "x".repeat(300) + "\"}";
+
+        ResponseStatusException declared = assertThrows(ResponseStatusException.class,
+                () -> converter.read(EppResponse.class, message(body, true)));
+        ResponseStatusException streamed = assertThrows(ResponseStatusException.class,
+                () -> converter.read(EppResponse.class, message(body, false)));
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, declared.getStatusCode());
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, streamed.getStatusCode());
+    }
+
+    @Test
+    void read_malformedJsonIsNotReadable() {
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> converter.read(EppResponse.class, message("{\"orderKey\":", false)));
+    }
+}
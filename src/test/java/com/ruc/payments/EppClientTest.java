@@ -2,39 +2,32 @@ package com.ruc.payments;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
 import java.util.Collections;
-import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.Mockito;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruc.payments.codec.JsonCodecs;
 import com.ruc.payments.config.EppProperties;
 import com.ruc.payments.dto.SaleDetails;
 import com.ruc.payments.dto.SaleItems;
-import com.ruc.payments.entity.EppTransaction;
-import com.ruc.payments.repo.EppTransactionRepository;
+import com.ruc.payments.service.CheckoutFormTemplate;
 import com.ruc.payments.service.EppClient;
 
 public class EppClientTest {
     private EppClient eppClient;
-    private EppTransactionRepository repo;
     private EppProperties props;
     private ObjectMapper objectMapper;
 
     @BeforeEach
     void setup() {
-        repo = Mockito.mock(EppTransactionRepository.class);
         props = new EppProperties();
         props.setPaymentGatewayIndexUrl("https://epp.example.com/Payment/Index");
         objectMapper = new ObjectMapper();
-        eppClient = new EppClient(props, repo, objectMapper);
+        eppClient = new EppClient(new CheckoutFormTemplate(props), new JsonCodecs(objectMapper));
     }
 
     @Test
@@ -67,16 +60,16 @@ public class EppClientTest {
     }
 
     @Test
-    void upsertTransaction_insertsOrUpdates() {
-        when(repo.findByOrderKeyAndApplicationUniqueId(anyString(), anyString()))
-                .thenReturn(Optional.empty());
-        when(repo.save(any(EppTransaction.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+    void buildHostedCheckoutForm_escapesSerializedJson() {
+        String json = "{\"FirstName\":\"O'Brien\",\"Address2\":\"<B> & Co\"}";
 
-        EppTransaction tx = eppClient.upsertTransaction("ORD1", "APP1", "APP",
-                new BigDecimal("1.00"), "a@b.com", "{}", "{}", null, null);
-        assertEquals("ORD1", tx.getOrderKey());
-        assertEquals("APP1", tx.getApplicationUniqueId());
-        assertEquals("APP", tx.getStatus());
+        String html = eppClient.buildHostedCheckoutForm(json);
+
+        assertEquals("<form id='__PostForm' name='__PostForm' action='https://epp.example.com/Payment/Index' method='POST'>"
+                + "<input type='hidden' name='saleDetail' value='"
+                + "{&quot;FirstName&quot;:&quot;O&#39;Brien&quot;,&quot;Address2&quot;:&quot;&lt;B&gt; &amp; Co&quot;}"
+                + "'/></form>"
+                + "<script language='javascript'>var v__PostForm=document.__PostForm;v__PostForm.submit();</script>",
+                html);
     }
 }
@@ -1,10 +1,18 @@
 package com.ruc.payments;
 
+import com.ruc.payments.codec.DeflatePayloadCodec;
+import com.ruc.payments.codec.PayloadCodecs;
+import com.ruc.payments.codec.PlainPayloadCodec;
+import com.ruc.payments.config.AppConfig;
 import com.ruc.payments.entity.EppTransaction;
+import com.ruc.payments.entity.EppTransactionPayload;
+import com.ruc.payments.repo.EppTransactionPayloadRepository;
 import com.ruc.payments.repo.EppTransactionRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
@@ -14,10 +22,17 @@ import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
 @ActiveProfiles("test")
+@Import({AppConfig.class, PayloadCodecs.class, PlainPayloadCodec.class, DeflatePayloadCodec.class})
 public class EppTransactionRepositoryTest {
     @Autowired
     private EppTransactionRepository repo;
 
+    @Autowired
+    private EppTransactionPayloadRepository payloadRepo;
+
+    @Autowired
+    private TestEntityManager em;
+
     @Test
     void saveAndFindByOrderKeyAndApplicationUniqueId() {
         EppTransaction tx = new EppTransaction();
@@ -26,8 +41,6 @@ public class EppTransactionRepositoryTest {
         tx.setStatus("APP");
         tx.setAmount(new BigDecimal("1.00"));
         tx.setEmail("a@b.com");
-        tx.setRawRequest("{}");
-        tx.setRawResponse("{}");
 
         repo.save(tx);
 
@@ -35,4 +48,23 @@ public class EppTransactionRepositoryTest {
         assertTrue(found.isPresent());
         assertEquals("APP", found.get().getStatus());
     }
+
+    @Test
+    void payloadIsStoredSeparatelyFromTransactionRow() {
+        EppTransaction tx = new EppTransaction();
+        tx.setOrderKey("ORD2");
+        tx.setApplicationUniqueId("APP1");
+        tx.setStatus("APP");
+        tx.setAmount(new BigDecimal("1.00"));
+        repo.saveAndFlush(tx);
+
+        repo.savePayload(tx.getId(), "{\"OrderKey\":\"ORD2\"}", null);
+        repo.savePayload(tx.getId(), null, "{\"Status\":\"COM\"}");
+        em.clear();
+
+        assertTrue(repo.findByOrderKeyAndApplicationUniqueId("ORD2", "APP1").isPresent());
+        EppTransactionPayload payload = payloadRepo.findById(tx.getId()).orElseThrow();
+        assertEquals("{\"OrderKey\":\"ORD2\"}", payload.getRawRequest());
+        assertEquals("{\"Status\":\"COM\"}", payload.getRawResponse());
+    }
 }
@@ -0,0 +1,154 @@
+package com.ruc.payments;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruc.payments.codec.JsonCodecs;
+import com.ruc.payments.config.EppProperties;
+import com.ruc.payments.controller.TestUIController;
+import com.ruc.payments.service.CheckoutFormTemplate;
+import com.ruc.payments.service.EppClient;
+import com.ruc.payments.util.HtmlEscaper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Property checks: for random input, the one-pass escaper must produce exactly what the
+ * original chain of five {@code String.replace} calls produced.
+ */
+public class HtmlEscaperTest {
+
+    private static final int SAMPLES = 5_000;
+    private static final String GATEWAY_URL = "https://epp.example.com/Payment/Index";
+    private static final String FORM_OPEN = "<form id='__PostForm' name='__PostForm' action='" + GATEWAY_URL
+            + "' method='POST'><input type='hidden' name='saleDetail' value='";
+    private static final String FORM_CLOSE = "'/></form>"
+            + "<script language='javascript'>var v__PostForm=document.__PostForm;v__PostForm.submit();</script>";
+
+    /** The escaping EppClient shipped with, kept here as the reference. */
+    private static String legacyEscape(String input) {
+        if (input == null) return "";
+        return input
+                .replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&#39;");
+    }
+
+    /**
+     * Mostly escapable and entity-like characters, plus ASCII, accented letters and
+     * surrogate pairs, at lengths from empty to a few hundred characters.
+     */
+    private static String randomText(SplittableRandom random) {
+        String special = "&<>\"';#{}:,";
+        int length = random.nextInt(5) == 0 ? 0 : random.nextInt(300);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            switch (random.nextInt(6)) {
+                case 0, 1 -> sb.append(special.charAt(random.nextInt(special.length())));
+                case 2 -> sb.append(random.nextBoolean() ? "&amp;" : "&#39;");
+                case 3 -> sb.append((char) (0x20 + random.nextInt(0x5F)));
+                case 4 -> sb.append((char) (0xC0 + random.nextInt(0x100)));
+                default -> sb.appendCodePoint(0x1F300 + random.nextInt(0x200));
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void escape_matchesChainedReplace() throws Exception {
+        SplittableRandom random = new SplittableRandom(15);
+        for (int i = 0; i < SAMPLES; i++) {
+            String input = randomText(random);
+            String expected = legacyEscape(input);
+
+            assertEquals(expected, HtmlEscaper.escape(input), () -> "escape(" + input + ")");
+
+            StringBuilder builder = new StringBuilder("prefix|");
+            HtmlEscaper.appendEscaped(builder, input);
+            assertEquals("prefix|" + expected, builder.toString(), () -> "StringBuilder append of " + input);
+
+            StringWriter writer = new StringWriter();
+            HtmlEscaper.appendEscaped(writer, input);
+            assertEquals(expected, writer.toString(), () -> "Appendable append of " + input);
+        }
+    }
+
+    @Test
+    void escapedUtf8_matchesEncodedReplaceOutput() throws Exception {
+        SplittableRandom random = new SplittableRandom(18);
+        for (int i = 0; i < SAMPLES; i++) {
+            String text = randomText(random);
+            // Unpaired surrogates must be replaced the way String.getBytes does it
+            String input = random.nextInt(10) == 0 ? text + '\uD83C' + text + '\uDC00' : text;
+            byte[] expected = legacyEscape(input).getBytes(StandardCharsets.UTF_8);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            HtmlEscaper.writeEscapedUtf8(out, input);
+
+            assertArrayEquals(expected, out.toByteArray(), () -> "UTF-8 of " + input);
+            assertEquals(expected.length, HtmlEscaper.escapedUtf8Length(input));
+            assertEquals(legacyEscape(input).length(), HtmlEscaper.escapedLength(input));
+        }
+    }
+
+    @Test
+    void escape_returnsSameInstanceWhenNothingToEscape() {
+        String clean = "RUC-2024-000123 Harrisburg PA 17111 Zoë";
+        assertSame(clean, HtmlEscaper.escape(clean));
+        assertEquals("", HtmlEscaper.escape(null));
+
+        StringBuilder builder = new StringBuilder();
+        HtmlEscaper.appendEscaped(builder, (CharSequence) null);
+        assertEquals("", builder.toString());
+    }
+
+    @Test
+    void eppClientForm_matchesChainedReplace() {
+        EppProperties props = new EppProperties();
+        props.setPaymentGatewayIndexUrl(GATEWAY_URL);
+        EppClient eppClient = new EppClient(new CheckoutFormTemplate(props), new JsonCodecs(new ObjectMapper()));
+
+        SplittableRandom random = new SplittableRandom(16);
+        for (int i = 0; i < SAMPLES; i++) {
+            String json = randomText(random);
+            assertEquals(FORM_OPEN + legacyEscape(json) + FORM_CLOSE, eppClient.buildHostedCheckoutForm(json));
+        }
+    }
+
+    @Test
+    void testUiForm_escapesPayloadLikeEppClient() throws Exception {
+        EppProperties props = new EppProperties();
+        props.setPaymentGatewayIndexUrl(GATEWAY_URL);
+        JsonCodecs jsonCodecs = new JsonCodecs(new ObjectMapper());
+        TestUIController controller = new TestUIController(props, jsonCodecs, new CheckoutFormTemplate(props));
+
+        SplittableRandom random = new SplittableRandom(17);
+        for (int i = 0; i < 200; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.setParameter("applicationCode", "3256d54a-9e63-4c7d-b2f9-a2897ec82aab");
+            request.setParameter("orderKey", "TEST-ORDER-" + i);
+            request.setParameter("firstName", randomText(random));
+            request.setParameter("lastName", randomText(random));
+            request.setParameter("address1", randomText(random));
+            request.setParameter("city", "Harrisburg");
+            request.setParameter("stateCode", "PA");
+            request.setParameter("zipCode", "17111");
+            request.setParameter("email", "testuser@gmail.com");
+            request.setParameter("amount", "100.00");
+            request.setParameter("description", randomText(random));
+
+            Map<String, Object> response = controller.method4Ajax(request);
+            String json = (String) controller.method5Rest(request).get("paymentData");
+
+            assertEquals(FORM_OPEN + legacyEscape(json) + FORM_CLOSE, response.get("formHtml"));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.ruc.payments;
+
+import com.ruc.payments.config.OrderLockProperties;
+import com.ruc.payments.exception.PaymentProcessingException;
+import com.ruc.payments.service.impl.OrderLocks;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderLocksTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 2_000;
+
+    private static OrderLocks locks(int stripes, long timeoutMs) {
+        OrderLockProperties properties = new OrderLockProperties();
+        properties.setStripes(stripes);
+        properties.setTimeoutMs(timeoutMs);
+        return new OrderLocks(properties);
+    }
+
+    @Test
+    void withLock_sameOrderRunsOneAtATime() throws Exception {
+        OrderLocks locks = locks(256, 5000);
+        int[] counter = new int[1];
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            CyclicBarrier go = new CyclicBarrier(THREADS);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    go.await(10, TimeUnit.SECONDS);
+                    for (int i = 0; i < OPERATIONS; i++) {
+                        locks.withLock("ORD-HOT", () -> {
+                            maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                            counter[0]++;
+                            inside.decrementAndGet();
+                            return null;
+                        });
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(THREADS * OPERATIONS, counter[0]);
+        assertEquals(1, maxInside.get());
+    }
+
+    @Test
+    void withLock_otherStripesAreNotBlocked() throws Exception {
+        OrderLocks locks = locks(256, 200);
+        String held = "ORD-HELD";
+        String other = "ORD-OTHER-0";
+        for (int i = 1; locks.stripeOf(other) == locks.stripeOf(held); i++) {
+            other = "ORD-OTHER-" + i;
+        }
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> locks.withLock(held, () -> {
+            holding.countDown();
+            await(release);
+            return null;
+        }));
+        try {
+            assertTrue(holding.await(10, TimeUnit.SECONDS));
+            assertEquals("done", locks.withLock(other, () -> "done"));
+
+            PaymentProcessingException e = assertThrows(PaymentProcessingException.class,
+                    () -> locks.withLock(held, () -> "never"));
+            assertEquals("ORDER_LOCK_TIMEOUT", e.getErrorCode());
+        } finally {
+            release.countDown();
+        }
+        holder.get(10, TimeUnit.SECONDS);
+        assertEquals("after", locks.withLock(held, () -> "after"));
+    }
+
+    @Test
+    void withLocks_mixedWithSingleOrderCallersDoesNotDeadlock() throws Exception {
+        OrderLocks locks = locks(8, 10_000);
+        int orders = 32;
+        int[] counters = new int[orders];
+        AtomicInteger increments = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            CyclicBarrier go = new CyclicBarrier(THREADS);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                SplittableRandom random = new SplittableRandom(21 + t);
+                futures.add(pool.submit(() -> {
+                    go.await(10, TimeUnit.SECONDS);
+                    for (int i = 0; i < OPERATIONS / 4; i++) {
+                        if (random.nextInt(4) == 0) {
+                            List<Integer> batch = new ArrayList<>();
+                            List<String> keys = new ArrayList<>();
+                            for (int k = 0; k < 5; k++) {
+                                int order = random.nextInt(orders);
+                                batch.add(order);
+                                keys.add("ORD-" + order);
+                            }
+                            locks.withLocks(keys, () -> {
+                                batch.forEach(order -> counters[order]++);
+                                return null;
+                            });
+                            increments.addAndGet(batch.size());
+                        } else {
+                            int order = random.nextInt(orders);
+                            locks.withLock("ORD-" + order, () -> counters[order]++);
+                            increments.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int total = 0;
+        for (int count : counters) {
+            total += count;
+        }
+        assertEquals(increments.get(), total);
+    }
+
+    @Test
+    void stripes_areRoundedUpToAPowerOfTwo() {
+        assertEquals(1, locks(1, 100).stripeCount());
+        assertEquals(128, locks(100, 100).stripeCount());
+        assertEquals(256, locks(256, 100).stripeCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
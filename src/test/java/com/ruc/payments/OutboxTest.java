@@ -0,0 +1,185 @@
+package com.ruc.payments;
+
+import com.ruc.payments.outbox.InMemoryOutboxSink;
+import com.ruc.payments.outbox.OutboxEvent;
+import com.ruc.payments.outbox.OutboxRelay;
+import com.ruc.payments.service.PaymentService;
+import com.ruc.payments.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.ruc.payments.TestPayments.APP_ID;
+import static com.ruc.payments.TestPayments.callback;
+import static com.ruc.payments.TestPayments.started;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest(properties = {
+        "ruc.payments.outbox.enabled=true",
+        "ruc.payments.outbox.sink=memory",
+        "ruc.payments.outbox.settleMs=0",
+        "ruc.payments.outbox.batchSize=2",
+        "ruc.payments.outbox.pollIntervalMs=3600000" // relayed by the tests themselves
+})
+@ActiveProfiles("test")
+public class OutboxTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @SpyBean
+    private InMemoryOutboxSink sink;
+
+    private int events(String orderKey) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM epp_outbox WHERE order_key = ?", Integer.class, orderKey);
+    }
+
+    private List<OutboxEvent> published(String prefix) {
+        return sink.events().stream().filter(event -> event.orderKey().startsWith(prefix)).toList();
+    }
+
+    @Test
+    void completion_recordsOneEventWithTheStatusChange() {
+        String prefix = "ORD-OUTBOX-" + System.nanoTime() + "-";
+        // Not a whole number, so a COALESCE that drops the scale shows
+        started(transactionService, prefix + "paid", APP_ID, new BigDecimal("42.50"));
+        started(transactionService, prefix + "declined");
+
+        paymentService.processCallback(callback(prefix + "paid", "COM"));
+        paymentService.processCallback(callback(prefix + "paid", "COM"));
+        paymentService.processCallback(callback(prefix + "declined", "DEC"));
+        paymentService.processCallbacks(List.of(callback(prefix + "bulk", "COM"), callback(prefix + "declined", "COM")));
+
+        assertEquals(1, events(prefix + "paid"), "a replayed COM must not add a second event");
+        assertEquals(1, events(prefix + "bulk"));
+        assertEquals(1, events(prefix + "declined"));
+        OutboxEvent event = jdbc.queryForObject(
+                "SELECT id, transaction_id, amount, auth_code FROM epp_outbox WHERE order_key = ?",
+                (rs, i) -> new OutboxEvent(rs.getLong("id"), OutboxEvent.PAYMENT_COMPLETED, rs.getLong("transaction_id"),
+                        prefix + "paid", APP_ID, "COM", rs.getBigDecimal("amount"), rs.getString("auth_code"), null, null),
+                prefix + "paid");
+        assertEquals(new BigDecimal("42.50"), event.amount());
+        assertEquals("AUTH-" + prefix + "paid", event.authCode());
+        assertEquals(transactionService.findTransaction(prefix + "paid", APP_ID).getId(), event.transactionId());
+    }
+
+    @Test
+    void rolledBackCompletion_leavesNoEvent() {
+        String orderKey = "ORD-OUTBOX-ROLLBACK-" + System.nanoTime();
+        started(transactionService, orderKey);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            transactionService.createOrUpdateTransaction(orderKey, APP_ID, "COM",
+                    null, null, null, "{}", "AUTH1", null);
+            assertEquals(1, events(orderKey));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, events(orderKey));
+        assertEquals("APP", transactionService.findTransaction(orderKey, APP_ID).getStatus());
+    }
+
+    @Test
+    void relay_publishesInIdOrderAndAdvancesTheHighWaterMark() throws Exception {
+        String prefix = "ORD-OUTBOX-RELAY-" + System.nanoTime() + "-";
+        for (int i = 0; i < 5; i++) {
+            started(transactionService, prefix + i);
+            paymentService.processCallback(callback(prefix + i, "COM"));
+        }
+
+        assertTrue(relay.relay() >= 5);
+
+        List<OutboxEvent> events = published(prefix);
+        assertEquals(5, events.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(prefix + i, events.get(i).orderKey());
+            assertEquals("COM", events.get(i).status());
+        }
+        long last = events.get(events.size() - 1).id();
+        assertEquals(jdbc.queryForObject("SELECT MAX(id) FROM epp_outbox", Long.class), relay.highWaterMark());
+        assertTrue(relay.highWaterMark() >= last);
+        assertEquals(relay.highWaterMark(), jdbc.queryForObject(
+                "SELECT last_event_id FROM epp_outbox_relay WHERE relay_name = 'default'", Long.class));
+        assertEquals(0, relay.relay());
+    }
+
+    @Test
+    void failingSink_getsTheSameEventsAgain() throws Exception {
+        relay.relay();
+        String orderKey = "ORD-OUTBOX-RETRY-" + System.nanoTime();
+        started(transactionService, orderKey);
+        paymentService.processCallback(callback(orderKey, "COM"));
+        long mark = relay.highWaterMark();
+
+        doThrow(new IllegalStateException("downstream unavailable")).doCallRealMethod().when(sink).publish(anyList());
+        assertThrows(IllegalStateException.class, () -> relay.relay());
+        assertEquals(mark, relay.highWaterMark(), "the mark must not pass undelivered events");
+        assertTrue(published(orderKey).isEmpty());
+
+        assertEquals(1, relay.relay());
+        assertEquals(1, published(orderKey).size());
+        assertTrue(relay.highWaterMark() > mark);
+    }
+
+    @Test
+    void eventCommittingAfterAHigherId_isStillRelayed() throws Exception {
+        relay.relay();
+        String prefix = "ORD-OUTBOX-LATE-" + System.nanoTime() + "-";
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        // Draws the lower event id, then holds its transaction open
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    transactionService.createOrUpdateTransaction(prefix + "slow", APP_ID, "COM",
+                            null, null, null, "{}", "AUTH1", null);
+                    inserted.countDown();
+                    try {
+                        assertTrue(commit.await(10, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertTrue(inserted.await(10, TimeUnit.SECONDS));
+        paymentService.processCallback(callback(prefix + "fast", "COM"));
+
+        assertEquals(1, relay.relay());
+        assertEquals(1, published(prefix + "fast").size());
+        long fastId = published(prefix + "fast").get(0).id();
+
+        commit.countDown();
+        slow.get(10, TimeUnit.SECONDS);
+        long slowId = jdbc.queryForObject("SELECT id FROM epp_outbox WHERE order_key = ?", Long.class, prefix + "slow");
+        assertTrue(slowId < fastId, "the slow write drew the lower id");
+        assertTrue(relay.highWaterMark() >= fastId);
+
+        assertEquals(1, relay.relay());
+        assertEquals(1, published(prefix + "slow").size(), "committed below the high-water mark");
+        assertEquals(0, relay.relay());
+    }
+}
@@ -0,0 +1,68 @@
+package com.ruc.payments;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruc.payments.codec.DeflatePayloadCodec;
+import com.ruc.payments.codec.PayloadCodecs;
+import com.ruc.payments.codec.PlainPayloadCodec;
+import com.ruc.payments.config.PayloadProperties;
+import com.ruc.payments.dto.EppResponse;
+import com.ruc.payments.exception.PaymentProcessingException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PayloadCodecsTest {
+
+    private static PayloadCodecs codecs(String writer) {
+        PayloadProperties properties = new PayloadProperties();
+        properties.setCodec(writer);
+        return new PayloadCodecs(List.of(new PlainPayloadCodec(), new DeflatePayloadCodec()), properties);
+    }
+
+    @Test
+    void deflate_roundTripsAndShrinksEppResponse() throws Exception {
+        EppResponse response = new EppResponse();
+        response.setOrderKey("RUC-2024-000123");
+        response.setApplicationUniqueId("APP-889911");
+        response.setApplicationCode("3256d54a-9e63-4c7d-b2f9-a2897ec82aab");
+        response.setStatus("COM");
+        response.setCardHolderName("John O'Brien");
+        response.setCity("Harrisburg");
+        response.setStateCode("PA");
+        response.setZipCode("17111");
+        response.setTotalAmount(new BigDecimal("76.00"));
+        response.setAuthCode("A1B2C3");
+        String json = new ObjectMapper().writeValueAsString(response);
+
+        byte[] stored = codecs("deflate").encode(json);
+
+        assertEquals(DeflatePayloadCodec.ID, stored[0]);
+        assertTrue(stored.length * 3 < json.length(), "expected at least 3x, got " + json.length() + " -> " + stored.length);
+        assertEquals(json, codecs("deflate").decode(stored));
+    }
+
+    @Test
+    void decode_readsPayloadsWrittenByAnyRegisteredCodec() {
+        byte[] plain = codecs("plain").encode("{\"City\":\"Zürich\"}");
+        byte[] deflated = codecs("deflate").encode("{\"City\":\"Zürich\"}");
+
+        assertEquals(PlainPayloadCodec.ID, plain[0]);
+        assertEquals("{\"City\":\"Zürich\"}", codecs("deflate").decode(plain));
+        assertEquals("{\"City\":\"Zürich\"}", codecs("plain").decode(deflated));
+        assertNull(codecs("deflate").encode(null));
+        assertNull(codecs("deflate").decode(null));
+    }
+
+    @Test
+    void decode_rejectsUnknownCodecId() {
+        byte[] stored = "\u0007{}".getBytes(StandardCharsets.UTF_8);
+
+        PaymentProcessingException e = assertThrows(PaymentProcessingException.class,
+                () -> codecs("deflate").decode(stored));
+        assertEquals("PAYLOAD_DECODE_FAILED", e.getErrorCode());
+    }
+}
@@ -1,12 +1,15 @@
 package com.ruc.payments;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruc.payments.codec.JsonCodecs;
+import com.ruc.payments.controller.PaymentStatusFeed;
 import com.ruc.payments.dto.SaleDetails;
 import com.ruc.payments.dto.SaleItems;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -14,6 +17,7 @@ import com.ruc.payments.service.EppClient;
 import com.ruc.payments.service.PaymentService;
 import com.ruc.payments.repo.EppTransactionRepository;
 import com.ruc.payments.config.EppProperties;
+import com.ruc.payments.service.CheckoutFormTemplate;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -25,6 +29,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest
 @ActiveProfiles("test")
+@Import({JsonCodecs.class, CheckoutFormTemplate.class})
 public class PaymentControllerTest {
     @Autowired
     private MockMvc mockMvc;
@@ -41,6 +46,9 @@ public class PaymentControllerTest {
     @MockBean
     private EppProperties eppProperties;
 
+    @MockBean
+    private PaymentStatusFeed statusFeed;
+
     @Autowired
     private ObjectMapper objectMapper;
 
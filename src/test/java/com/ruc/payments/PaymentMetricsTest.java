@@ -0,0 +1,92 @@
+package com.ruc.payments;
+
+import com.ruc.payments.dto.SaleDetails;
+import com.ruc.payments.exception.PaymentProcessingException;
+import com.ruc.payments.metrics.PaymentMetrics;
+import com.ruc.payments.service.PaymentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static com.ruc.payments.TestPayments.APP_ID;
+import static com.ruc.payments.TestPayments.callback;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+public class PaymentMetricsTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private static SaleDetails sale(String orderKey, BigDecimal amount) {
+        SaleDetails details = new SaleDetails();
+        details.setOrderKey(orderKey);
+        details.setApplicationUniqueId(APP_ID);
+        details.setTotalAmount(amount);
+        details.setEmail("a@b.com");
+        return details;
+    }
+
+    private double count(String name, String... tags) {
+        return registry.get(name).tags(tags).counter().count();
+    }
+
+    private long timerCount(String name, String... tags) {
+        return registry.get(name).tags(tags).timer().count();
+    }
+
+    @Test
+    void paymentFlow_recordsStagesStatusesAndErrorCodes() {
+        String orderKey = "ORD-METRICS-" + System.nanoTime();
+        long forms = timerCount(PaymentMetrics.STAGE_TIMER, "operation", "initiate", "stage", "form");
+        double completed = count(PaymentMetrics.CALLBACK_COUNTER, "status", "COM");
+        double other = count(PaymentMetrics.CALLBACK_COUNTER, "status", "OTHER");
+
+        paymentService.initiatePayment(sale(orderKey, new BigDecimal("10.00")));
+        paymentService.processCallback(callback(orderKey, "ZZZ"));
+        paymentService.processCallback(callback(orderKey, "COM"));
+        // Too late: the order is completed, so this is acknowledged but not applied or counted
+        paymentService.processCallback(callback(orderKey, "DEC"));
+        assertThrows(PaymentProcessingException.class,
+                () -> paymentService.initiatePayment(sale(orderKey, BigDecimal.ZERO)));
+
+        assertEquals(forms + 1, timerCount(PaymentMetrics.STAGE_TIMER, "operation", "initiate", "stage", "form"));
+        assertTrue(timerCount(PaymentMetrics.STAGE_TIMER, "operation", "callback", "stage", "persistence") >= 2);
+        assertTrue(timerCount(PaymentMetrics.UPSERT_TIMER, "mode", "direct") >= 3);
+        assertEquals(completed + 1, count(PaymentMetrics.CALLBACK_COUNTER, "status", "COM"));
+        assertEquals(other + 1, count(PaymentMetrics.CALLBACK_COUNTER, "status", "OTHER"));
+        assertTrue(count(PaymentMetrics.ERROR_COUNTER, "operation", "initiate", "code", "INVALID_AMOUNT") >= 1);
+        assertTrue(count(PaymentMetrics.ERROR_COUNTER, "operation", "callback", "code", "INVALID_STATUS_TRANSITION") >= 1);
+    }
+
+    @Test
+    void prometheusEndpoint_exposesPaymentMeters() throws Exception {
+        paymentService.initiatePayment(sale("ORD-SCRAPE-" + System.nanoTime(), BigDecimal.ONE));
+
+        String body = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(body.contains("epp_payment_stage_seconds_bucket{"), body);
+        assertTrue(body.contains("epp_callback_status_total{"), body);
+        assertTrue(body.contains("cache_gets_total{") && body.contains("cache=\"eppTransactionLookup\""), body);
+    }
+}
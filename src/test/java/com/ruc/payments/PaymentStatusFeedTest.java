@@ -0,0 +1,174 @@
+package com.ruc.payments;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruc.payments.controller.PaymentStatusFeed;
+import com.ruc.payments.service.PaymentService;
+import com.ruc.payments.service.TransactionService;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.ruc.payments.TestPayments.APP_ID;
+import static com.ruc.payments.TestPayments.callback;
+import static com.ruc.payments.TestPayments.started;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class PaymentStatusFeedTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PaymentStatusFeed feed;
+
+    private MvcResult poll(String orderKey, String since) throws Exception {
+        return mockMvc.perform(get("/payments/epp/status/{orderKey}", orderKey)
+                        .param("applicationUniqueId", APP_ID)
+                        .param("since", since)
+                        .param("timeoutMs", "10000"))
+                .andReturn();
+    }
+
+    private JsonNode answer(MvcResult parked, int expectedStatus) throws Exception {
+        var response = mockMvc.perform(asyncDispatch(parked)).andReturn().getResponse();
+        assertEquals(expectedStatus, response.getStatus());
+        return expectedStatus == 200 ? objectMapper.readTree(response.getContentAsString()) : null;
+    }
+
+    @Test
+    void longPoll_answersAtOnceUnlessTheStatusIsStillTheOneSeen() throws Exception {
+        String orderKey = "ORD-STATUS-NOW-" + System.nanoTime();
+        started(transactionService, orderKey);
+
+        JsonNode body = answer(poll(orderKey, "CAN"), 200);
+        assertEquals("APP", body.get("status").asText());
+        assertEquals(orderKey, body.get("orderKey").asText());
+
+        answer(poll(orderKey + "-missing", "APP"), 404);
+    }
+
+    @Test
+    void longPoll_isParkedUntilTheCallbackCommits() throws Exception {
+        String orderKey = "ORD-STATUS-WAKE-" + System.nanoTime();
+        started(transactionService, orderKey);
+
+        MvcResult parked = poll(orderKey, "APP");
+        assertTrue(parked.getRequest().isAsyncStarted());
+        assertTrue(feed.watching() >= 1);
+        assertThrows(IllegalStateException.class, () -> parked.getAsyncResult(200), "nothing was written yet");
+
+        paymentService.processCallback(callback(orderKey, "COM"));
+
+        JsonNode body = answer(parked, 200);
+        assertEquals("COM", body.get("status").asText());
+        assertEquals("REF-" + orderKey, body.get("referenceNo").asText());
+
+        // Final: even a client that saw COM is answered at once
+        assertEquals("COM", answer(poll(orderKey, "COM"), 200).get("status").asText());
+    }
+
+    @Test
+    void longPoll_ignoresRolledBackWritesAndTimesOutWithTheStatusSeen() throws Exception {
+        String orderKey = "ORD-STATUS-ROLLBACK-" + System.nanoTime();
+        started(transactionService, orderKey);
+        MvcResult parked = poll(orderKey, "APP");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            transactionService.createOrUpdateTransaction(orderKey, APP_ID, "COM",
+                    null, null, null, "{}", "AUTH1", null);
+            status.setRollbackOnly();
+        });
+        assertThrows(IllegalStateException.class, () -> parked.getAsyncResult(300), "a rolled-back write woke it");
+
+        MockAsyncContext context = (MockAsyncContext) parked.getRequest().getAsyncContext();
+        for (AsyncListener listener : context.getListeners()) {
+            listener.onTimeout(new AsyncEvent(context));
+        }
+        assertEquals("APP", answer(parked, 200).get("status").asText());
+    }
+
+    @Test
+    void longPoll_timesOutWithTheRowAsItIsThen() throws Exception {
+        String orderKey = "ORD-STATUS-TIMEOUT-" + System.nanoTime();
+        long version = started(transactionService, orderKey, null, new BigDecimal("10.00")).getVersion();
+        MvcResult parked = mockMvc.perform(get("/payments/epp/status/{orderKey}", orderKey)
+                        .param("since", "APP")
+                        .param("timeoutMs", "10000"))
+                .andReturn();
+        assertTrue(parked.getRequest().isAsyncStarted(), "no applicationUniqueId is needed");
+
+        // A retried start keeps the status, so the request stays parked
+        started(transactionService, orderKey, null, new BigDecimal("12.00"));
+        assertThrows(IllegalStateException.class, () -> parked.getAsyncResult(300), "the status did not change");
+
+        MockAsyncContext context = (MockAsyncContext) parked.getRequest().getAsyncContext();
+        for (AsyncListener listener : context.getListeners()) {
+            listener.onTimeout(new AsyncEvent(context));
+        }
+        JsonNode body = answer(parked, 200);
+        assertEquals("APP", body.get("status").asText());
+        assertEquals(version + 1, body.get("version").asLong());
+    }
+
+    @Test
+    void stream_sendsEveryCommittedStatusAndEndsAfterCompletion() throws Exception {
+        String orderKey = "ORD-STATUS-SSE-" + System.nanoTime();
+        started(transactionService, orderKey);
+
+        MvcResult stream = mockMvc.perform(get("/payments/epp/status/{orderKey}/stream", orderKey)
+                        .param("applicationUniqueId", APP_ID))
+                .andReturn();
+        assertTrue(stream.getRequest().isAsyncStarted());
+
+        paymentService.processCallback(callback(orderKey, "DEC"));
+        paymentService.processCallbacks(List.of(callback(orderKey, "COM")));
+
+        stream.getAsyncResult(10000);
+        String events = stream.getResponse().getContentAsString();
+        List<String> statuses = events.lines()
+                .filter(line -> line.startsWith("data:"))
+                .map(line -> {
+                    try {
+                        return objectMapper.readTree(line.substring(5)).get("status").asText();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+        assertEquals("APP", statuses.get(0));
+        assertEquals("COM", statuses.get(statuses.size() - 1));
+        assertTrue(events.contains("event:status"));
+
+        assertEquals(404, mockMvc.perform(get("/payments/epp/status/{orderKey}/stream", orderKey + "-missing")
+                .param("applicationUniqueId", APP_ID)).andReturn().getResponse().getStatus());
+    }
+}
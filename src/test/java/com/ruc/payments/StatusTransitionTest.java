@@ -0,0 +1,127 @@
+package com.ruc.payments;
+
+import com.ruc.payments.dto.ApplicationResponse;
+import com.ruc.payments.dto.BulkCallbackResult;
+import com.ruc.payments.dto.SaleDetails;
+import com.ruc.payments.entity.EppTransaction;
+import com.ruc.payments.entity.TransactionStatus;
+import com.ruc.payments.exception.StatusTransitionException;
+import com.ruc.payments.repo.EppTransactionRepository;
+import com.ruc.payments.service.PaymentService;
+import com.ruc.payments.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.ruc.payments.TestPayments.APP_ID;
+import static com.ruc.payments.TestPayments.callback;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class StatusTransitionTest {
+
+    private static final String[] STATUSES = {"APP", "COM", "CAN", "DEC", "ZZZ"};
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private EppTransactionRepository repo;
+
+    private EppTransaction write(String orderKey, String status) {
+        return transactionService.createOrUpdateTransaction(orderKey, APP_ID, status,
+                new BigDecimal("10.00"), null, null, null, null, null);
+    }
+
+    /**
+     * The MERGE guard is the real enforcement; it must agree with
+     * {@link TransactionStatus#canTransition} for every pair of statuses.
+     */
+    @Test
+    void upsert_acceptsExactlyTheTransitionsTheStateMachineAllows() {
+        String prefix = "ORD-FSM-" + System.nanoTime() + "-";
+        int n = 0;
+        for (String from : STATUSES) {
+            for (String to : STATUSES) {
+                String orderKey = prefix + n++;
+                write(orderKey, "APP");
+                EppTransaction before = write(orderKey, from);
+
+                if (TransactionStatus.canTransition(from, to)) {
+                    assertEquals(to, write(orderKey, to).getStatus(), from + " -> " + to);
+                } else {
+                    StatusTransitionException e = assertThrows(StatusTransitionException.class,
+                            () -> write(orderKey, to), from + " -> " + to);
+                    assertEquals(from, e.getCurrentStatus());
+                    assertEquals(to, e.getRequestedStatus());
+                    EppTransaction after = repo.readRow(orderKey, APP_ID);
+                    assertEquals(from, after.getStatus());
+                    assertEquals(before.getVersion(), after.getVersion(), "rejected write must not bump the version");
+                }
+            }
+        }
+    }
+
+    @Test
+    void upsert_bumpsVersionOnEveryAppliedWrite() {
+        String orderKey = "ORD-VERSION-" + System.nanoTime();
+
+        assertEquals(0L, write(orderKey, "APP").getVersion());
+        assertEquals(1L, write(orderKey, "DEC").getVersion());
+        assertEquals(2L, write(orderKey, "APP").getVersion());
+        assertEquals(3L, write(orderKey, "COM").getVersion());
+        assertEquals(4L, write(orderKey, "COM").getVersion());
+    }
+
+    @Test
+    void completedOrder_rejectsRestartAndAcknowledgesLateCallback() {
+        String orderKey = "ORD-LATE-" + System.nanoTime();
+        SaleDetails sale = new SaleDetails();
+        sale.setOrderKey(orderKey);
+        sale.setApplicationUniqueId(APP_ID);
+        sale.setTotalAmount(new BigDecimal("10.00"));
+        sale.setEmail("a@b.com");
+
+        paymentService.initiatePayment(sale);
+        paymentService.processCallback(callback(orderKey, "COM"));
+
+        StatusTransitionException restart = assertThrows(StatusTransitionException.class,
+                () -> paymentService.initiatePayment(sale));
+        assertEquals("INVALID_STATUS_TRANSITION", restart.getErrorCode());
+
+        ApplicationResponse late = paymentService.processCallback(callback(orderKey, "DEC"));
+        assertEquals("COM", late.getStatus());
+        assertTrue(late.getMessage().startsWith("Callback ignored"), late.getMessage());
+        assertEquals("COM", repo.readRow(orderKey, APP_ID).getStatus());
+    }
+
+    @Test
+    void bulkCallbacks_foldThroughTheStateMachineInRequestOrder() {
+        String prefix = "ORD-FSM-BULK-" + System.nanoTime() + "-";
+        write(prefix + 0, "APP");
+        write(prefix + 1, "COM");
+
+        List<BulkCallbackResult> results = paymentService.processCallbacks(List.of(
+                callback(prefix + 0, "DEC"),
+                callback(prefix + 0, "COM"),
+                callback(prefix + 0, "CAN"),
+                callback(prefix + 1, "DEC")));
+
+        assertEquals("SUPERSEDED", results.get(0).getOutcome());
+        assertEquals("UPDATED", results.get(1).getOutcome());
+        assertEquals("REJECTED", results.get(2).getOutcome());
+        assertEquals("COM", results.get(2).getStatus());
+        assertEquals("INVALID_STATUS_TRANSITION", results.get(2).getErrorCode());
+        assertEquals("REJECTED", results.get(3).getOutcome());
+        assertEquals("COM", repo.readRow(prefix + 0, APP_ID).getStatus());
+        assertEquals("COM", repo.readRow(prefix + 1, APP_ID).getStatus());
+    }
+}
@@ -0,0 +1,53 @@
+package com.ruc.payments;
+
+import com.ruc.payments.dto.EppResponse;
+import com.ruc.payments.entity.EppTransaction;
+import com.ruc.payments.service.TransactionService;
+
+import java.math.BigDecimal;
+
+/**
+ * Orders and EPP callbacks shared by the tests that drive payments through start and
+ * OnEPPResult. Tests pick their own order keys, so tests sharing a context never see
+ * each other's rows.
+ */
+final class TestPayments {
+
+    static final String APP_CODE = "3256d54a-9e63-4c7d-b2f9-a2897ec82aab";
+    static final String APP_ID = "APP1";
+
+    private TestPayments() {
+    }
+
+    /**
+     * A callback for {@link #APP_ID} with an auth code and reference derived from the order key.
+     */
+    static EppResponse callback(String orderKey, String status) {
+        return callback(orderKey, APP_ID, status, "AUTH-" + orderKey, "REF-" + orderKey);
+    }
+
+    static EppResponse callback(String orderKey, String applicationUniqueId, String status,
+                                String authCode, String referenceNo) {
+        EppResponse response = new EppResponse();
+        response.setOrderKey(orderKey);
+        response.setApplicationUniqueId(applicationUniqueId);
+        response.setApplicationCode(APP_CODE);
+        response.setStatus(status);
+        response.setAuthCode(authCode);
+        response.setReferenceNo(referenceNo);
+        return response;
+    }
+
+    /**
+     * Writes the APP row a start call leaves behind, for 10.00 under {@link #APP_ID}.
+     */
+    static EppTransaction started(TransactionService transactionService, String orderKey) {
+        return started(transactionService, orderKey, APP_ID, new BigDecimal("10.00"));
+    }
+
+    static EppTransaction started(TransactionService transactionService, String orderKey,
+                                  String applicationUniqueId, BigDecimal amount) {
+        return transactionService.createOrUpdateTransaction(orderKey, applicationUniqueId, "APP",
+                amount, "a@b.com", "{}", null, null, null);
+    }
+}
@@ -0,0 +1,95 @@
+package com.ruc.payments;
+
+import com.ruc.payments.entity.EppTransaction;
+import com.ruc.payments.exception.StatusTransitionException;
+import com.ruc.payments.repo.EppTransactionUpsert;
+import com.ruc.payments.service.TransactionService;
+import com.ruc.payments.service.impl.TransactionBatchFlusher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "ruc.payments.batch.enabled=true",
+        "ruc.payments.batch.flushWindowMs=50"
+})
+@ActiveProfiles("test")
+public class TransactionBatchFlusherTest {
+    private static final int WRITERS = 20;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionBatchFlusher flusher;
+
+    @Test
+    void createOrUpdateTransaction_batchedWritesReportTheirOwnOutcome() throws Exception {
+        String prefix = "ORD-BATCH-" + System.nanoTime() + "-";
+        int badWriter = WRITERS / 2;
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        CyclicBarrier go = new CyclicBarrier(WRITERS);
+        List<Future<EppTransaction>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < WRITERS; i++) {
+                String orderKey = prefix + i;
+                String status = i == badWriter ? null : "APP"; // violates NOT NULL, fails the whole batch
+                futures.add(pool.submit(() -> {
+                    go.await(10, TimeUnit.SECONDS);
+                    return transactionService.createOrUpdateTransaction(orderKey, "APP1", status,
+                            new BigDecimal("10.00"), "a@b.com", "{}", null, null, null);
+                }));
+            }
+
+            for (int i = 0; i < WRITERS; i++) {
+                if (i == badWriter) {
+                    ExecutionException failure = assertThrows(ExecutionException.class,
+                            () -> futures.get(badWriter).get(30, TimeUnit.SECONDS));
+                    assertInstanceOf(DataIntegrityViolationException.class, failure.getCause());
+                } else {
+                    EppTransaction tx = futures.get(i).get(30, TimeUnit.SECONDS);
+                    assertEquals(prefix + i, tx.getOrderKey());
+                    assertEquals("APP", tx.getStatus());
+                    assertNotNull(tx.getId());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertNull(transactionService.findTransaction(prefix + badWriter, "APP1"));
+    }
+
+    @Test
+    void submit_reportsWhetherTheMergeAppliedTheRow() throws Exception {
+        String orderKey = "ORD-BATCH-GUARD-" + System.nanoTime();
+        transactionService.createOrUpdateTransaction(orderKey, "APP1", "COM",
+                new BigDecimal("10.00"), "a@b.com", "{}", null, "AUTH1", "REF1");
+
+        assertFalse(flusher.submit(new EppTransactionUpsert(orderKey, "APP1", "APP",
+                null, null, null, null, null, null)).get(30, TimeUnit.SECONDS), "COM -> APP is skipped");
+        assertTrue(flusher.submit(new EppTransactionUpsert(orderKey, "APP1", "COM",
+                null, null, null, "{}", null, null)).get(30, TimeUnit.SECONDS), "same status is applied");
+
+        StatusTransitionException rejected = assertThrows(StatusTransitionException.class,
+                () -> transactionService.createOrUpdateTransaction(orderKey, "APP1", "DEC",
+                        null, null, null, "{}", null, null));
+        assertTrue(rejected.getMessage().contains("is COM"));
+        assertEquals("COM", transactionService.findTransaction(orderKey, "APP1").getStatus());
+    }
+}
@@ -0,0 +1,183 @@
+package com.ruc.payments;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.ruc.payments.entity.EppTransaction;
+import com.ruc.payments.repo.EppTransactionRepository;
+import com.ruc.payments.service.TransactionService;
+import com.ruc.payments.service.impl.TransactionLookupCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "ruc.payments.cache.maximumSize=100")
+@ActiveProfiles("test")
+public class TransactionLookupCacheTest {
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int ROUNDS = 10;
+    private static final int WRITES_PER_THREAD = 5;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionLookupCache lookupCache;
+
+    @Autowired
+    private EppTransactionRepository repo;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static EppTransaction row(String orderKey, String status) {
+        EppTransaction tx = new EppTransaction();
+        tx.setOrderKey(orderKey);
+        tx.setApplicationUniqueId("APP1");
+        tx.setStatus(status);
+        return tx;
+    }
+
+    @Test
+    void invalidate_duringInFlightLoad_dropsTheLoadedValue() throws Exception {
+        String orderKey = "ORD-INFLIGHT-" + System.nanoTime();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Reader has read the old row and is about to cache it when the writer invalidates
+        CompletableFuture<EppTransaction> reader = CompletableFuture.supplyAsync(() ->
+                lookupCache.get(orderKey, "APP1", () -> {
+                    loading.countDown();
+                    await(release);
+                    return row(orderKey, "OLD");
+                }));
+        assertTrue(loading.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> lookupCache.invalidate(orderKey, "APP1"));
+        Thread.sleep(100);
+        release.countDown();
+        reader.get(10, TimeUnit.SECONDS);
+        writer.get(10, TimeUnit.SECONDS);
+
+        assertEquals("NEW", lookupCache.get(orderKey, "APP1", () -> row(orderKey, "NEW")).getStatus());
+    }
+
+    @Test
+    void invalidate_insideTransaction_dropsValuesLoadedBeforeCommit() throws Exception {
+        String orderKey = "ORD-TXINVAL-" + System.nanoTime();
+
+        transactionTemplate.executeWithoutResult(txStatus -> {
+            lookupCache.invalidate(orderKey, "APP1");
+            // Another thread still sees the committed (old) row and caches it
+            EppTransaction loaded = CompletableFuture.supplyAsync(() ->
+                    lookupCache.get(orderKey, "APP1", () -> row(orderKey, "OLD"))).join();
+            assertEquals("OLD", loaded.getStatus());
+        });
+
+        assertEquals("NEW", lookupCache.get(orderKey, "APP1", () -> row(orderKey, "NEW")).getStatus());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void findTransaction_servesRepeatLookupsFromCacheUntilWritten() {
+        String orderKey = "ORD-CACHE-" + System.nanoTime();
+        transactionService.createOrUpdateTransaction(orderKey, "APP1", "APP",
+                new BigDecimal("10.00"), "a@b.com", null, null, null, null);
+        CacheStats before = lookupCache.stats();
+
+        EppTransaction first = transactionService.findTransaction(orderKey, "APP1");
+        first.setStatus("MUTATED");
+        EppTransaction second = transactionService.findTransaction(orderKey, "APP1");
+        transactionService.createOrUpdateTransaction(orderKey, "APP1", "COM",
+                null, null, null, "{}", "AUTH1", "REF1");
+        EppTransaction third = transactionService.findTransaction(orderKey, "APP1");
+
+        CacheStats delta = lookupCache.stats().minus(before);
+        assertEquals(2, delta.missCount());
+        assertEquals(1, delta.hitCount());
+        assertEquals("APP", second.getStatus());
+        assertEquals("COM", third.getStatus());
+        assertEquals("AUTH1", third.getAuthCode());
+    }
+
+    @Test
+    void findTransaction_evictsBeyondMaximumSize() {
+        String prefix = "ORD-EVICT-" + System.nanoTime() + "-";
+        CacheStats before = lookupCache.stats();
+
+        for (int i = 0; i < 300; i++) {
+            transactionService.findTransaction(prefix + i, "APP1");
+        }
+
+        lookupCache.cleanUp();
+        assertTrue(lookupCache.stats().minus(before).evictionCount() >= 200);
+        assertTrue(lookupCache.estimatedSize() <= 100);
+    }
+
+    @Test
+    void findTransaction_concurrentWritersAndReaders_cacheConvergesOnDatabase() throws Exception {
+        String prefix = "ORD-CACHE-RACE-" + System.nanoTime() + "-";
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS);
+
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                String orderKey = prefix + round;
+                CyclicBarrier go = new CyclicBarrier(WRITERS + READERS);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < WRITERS; t++) {
+                    // Statuses the state machine lets follow each other in any order
+                    String status = t % 2 == 0 ? "APP" : "CAN";
+                    futures.add(pool.submit(() -> {
+                        go.await(10, TimeUnit.SECONDS);
+                        for (int i = 0; i < WRITES_PER_THREAD; i++) {
+                            transactionService.createOrUpdateTransaction(orderKey, "APP1", status,
+                                    new BigDecimal(i), null, null, null, null, null);
+                        }
+                        return null;
+                    }));
+                }
+                for (int t = 0; t < READERS; t++) {
+                    futures.add(pool.submit(() -> {
+                        go.await(10, TimeUnit.SECONDS);
+                        for (int i = 0; i < WRITES_PER_THREAD * 4; i++) {
+                            transactionService.findTransaction(orderKey, "APP1");
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+
+                // A load that raced a write must not have left a stale entry behind
+                EppTransaction cached = transactionService.findTransaction(orderKey, "APP1");
+                EppTransaction stored = repo.readRow(orderKey, "APP1");
+                assertEquals(stored.getStatus(), cached.getStatus(), "round " + round);
+                assertEquals(stored.getAmount(), cached.getAmount(), "round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.ruc.payments;
+
+import com.ruc.payments.entity.EppTransaction;
+import com.ruc.payments.repo.EppTransactionRepository;
+import com.ruc.payments.repo.EppTransactionUpsert;
+import com.ruc.payments.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class TransactionServiceConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 25;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private EppTransactionRepository repo;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private long nextSequenceValue() {
+        return jdbc.queryForObject("SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES "
+                + "WHERE SEQUENCE_NAME = 'EPP_TRANSACTION_SEQ'", Long.class);
+    }
+
+    @Test
+    void createOrUpdateTransaction_sameOrderFromManyThreads_keepsSingleRow() throws Exception {
+        String prefix = "ORD-RACE-" + System.nanoTime() + "-";
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                String orderKey = prefix + round;
+                CyclicBarrier go = new CyclicBarrier(THREADS);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    boolean callback = t % 2 == 1;
+                    futures.add(pool.submit(() -> {
+                        go.await(10, TimeUnit.SECONDS);
+                        if (callback) {
+                            // CAN and APP may follow each other in either order, so every write is legal
+                            return transactionService.createOrUpdateTransaction(orderKey, "APP1", "CAN",
+                                    null, null, null, "{\"status\":\"CAN\"}", "AUTH1", "REF1");
+                        }
+                        return transactionService.createOrUpdateTransaction(orderKey, "APP1", "APP",
+                                new BigDecimal("10.00"), "a@b.com", "{}", null, null, null);
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS); // rethrows any unique-constraint failure
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Map<String, Long> rowsPerOrder = repo.findAll().stream()
+                .filter(tx -> tx.getOrderKey().startsWith(prefix))
+                .collect(Collectors.groupingBy(EppTransaction::getOrderKey, Collectors.counting()));
+        assertEquals(ROUNDS, rowsPerOrder.size());
+        assertTrue(rowsPerOrder.values().stream().allMatch(count -> count == 1));
+    }
+
+    @Test
+    void createOrUpdateTransaction_nullValuesPreserveExistingData() {
+        String orderKey = "ORD-MERGE-" + System.nanoTime();
+
+        EppTransaction created = transactionService.createOrUpdateTransaction(orderKey, "APP1", "APP",
+                new BigDecimal("25.00"), "a@b.com", "{}", null, null, null);
+        EppTransaction updated = transactionService.createOrUpdateTransaction(orderKey, "APP1", "COM",
+                null, null, null, "{}", "AUTH1", "REF1");
+
+        assertEquals(created.getId(), updated.getId());
+        assertEquals("COM", updated.getStatus());
+        assertEquals(new BigDecimal("25.00"), updated.getAmount());
+        assertEquals("a@b.com", updated.getEmail());
+        assertEquals("AUTH1", updated.getAuthCode());
+    }
+
+    @Test
+    void mergeAndEntityInserts_drawDistinctIdsFromSharedSequence() {
+        String prefix = "ORD-SEQ-" + System.nanoTime() + "-";
+        List<Long> ids = new ArrayList<>();
+
+        for (int i = 0; i < 60; i++) {
+            if (i % 2 == 0) {
+                EppTransaction tx = new EppTransaction();
+                tx.setOrderKey(prefix + i);
+                tx.setApplicationUniqueId("APP1");
+                tx.setStatus("APP");
+                tx.setAmount(BigDecimal.ONE);
+                ids.add(repo.save(tx).getId());
+            } else {
+                ids.add(transactionService.createOrUpdateTransaction(prefix + i, "APP1", "APP",
+                        BigDecimal.ONE, null, null, null, null, null).getId());
+            }
+        }
+
+        assertEquals(ids.size(), ids.stream().distinct().count());
+    }
+
+    @Test
+    void updates_doNotConsumeSequenceIds() {
+        String orderKey = "ORD-SEQ-UPDATE-" + System.nanoTime();
+        long before = nextSequenceValue();
+
+        long id = transactionService.createOrUpdateTransaction(orderKey, "APP1", "APP",
+                BigDecimal.ONE, null, null, null, null, null).getId();
+        for (int i = 0; i < 3 * EppTransaction.ID_ALLOCATION_SIZE; i++) {
+            transactionService.createOrUpdateTransaction(orderKey, "APP1", "APP",
+                    null, null, null, null, null, "REF" + i);
+        }
+        List<EppTransactionUpsert> batch = new ArrayList<>();
+        for (int i = 0; i < 2 * EppTransaction.ID_ALLOCATION_SIZE; i++) {
+            batch.add(new EppTransactionUpsert(orderKey, "APP1", "APP", null, null, null, null, null, "BATCH" + i));
+        }
+        transactionService.createOrUpdateTransactions(batch);
+
+        // The insert may open one block; the 250 updates must not open any more
+        assertTrue(nextSequenceValue() - before <= EppTransaction.ID_ALLOCATION_SIZE);
+        assertEquals(id, transactionService.findTransaction(orderKey, "APP1").getId());
+    }
+}
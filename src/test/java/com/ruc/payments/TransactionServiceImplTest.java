@@ -0,0 +1,86 @@
+package com.ruc.payments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.ruc.payments.entity.EppTransaction;
+import com.ruc.payments.exception.StatusTransitionException;
+import com.ruc.payments.metrics.PaymentMetrics;
+import com.ruc.payments.repo.EppTransactionRepository;
+import com.ruc.payments.repo.EppTransactionRepositoryCustom.UpsertResult;
+import com.ruc.payments.repo.EppTransactionUpsert;
+import com.ruc.payments.service.TransactionChangedEvent;
+import com.ruc.payments.service.TransactionService;
+import com.ruc.payments.service.impl.TransactionServiceImpl;
+
+public class TransactionServiceImplTest {
+    private EppTransactionRepository repo;
+    private ApplicationEventPublisher events;
+    private TransactionService transactionService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        repo = Mockito.mock(EppTransactionRepository.class);
+        events = Mockito.mock(ApplicationEventPublisher.class);
+        TransactionTemplate transactionTemplate = Mockito.mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        transactionService = new TransactionServiceImpl(repo, transactionTemplate,
+                Mockito.mock(ObjectProvider.class), Mockito.mock(ObjectProvider.class),
+                new PaymentMetrics(new SimpleMeterRegistry()), events);
+    }
+
+    @Test
+    void createOrUpdateTransaction_upsertsWithOneMerge() {
+        when(repo.upsert(any(EppTransactionUpsert.class)))
+                .thenAnswer(invocation -> new UpsertResult(rowFor(invocation.getArgument(0)), true));
+
+        EppTransaction tx = transactionService.createOrUpdateTransaction("ORD1", "APP1", "APP",
+                new BigDecimal("1.00"), "a@b.com", "{}", "{}", null, null);
+        assertEquals("ORD1", tx.getOrderKey());
+        assertEquals("APP1", tx.getApplicationUniqueId());
+        assertEquals("APP", tx.getStatus());
+        // One MERGE, no find-then-save, and the change is announced
+        verify(repo, never()).findByOrderKeyAndApplicationUniqueId(anyString(), anyString());
+        verify(repo, never()).save(any(EppTransaction.class));
+        verify(events).publishEvent(new TransactionChangedEvent("ORD1", "APP1", "APP"));
+    }
+
+    @Test
+    void createOrUpdateTransaction_rejectsWhatTheMergeDidNotWrite() {
+        // A write committing between the MERGE and the read-back can leave the requested status
+        when(repo.upsert(any(EppTransactionUpsert.class)))
+                .thenAnswer(invocation -> new UpsertResult(rowFor(invocation.getArgument(0)), false));
+
+        StatusTransitionException e = assertThrows(StatusTransitionException.class, () ->
+                transactionService.createOrUpdateTransaction("ORD1", "APP1", "CAN",
+                        null, null, null, null, null, null));
+        assertEquals("CAN", e.getRequestedStatus());
+        verify(events, never()).publishEvent(any());
+    }
+
+    private static EppTransaction rowFor(EppTransactionUpsert upsert) {
+        EppTransaction row = new EppTransaction();
+        row.setOrderKey(upsert.orderKey());
+        row.setApplicationUniqueId(upsert.applicationUniqueId());
+        row.setStatus(upsert.status());
+        return row;
+    }
+}